@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.benchmarks;
+
+import com.github.api.processor.annotations.Api;
+import com.github.api.processor.annotations.ErrorHandler;
+import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.FallbackHandler;
+import com.github.api.processor.annotations.RequestHandler;
+import com.github.api.processor.annotations.ResponseHandler;
+import com.github.api.processor.handlers.AbstractErrorHandler;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractFallbackHandler;
+import com.github.api.processor.handlers.AbstractRequestHandler;
+import com.github.api.processor.handlers.AbstractResponseHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.wrappers.ErrorWrapper;
+import com.github.api.processor.wrappers.FallbackWrapper;
+import com.github.api.processor.wrappers.ResponseWrapper;
+
+/**
+ * Api, and handlers, exercised by the benchmarks. Every handler does as little work 
+ * as possible so that what is measured is the overhead of ApiProcessor itself.
+ * 
+ * @author github.
+ */
+@Api
+public interface BenchmarkApi {
+    
+    /**
+     * Only an ExecutionHandler: the shortest path from proxy to handler.
+     * 
+     * @param value any value.
+     * @return constant value.
+     */
+    @ExecutionHandler(ConstantExecutionHandler.class)
+    int dispatch(int value);
+    
+    /**
+     * The full request, execution and response path.
+     * 
+     * @param value any value.
+     * @return constant value.
+     */
+    @RequestHandler(PassThroughRequestHandler.class)
+    @ExecutionHandler(ConstantExecutionHandler.class)
+    @ResponseHandler(PassThroughResponseHandler.class)
+    int pipeline(int value);
+    
+    /**
+     * The execution, error and fallback path.
+     * 
+     * @param value any value.
+     * @return constant value of the FallbackHandler.
+     */
+    @ExecutionHandler(FailingExecutionHandler.class)
+    @ErrorHandler(PassThroughErrorHandler.class)
+    @FallbackHandler(ConstantFallbackHandler.class)
+    int fallback(int value);
+    
+    public static class PassThroughRequestHandler extends AbstractRequestHandler<Integer, Integer> {
+        @Override
+        public Integer apply(Integer context) {
+            return context;
+        }
+    }
+    
+    public static class ConstantExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        @Override
+        public Integer apply(InvocationInstance<Integer> invocationInstance) {
+            return 1;
+        }
+    }
+    
+    public static class FailingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        // pre-allocated so that filling in a stack trace is not what gets measured.
+        private static final RuntimeException FAILURE = new RuntimeException("benchmark failure", null, false, false) { };
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> invocationInstance) {
+            throw FAILURE;
+        }
+    }
+    
+    public static class PassThroughResponseHandler extends AbstractResponseHandler<Integer, Integer> {
+        @Override
+        public Integer apply(ResponseWrapper<Integer, Integer> responseWrapper) {
+            return responseWrapper.value();
+        }
+    }
+    
+    public static class PassThroughErrorHandler extends AbstractErrorHandler<Integer> {
+        @Override
+        public Throwable apply(ErrorWrapper<Integer> errorWrapper) {
+            return errorWrapper.thrownException();
+        }
+    }
+    
+    public static class ConstantFallbackHandler extends AbstractFallbackHandler<Integer> {
+        @Override
+        public Integer apply(FallbackWrapper fallbackWrapper) {
+            return 2;
+        }
+    }
+}
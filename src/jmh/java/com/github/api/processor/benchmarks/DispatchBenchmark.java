@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.benchmarks;
+
+import com.github.api.processor.ApiProcessor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-threaded cost of a call through an Api proxy, both the reflective 
+ * java.lang.reflect.Proxy and the generated class, down each handler path.
+ * 
+ * @author github.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    
+    @Param({ "false", "true" })
+    public boolean generateProxies;
+    
+    private BenchmarkApi api;
+    private int value;
+    
+    @Setup
+    public void setup() {
+        ApiProcessor.Builder builder = ApiProcessor.builder().api(BenchmarkApi.class);
+        if (generateProxies) {
+            builder.generateProxies();
+        }
+        api = builder.build().get(BenchmarkApi.class);
+    }
+    
+    @Benchmark
+    public int rawDispatch() {
+        return api.dispatch(value++);
+    }
+    
+    @Benchmark
+    public int requestExecutionResponse() {
+        return api.pipeline(value++);
+    }
+    
+    @Benchmark
+    public int errorFallback() {
+        return api.fallback(value++);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.benchmarks;
+
+import com.github.api.processor.config.HandlerRegistrationModule;
+import com.github.api.processor.config.StandAloneModules;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.google.inject.Guice;
+import java.lang.reflect.Method;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the per-method work done ahead of the handlers: looking up a method's plan, 
+ * and creating an InvocationInstance from it, which is what is left of the per-call 
+ * ApiProcessorCache.invocationInstanceFrom lookup, and compiling the plan (i.e. resolving 
+ * handlers and checkTypeConsistency) on a fresh handler (cold) versus an already 
+ * compiled one (warm). Only the cold benchmark pays for creating a handler, through 
+ * its own per-invocation state, such that the warm ones are measured undisturbed.
+ * 
+ * @author github.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanBenchmark {
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Object [] args = { 1 };
+    
+    private Method method;
+    private AbstractRuntimeInvocationHandler warmHandler;
+    
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        method = BenchmarkApi.class.getMethod("pipeline", int.class);
+        warmHandler = newHandler(scheduler);
+        warmHandler.planFor(method);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+    
+    @Benchmark
+    public InvocationInstance invocationInstance() {
+        return InvocationInstance.newInstance(warmHandler.planFor(method), args);
+    }
+    
+    @Benchmark
+    public InvocationPlan checkTypeConsistencyWarm() {
+        return warmHandler.planFor(method);
+    }
+    
+    @Benchmark
+    public InvocationPlan checkTypeConsistencyCold(ColdHandler cold) {
+        return cold.handler.planFor(method);
+    }
+    
+    private static AbstractRuntimeInvocationHandler newHandler(ScheduledExecutorService scheduler) {
+        return Guice.createInjector(new StandAloneModules(new Properties(), null, scheduler, null), 
+                new HandlerRegistrationModule(null, null, null, null, null))
+                .getInstance(AbstractRuntimeInvocationHandler.class);
+    }
+    
+    /**
+     * A fresh handler, with no compiled plans, created ahead of each invocation.
+     */
+    @State(Scope.Thread)
+    public static class ColdHandler {
+        
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        
+        private AbstractRuntimeInvocationHandler handler;
+        
+        @Setup(Level.Invocation)
+        public void setup() {
+            handler = newHandler(scheduler);
+        }
+        
+        @TearDown
+        public void tearDown() {
+            scheduler.shutdown();
+        }
+    }
+}
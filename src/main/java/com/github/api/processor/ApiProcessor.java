@@ -19,58 +19,129 @@ package com.github.api.processor;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.github.api.processor.annotations.Api;
 import com.github.api.processor.cache.ApiProcessorCache;
 import com.github.api.processor.config.ApiRegistrationModule;
 import com.github.api.processor.config.HandlerRegistrationModule;
 import com.github.api.processor.config.StandAloneModules;
+import com.github.api.processor.executors.AbstractExecutorProvider;
+import com.github.api.processor.executors.BoundedPoolExecutorProvider;
+import com.github.api.processor.executors.ExecutorProviders;
 import com.github.api.processor.handlers.AbstractErrorHandler;
 import com.github.api.processor.handlers.AbstractExecutionHandler;
 import com.github.api.processor.handlers.AbstractFallbackHandler;
 import com.github.api.processor.handlers.AbstractRequestHandler;
 import com.github.api.processor.handlers.AbstractResponseHandler;
 import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.index.ApiIndex;
+import com.github.api.processor.metrics.ApiProcessorMetrics;
+import com.github.api.processor.metrics.MetricsSnapshot;
+import com.github.api.processor.tracing.AbstractTracer;
 import com.github.api.processor.utils.ApiProcessorUtils;
+import com.github.api.processor.warmup.AbstractWarmUpArguments;
+import com.github.api.processor.warmup.JitWarmUp;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import java.nio.file.Paths;
 import java.util.Properties;
 
 import java.util.Set;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
  * @author github.
  */
-public class ApiProcessor {
+public class ApiProcessor implements AutoCloseable {
     
     private final Injector injector;
+    private final CompletableFuture<Void> ready;
     
-    private ApiProcessor(Injector injector) {
+    private ApiProcessor(Injector injector, CompletableFuture<Void> ready) {
         this.injector = injector;
+        this.ready = ready;
     }
     
     public <T> T get(Class<T> clazz) {
         return injector.getInstance(clazz);
     }
     
+    /**
+     * Whether this ApiProcessor has finished warming up the JIT, if asked to, and 
+     * so is ready to take traffic.
+     * 
+     * @return true if ready.
+     */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+    
+    /**
+     * Get a future completed once this ApiProcessor has finished warming up the 
+     * JIT, if asked to, and so is ready to take traffic.
+     * 
+     * @return future completed when ready.
+     */
+    public CompletableFuture<Void> ready() {
+        return ready.thenApply(Function.identity());
+    }
+    
+    /**
+     * Take a snapshot of the latencies, per pipeline stage, and counters of every Api method. 
+     * Empty unless enabled through {@link ApiProcessorConstants#METRICS}.
+     * 
+     * @return newly taken snapshot.
+     */
+    public MetricsSnapshot metrics() {
+        return injector.getInstance(ApiProcessorMetrics.class).snapshot();
+    }
+    
+    /**
+     * Release what this ApiProcessor registered outside of itself, i.e. the MXBeans of 
+     * its metrics, and shut down the executors it created. Apis got from it can still 
+     * be invoked once closed, but no longer on the executors it created.
+     */
+    @Override
+    public void close() {
+        injector.getInstance(ApiProcessorMetrics.class).close();
+        injector.getInstance(ExecutorProviders.class).close();
+    }
+    
     public static Builder builder() {
         return new Builder();
     }
     
     public static class Builder {
     
-        private final Logger logger = Logger.getLogger(ApiProcessor.class.getName());
+        private static final String JAR_SPEC_PREFIX = "jar:";
+        private static final String WARM_UP_THREAD_NAME = "api-processor-warm-up-%d";
+        private static final String JIT_WARM_UP_THREAD_NAME = "api-processor-jit-warm-up-%d";
+        
+        private final Logger logger = LoggerFactory.getLogger(ApiProcessor.class);
         private final Set<Class> apis = Sets.newHashSet();
         private final Set<Module> modules = Sets.newHashSet();
         private final Properties properties = new Properties();
         
         private boolean scanClasspath = false;
+        private boolean warmUp = false;
+        private AbstractWarmUpArguments warmUpArguments;
+        private final Set<String> scanSpec = Sets.newLinkedHashSet();
+        private AbstractExecutorProvider executorProvider;
+        private ScheduledExecutorService retryScheduler;
+        private AbstractTracer tracer;
         
         private Class<? extends AbstractExecutionHandler> executionHandler;
         private Class<? extends AbstractErrorHandler> errorHandler;
@@ -121,7 +192,11 @@ public class ApiProcessor {
         }
         
         /**
-         * Whether to scan classpath for Interfaces annotated with @Api. Defaults to false.
+         * Whether to find Interfaces annotated with @Api on the classpath. The build-time 
+         * index written by the ApiIndexProcessor is read in place of scanning each jar, or 
+         * directory, that ships one, while every other classpath element is still scanned. 
+         * Both are limited to any packages and jars passed to scanPackages and scanJars. 
+         * When running as a native-image only the index is used. Defaults to false.
          * 
          * @return this Builder.
          */
@@ -130,6 +205,145 @@ public class ApiProcessor {
             return this;
         }
         
+        /**
+         * Scan only the passed packages, and their sub-packages, for @Api interfaces. 
+         * Implies scanClasspath().
+         * 
+         * @param packages the package names to whitelist (e.g. "com.example.apis").
+         * @return this Builder.
+         */
+        public Builder scanPackages(String... packages) {
+            checkNotNull(packages, "packages cannot be null");
+            for (String pkg : packages) {
+                checkArgument(pkg != null && !pkg.isEmpty() && !pkg.startsWith("-") && !pkg.startsWith(JAR_SPEC_PREFIX), 
+                        "package must be a non-empty package name");
+                this.scanSpec.add(pkg);
+            }
+            this.scanClasspath = true;
+            return this;
+        }
+        
+        /**
+         * Scan only the passed jars, by file name, for @Api interfaces. Directories on the 
+         * classpath are still scanned. Implies scanClasspath().
+         * 
+         * @param jars the jar file names to whitelist (e.g. "my-apis-1.0.jar").
+         * @return this Builder.
+         */
+        public Builder scanJars(String... jars) {
+            checkNotNull(jars, "jars cannot be null");
+            for (String jar : jars) {
+                checkArgument(jar != null && !jar.isEmpty(), "jar must be a non-empty jar file name");
+                this.scanSpec.add(JAR_SPEC_PREFIX + jar);
+            }
+            this.scanClasspath = true;
+            return this;
+        }
+        
+        /**
+         * Whether to compile the plan of every method, of every Api, in parallel across 
+         * all cores when building. Every method whose handlers do not fit together is 
+         * then reported at once, through an ApiWarmUpException, rather than only the 
+         * first. Defaults to false.
+         * 
+         * @return this Builder.
+         */
+        public Builder warmUp() {
+            this.warmUp = true;
+            return this;
+        }
+        
+        /**
+         * Once built, invoke each method of every Api the passed number of times, through 
+         * a side-effect free stub in place of its ExecutionHandler and with synthesized 
+         * arguments, such that the JIT compiles the invocation path ahead of real traffic. 
+         * Runs in the background, see ApiProcessor#ready().
+         * 
+         * @param invocations the number of times to invoke each method.
+         * @return this Builder.
+         */
+        public Builder jitWarmUp(int invocations) {
+            checkArgument(invocations >= 0, "invocations cannot be negative");
+            this.properties.put(ApiProcessorConstants.JIT_WARM_UP, String.valueOf(invocations));
+            return this;
+        }
+        
+        /**
+         * Like jitWarmUp(int) but invoking methods with the arguments supplied by the 
+         * passed AbstractWarmUpArguments where it returns any.
+         * 
+         * @param invocations the number of times to invoke each method.
+         * @param warmUpArguments supplies the arguments methods are invoked with.
+         * @return this Builder.
+         */
+        public Builder jitWarmUp(int invocations, AbstractWarmUpArguments warmUpArguments) {
+            this.warmUpArguments = checkNotNull(warmUpArguments, "warmUpArguments cannot be null");
+            return jitWarmUp(invocations);
+        }
+        
+        /**
+         * Whether to generate a concrete class per @Api interface, each method bound 
+         * directly to its dispatcher, instead of using reflective proxies. Defaults to false.
+         * 
+         * @return this Builder.
+         */
+        public Builder generateProxies() {
+            this.properties.put(ApiProcessorConstants.PROXY_GENERATION, Boolean.TRUE.toString());
+            return this;
+        }
+        
+        /**
+         * Set the executor that asynchronous Api methods (i.e. those returning a 
+         * CompletableFuture or CompletionStage) are run on. Defaults to a dedicated 
+         * pool bounded by {@link ApiProcessorConstants#EXECUTOR_THREADS}.
+         * 
+         * @param asyncExecutor executor to run asynchronous invocations on.
+         * @return this Builder.
+         */
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            checkNotNull(asyncExecutor, "asyncExecutor cannot be null");
+            this.executorProvider = AbstractExecutorProvider.of(asyncExecutor);
+            return this;
+        }
+        
+        /**
+         * Set the global ExecutorProvider asynchronous Api methods are run on. Can be 
+         * overridden per Api/method with @ExecutorProvider. Defaults to a dedicated pool 
+         * bounded by {@link ApiProcessorConstants#EXECUTOR_THREADS}, see {@link BoundedPoolExecutorProvider}.
+         * 
+         * @param executorProvider global ExecutorProvider.
+         * @return this Builder.
+         */
+        public Builder executorProvider(AbstractExecutorProvider executorProvider) {
+            this.executorProvider = checkNotNull(executorProvider, "executorProvider cannot be null");
+            return this;
+        }
+        
+        /**
+         * Set the scheduler that delays between ExecutionHandler retries are timed on, 
+         * so that asynchronous invocations never park a thread while backing off. 
+         * Defaults to a single daemon thread shared by every ApiProcessor.
+         * 
+         * @param retryScheduler scheduler to time retries on.
+         * @return this Builder.
+         */
+        public Builder retryScheduler(ScheduledExecutorService retryScheduler) {
+            this.retryScheduler = checkNotNull(retryScheduler, "retryScheduler cannot be null");
+            return this;
+        }
+        
+        /**
+         * Set the tracer each stage of every invocation, along with any retries, hedges 
+         * and delegates, is reported to. Defaults to logging through slf4j at TRACE/DEBUG.
+         * 
+         * @param tracer tracer to report invocations to.
+         * @return this Builder.
+         */
+        public Builder tracer(AbstractTracer tracer) {
+            this.tracer = checkNotNull(tracer, "tracer cannot be null");
+            return this;
+        }
+        
         /**
          * Set the global ExecutionHandler. Optional and defaults to null.
          * 
@@ -193,28 +407,69 @@ public class ApiProcessor {
         public ApiProcessor build() {
             
             // 1.) Create parent injector from stand alone modules.
-            StandAloneModules sam = new StandAloneModules(properties);
+            StandAloneModules sam = new StandAloneModules(properties, executorProvider, retryScheduler, tracer);
             HandlerRegistrationModule hrm = new HandlerRegistrationModule(executionHandler, errorHandler, fallbackHandler, requestHandler, responseHandler);
             Injector parentInjector = Guice.createInjector(sam, hrm);
 
             // 2.) Gather all Api's passed in and on classpath.
             Set<Class> builtApis = Sets.newHashSet(apis);
             if (this.scanClasspath) {
-                ApiProcessorUtils processorUtils = parentInjector.getInstance(ApiProcessorUtils.class);
-                builtApis.addAll(processorUtils.findClassesAnnotatedWith(Api.class));
+                boolean nativeImage = ApiProcessorUtils.nativeImage(properties.getProperty(ApiProcessorConstants.NATIVE_IMAGE, ApiProcessorConstants.NATIVE_IMAGE_DEFAULT));
+                ApiIndex apiIndex = (nativeImage || Boolean.valueOf(properties.getProperty(ApiProcessorConstants.API_INDEX, ApiProcessorConstants.API_INDEX_DEFAULT))) 
+                        ? ApiIndex.load(ApiProcessor.class.getClassLoader()) 
+                        : new ApiIndex();
+                builtApis.addAll(apiIndex.apis(ApiProcessor.class.getClassLoader(), scanSpec));
+                if (nativeImage) {
+                    checkState(!apiIndex.isEmpty(), "no Api index found on classpath and classpath is never scanned when running as a native-image");
+                } else {
+                    int scanThreads = Integer.parseInt(properties.getProperty(ApiProcessorConstants.SCAN_THREADS, ApiProcessorConstants.SCAN_THREADS_DEFAULT));
+                    String scanCache = properties.getProperty(ApiProcessorConstants.SCAN_CACHE, ApiProcessorConstants.SCAN_CACHE_DEFAULT);
+                    ApiProcessorUtils processorUtils = parentInjector.getInstance(ApiProcessorUtils.class);
+                    builtApis.addAll(processorUtils.findClassesAnnotatedWith(Api.class, 
+                            scanSpec, 
+                            scanThreads > 0 ? scanThreads : Runtime.getRuntime().availableProcessors(), 
+                            scanCache.isEmpty() ? null : Paths.get(scanCache), 
+                            apiIndex.locations()));
+                }
             }
                         
             checkArgument(builtApis.size() > 0, "must have at least 1 api to initialize processor");
             builtApis.stream().forEach(entry -> {
-                logger.log(Level.INFO, "Found Api @ {0}", entry.getName());
+                logger.info("Found Api @ {}", entry.getName());
             });
             
-            // 3.) Create child injector and build ApiProcessor.
+            // 3.) Compile the InvocationPlan of every method, then create child injector and build ApiProcessor.
             AbstractRuntimeInvocationHandler apiProcessorInvocationHandler = parentInjector.getInstance(AbstractRuntimeInvocationHandler.class);
+            if (this.warmUp) {
+                ExecutorService warmUpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), 
+                        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(WARM_UP_THREAD_NAME).build());
+                try {
+                    apiProcessorInvocationHandler.warmUp(builtApis, warmUpExecutor);
+                } finally {
+                    warmUpExecutor.shutdown();
+                }
+            } else {
+                apiProcessorInvocationHandler.prepare(builtApis);
+            }
             ApiProcessorCache apiProcessorCache = parentInjector.getInstance(ApiProcessorCache.class);
             modules.add(new ApiRegistrationModule(builtApis, apiProcessorInvocationHandler, apiProcessorCache));
             Injector childInjector = parentInjector.createChildInjector(modules);
-            return new ApiProcessor(childInjector);
+            
+            // 4.) Warm up the JIT, if asked to, before marking the ApiProcessor ready.
+            int jitWarmUpInvocations = Integer.parseInt(properties.getProperty(ApiProcessorConstants.JIT_WARM_UP, ApiProcessorConstants.JIT_WARM_UP_DEFAULT));
+            CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+            if (jitWarmUpInvocations > 0) {
+                JitWarmUp jitWarmUp = new JitWarmUp(apiProcessorInvocationHandler, 
+                        apiProcessorCache, 
+                        parentInjector.getInstance(ApiProcessorUtils.class), 
+                        jitWarmUpInvocations, 
+                        warmUpArguments);
+                ExecutorService jitWarmUpExecutor = Executors.newSingleThreadExecutor(
+                        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(JIT_WARM_UP_THREAD_NAME).build());
+                ready = CompletableFuture.runAsync(() -> jitWarmUp.run(builtApis), jitWarmUpExecutor);
+                jitWarmUpExecutor.shutdown();
+            }
+            return new ApiProcessor(childInjector, ready);
         }
     }
 }
@@ -25,14 +25,20 @@ public final class ApiProcessorConstants {
     /**
      * Long property.
      * 
-     * <p>Expire entries in cache after the specified time (in milliseconds) passed since last access. Default is 360000.
+     * <p>No longer has any effect. Reflective metadata is never expired, while the 
+     * response cache of each @Cached method is configured through {@link #RESPONSE_CACHE_TTL} 
+     * and {@link #RESPONSE_CACHE_MAX_SIZE}.
+     * 
+     * @deprecated no longer read by ApiProcessor and will be removed.
      */
+    @Deprecated
     public static final String CACHE_EXPIRE = "api-processor.cache-expire";
     
     /**
      * Integer property.
      * 
-     * <p>Number of retries an ExecutionHandler will be re-run upon failure. Default is 0.
+     * <p>Number of retries an ExecutionHandler will be re-run upon failure. Only idempotent 
+     * methods are retried, see {@link #IDEMPOTENT_METHODS}. Default is 0.
      */
     public static final String RETRY_COUNT = "api-processor.retry-count";
     public static final String RETRY_COUNT_DEFAULT = "0";
@@ -45,11 +51,365 @@ public final class ApiProcessorConstants {
      */
     public static final String RETRY_DELAY_START = "api-processor.retry-delay-start";
     public static final String RETRY_DELAY_START_DEFAULT = "5000";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Upper bound (in milliseconds) of the delay between ExecutionHandler retries. If greater 
+     * than {@link #RETRY_DELAY_START} the delay is backed off exponentially, by 
+     * {@link #RETRY_DELAY_MULTIPLIER}, up to this value. Default is 0 (i.e. a fixed delay).
+     */
+    public static final String RETRY_DELAY_MAX = "api-processor.retry-delay-max";
+    public static final String RETRY_DELAY_MAX_DEFAULT = "0";
+    
+    /**
+     * Double property.
+     * 
+     * <p>Factor the delay is multiplied by after each retry when backing off. Default is 2.
+     */
+    public static final String RETRY_DELAY_MULTIPLIER = "api-processor.retry-delay-multiplier";
+    public static final String RETRY_DELAY_MULTIPLIER_DEFAULT = "2";
+    
+    /**
+     * Double property.
+     * 
+     * <p>Factor (between 0 and 1) of each delay to randomly add or subtract so that 
+     * retries from many callers do not line up. Default is 0.
+     */
+    public static final String RETRY_JITTER = "api-processor.retry-jitter";
+    public static final String RETRY_JITTER_DEFAULT = "0";
 
     /** 
-     * Comma-separated list of methods considered idempotent for purposes of retries.  
+     * Comma-separated list of methods considered idempotent for purposes of retries. Each 
+     * entry is either a method name or '[fully qualified Api name]#[method name]'. Methods 
+     * annotated with @Idempotent, or @Retry, are always considered idempotent.
      */
     public static final String IDEMPOTENT_METHODS = "api-processor.idempotent-methods";
+    
+    /**
+     * Comma-separated list of fully qualified exception classes which are retryable. If 
+     * not set all exceptions, bar those in {@link #ABORT_ON}, are retryable.
+     */
+    public static final String RETRY_ON = "api-processor.retry-on";
+    
+    /**
+     * Comma-separated list of fully qualified exception classes which are never retryable.
+     */
+    public static final String ABORT_ON = "api-processor.abort-on";
+    
+    /**
+     * Double property.
+     * 
+     * <p>Number of retries per second allowed across all Api's. Can be set per Api by suffixing 
+     * with '.[fully qualified Api name]' in which case retries must be allowed by both. Default 
+     * is unset (i.e. no budget).
+     */
+    public static final String RETRY_BUDGET_RATE = "api-processor.retry-budget-rate";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Maximum number of retries that can be made in a single burst before being limited 
+     * by {@link #RETRY_BUDGET_RATE}. Can be set per Api by suffixing with 
+     * '.[fully qualified Api name]'. Default is 10.
+     */
+    public static final String RETRY_BUDGET_BURST = "api-processor.retry-budget-burst";
+    public static final String RETRY_BUDGET_BURST_DEFAULT = "10";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to guard the ExecutionHandler of every Api method with its own circuit 
+     * breaker. While a breaker is open invocations go straight to the FallbackHandler, or 
+     * fail fast if none is present. Can be set per Api/method with @CircuitBreaker. 
+     * Default is false.
+     */
+    public static final String CIRCUIT_BREAKER = "api-processor.circuit-breaker";
+    public static final String CIRCUIT_BREAKER_DEFAULT = "false";
+    
+    /**
+     * Double property.
+     * 
+     * <p>Failure rate (between 0 and 1) over the sliding window at which a circuit breaker 
+     * opens. Default is 0.5.
+     */
+    public static final String CIRCUIT_BREAKER_FAILURE_RATE = "api-processor.circuit-breaker-failure-rate";
+    public static final String CIRCUIT_BREAKER_FAILURE_RATE_DEFAULT = "0.5";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of most recent invocations a circuit breaker's failure rate is computed 
+     * over. Default is 100.
+     */
+    public static final String CIRCUIT_BREAKER_WINDOW = "api-processor.circuit-breaker-window";
+    public static final String CIRCUIT_BREAKER_WINDOW_DEFAULT = "100";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Minimum number of invocations in the window before a circuit breaker's failure 
+     * rate is considered. Default is 20.
+     */
+    public static final String CIRCUIT_BREAKER_MIN_CALLS = "api-processor.circuit-breaker-min-calls";
+    public static final String CIRCUIT_BREAKER_MIN_CALLS_DEFAULT = "20";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Time (in milliseconds) a circuit breaker stays open before letting trial 
+     * invocations through. Default is 30000.
+     */
+    public static final String CIRCUIT_BREAKER_OPEN_DURATION = "api-processor.circuit-breaker-open-duration";
+    public static final String CIRCUIT_BREAKER_OPEN_DURATION_DEFAULT = "30000";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of trial invocations, all of which must succeed, to close a half-open 
+     * circuit breaker. Default is 5.
+     */
+    public static final String CIRCUIT_BREAKER_HALF_OPEN_CALLS = "api-processor.circuit-breaker-half-open-calls";
+    public static final String CIRCUIT_BREAKER_HALF_OPEN_CALLS_DEFAULT = "5";
+    
+    /**
+     * String property.
+     * 
+     * <p>Algorithm bounding the number of invocations in flight against an Api, or 
+     * ExecutionHandler, at once. One of NONE, STATIC, AIMD or GRADIENT. Invocations over 
+     * the limit go straight to the FallbackHandler, or fail fast if none is present. Can 
+     * be set per Api/method with @ConcurrencyLimit. Default is NONE.
+     */
+    public static final String CONCURRENCY_LIMIT = "api-processor.concurrency-limit";
+    public static final String CONCURRENCY_LIMIT_DEFAULT = "NONE";
+    
+    /**
+     * String property.
+     * 
+     * <p>What a concurrency limit is shared across. One of API or EXECUTION_HANDLER. 
+     * Default is API.
+     */
+    public static final String CONCURRENCY_LIMIT_SCOPE = "api-processor.concurrency-limit-scope";
+    public static final String CONCURRENCY_LIMIT_SCOPE_DEFAULT = "API";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Initial concurrency limit, or the fixed limit if the algorithm is STATIC. Default is 20.
+     */
+    public static final String CONCURRENCY_LIMIT_INITIAL = "api-processor.concurrency-limit-initial";
+    public static final String CONCURRENCY_LIMIT_INITIAL_DEFAULT = "20";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Lowest concurrency limit an adaptive algorithm can shrink to. Default is 1.
+     */
+    public static final String CONCURRENCY_LIMIT_MIN = "api-processor.concurrency-limit-min";
+    public static final String CONCURRENCY_LIMIT_MIN_DEFAULT = "1";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Highest concurrency limit an adaptive algorithm can grow to. Default is 200.
+     */
+    public static final String CONCURRENCY_LIMIT_MAX = "api-processor.concurrency-limit-max";
+    public static final String CONCURRENCY_LIMIT_MAX_DEFAULT = "200";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Time (in milliseconds) the ExecutionHandler of an invocation, including every retry 
+     * and the delays between them, may run before failing with an InvocationTimeoutException, 
+     * which is passed on to the ErrorHandler and FallbackHandler. Attempts still running are 
+     * cancelled and no further retries are made. Can be set per Api/method with @Timeout. 
+     * Default is 0 (i.e. no timeout).
+     */
+    public static final String TIMEOUT = "api-processor.timeout";
+    public static final String TIMEOUT_DEFAULT = "0";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Time (in milliseconds) each single attempt of an ExecutionHandler may run, in 
+     * addition to {@link #TIMEOUT}, before it is cancelled and fails with an 
+     * InvocationTimeoutException, which may then be retried. Can be set per Api/method 
+     * with @Timeout(attempt = ...). Default is 0 (i.e. no timeout).
+     */
+    public static final String ATTEMPT_TIMEOUT = "api-processor.attempt-timeout";
+    public static final String ATTEMPT_TIMEOUT_DEFAULT = "0";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of threads of the default executor asynchronous methods, and the attempts of 
+     * timed, hedged or batched methods, are run on. Default is 64.
+     */
+    public static final String EXECUTOR_THREADS = "api-processor.executor-threads";
+    public static final String EXECUTOR_THREADS_DEFAULT = "64";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of tasks the default executor queues while all of its threads are busy, 
+     * after which further tasks are rejected. Default is 1024.
+     */
+    public static final String EXECUTOR_QUEUE_SIZE = "api-processor.executor-queue-size";
+    public static final String EXECUTOR_QUEUE_SIZE_DEFAULT = "1024";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to start a second, speculative, attempt of an idempotent method's 
+     * ExecutionHandler once the first has run longer than the method's observed latency 
+     * percentile, using whichever finishes first. Can be set per Api/method with @Hedge. 
+     * Default is false.
+     */
+    public static final String HEDGE = "api-processor.hedge";
+    public static final String HEDGE_DEFAULT = "false";
+    
+    /**
+     * Double property.
+     * 
+     * <p>Latency percentile (between 0 and 1) after which an attempt is hedged. Default is 0.95.
+     */
+    public static final String HEDGE_PERCENTILE = "api-processor.hedge-percentile";
+    public static final String HEDGE_PERCENTILE_DEFAULT = "0.95";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of most recent latencies the hedge percentile is computed over. No attempt 
+     * is hedged until this many have been observed. Default is 200.
+     */
+    public static final String HEDGE_WINDOW = "api-processor.hedge-window";
+    public static final String HEDGE_WINDOW_DEFAULT = "200";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Time (in milliseconds), after being cached, that the returnValue of a @Cached 
+     * method expires. Default is 60000.
+     */
+    public static final String RESPONSE_CACHE_TTL = "api-processor.response-cache-ttl";
+    public static final String RESPONSE_CACHE_TTL_DEFAULT = "60000";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Maximum number of returnValue's cached per @Cached method. Default is 10000.
+     */
+    public static final String RESPONSE_CACHE_MAX_SIZE = "api-processor.response-cache-max-size";
+    public static final String RESPONSE_CACHE_MAX_SIZE_DEFAULT = "10000";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Maximum number of invocations of a @Batch method executed in a single batch. Default is 100.
+     */
+    public static final String BATCH_MAX_SIZE = "api-processor.batch-max-size";
+    public static final String BATCH_MAX_SIZE_DEFAULT = "100";
+    
+    /**
+     * Long property.
+     * 
+     * <p>Maximum time (in milliseconds) an invocation of a @Batch method waits for its 
+     * batch to fill. Default is 10.
+     */
+    public static final String BATCH_MAX_DELAY = "api-processor.batch-max-delay";
+    public static final String BATCH_MAX_DELAY_DEFAULT = "10";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to record the latency of each pipeline stage, and count retries, fallbacks 
+     * and type-check failures, per Api method. See ApiProcessor#metrics(). Off by default 
+     * as every stage of every invocation then pays for reading the clock, and recording it.
+     * Default is false.
+     */
+    public static final String METRICS = "api-processor.metrics";
+    public static final String METRICS_DEFAULT = "false";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to register the metrics of each Api method as an MXBean with the platform 
+     * MBeanServer. Only applies if {@link #METRICS} is enabled. Default is false.
+     */
+    public static final String METRICS_JMX = "api-processor.metrics-jmx";
+    public static final String METRICS_JMX_DEFAULT = "false";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether ApiProcessor.Builder#scanClasspath should read the build-time index of 
+     * @Api interfaces (META-INF/api-processor/apis.index), written by the ApiIndexProcessor, 
+     * in place of scanning the jars and directories which ship one. Classpath elements 
+     * without an index are still scanned. Default is true.
+     */
+    public static final String API_INDEX = "api-processor.api-index";
+    public static final String API_INDEX_DEFAULT = "true";
+
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to emit a concrete class per @Api interface, with each method bound directly 
+     * to its own dispatcher, instead of using a reflective java.lang.reflect.Proxy. Default is false.
+     */
+    public static final String PROXY_GENERATION = "api-processor.proxy-generation";
+    public static final String PROXY_GENERATION_DEFAULT = "false";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of threads ApiProcessor.Builder#scanClasspath scans classpath elements 
+     * with. A value of 0 uses the number of available processors. Default is 0.
+     */
+    public static final String SCAN_THREADS = "api-processor.scan-threads";
+    public static final String SCAN_THREADS_DEFAULT = "0";
+    
+    /**
+     * String property.
+     * 
+     * <p>Directory ApiProcessor.Builder#scanClasspath persists its results to, one file 
+     * per distinct classpath (keyed by the path and modification time of each element), 
+     * such that restarts of an unchanged deployment skip scanning. Default is empty, 
+     * meaning results are not persisted.
+     */
+    public static final String SCAN_CACHE = "api-processor.scan-cache";
+    public static final String SCAN_CACHE_DEFAULT = "";
+    
+    /**
+     * Integer property.
+     * 
+     * <p>Number of times each Api method is invoked, through a stubbed ExecutionHandler, 
+     * to warm up the JIT once the ApiProcessor is built. The ApiProcessor is not ready 
+     * (see ApiProcessor#ready()) until this completes. Default is 0, meaning no warm-up.
+     */
+    public static final String JIT_WARM_UP = "api-processor.jit-warm-up";
+    public static final String JIT_WARM_UP_DEFAULT = "0";
+    
+    /**
+     * String property.
+     * 
+     * <p>File the resolved handler bindings, generic types and required type-checks of 
+     * every compiled InvocationPlan are snapshot to. On restart, methods whose Api and 
+     * handler classes are unchanged are compiled from the snapshot, and only stale 
+     * methods are compiled in full. Default is empty, meaning no snapshot is kept.
+     */
+    public static final String PLAN_SNAPSHOT = "api-processor.plan-snapshot";
+    public static final String PLAN_SNAPSHOT_DEFAULT = "";
+    
+    /**
+     * Boolean property.
+     * 
+     * <p>Whether to run in a manner a GraalVM native-image supports: Api's are only found 
+     * through the build-time index (the classpath is never scanned) and no classes are 
+     * generated at runtime. Always enabled when running within a native-image. Default 
+     * is false.
+     */
+    public static final String NATIVE_IMAGE = "api-processor.native-image";
+    public static final String NATIVE_IMAGE_DEFAULT = "false";
    
 
     private ApiProcessorConstants() {
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import com.github.api.processor.handlers.AbstractBatchExecutionHandler;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Collect invocations of a method into batches which are executed, at once, by an 
+ * AbstractBatchExecutionHandler in place of the ExecutionHandler. Every other stage 
+ * is still run for each invocation individually. Any value left as {@link #INHERIT} 
+ * falls back to the globally configured property.
+ * 
+ * @author github.
+ */
+@Target( { METHOD } )
+@Retention( RUNTIME )
+public @interface Batch {
+    
+    int INHERIT = -1;
+    
+    /**
+     * Set class definition which extends AbstractBatchExecutionHandler. Can
+     * be used like so: @Batch(MyExtendingImpl.class);
+     * 
+     * @return AbstractBatchExecutionHandler class.
+     */
+    Class<? extends AbstractBatchExecutionHandler> value();
+    
+    /**
+     * Maximum number of invocations in a batch.
+     * 
+     * @return maximum batch size.
+     */
+    int maxSize() default INHERIT;
+    
+    /**
+     * Maximum time (in milliseconds) an invocation waits for its batch to fill.
+     * 
+     * @return maximum batch delay.
+     */
+    long maxDelay() default INHERIT;
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import com.github.api.processor.handlers.AbstractKeyExtractor;
+import com.github.api.processor.handlers.AbstractWeigher;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Cache the returnValue of a method. A cache hit skips the RequestHandler, building of 
+ * the execution context and the ExecutionHandler entirely, while only returnValue's of 
+ * successful executions (i.e. never those of the FallbackHandler) are cached. Any value 
+ * left as {@link #INHERIT} falls back to the globally configured property.
+ * 
+ * @author github.
+ */
+@Target( { METHOD } )
+@Retention( RUNTIME )
+public @interface Cached {
+    
+    long INHERIT = -1;
+    
+    /**
+     * Time (in milliseconds), after being cached, that a returnValue expires. 0 never expires.
+     * 
+     * @return time to live.
+     */
+    long ttl() default INHERIT;
+    
+    /**
+     * Maximum number of cached returnValue's. Ignored if {@link #maximumWeight()} is set.
+     * 
+     * @return maximum size.
+     */
+    long maximumSize() default INHERIT;
+    
+    /**
+     * Maximum total weight of cached returnValue's as weighed by {@link #weigher()}.
+     * 
+     * @return maximum weight.
+     */
+    long maximumWeight() default INHERIT;
+    
+    /**
+     * Set class definition which extends AbstractWeigher. Required if 
+     * {@link #maximumWeight()} is set.
+     * 
+     * @return AbstractWeigher class.
+     */
+    Class<? extends AbstractWeigher> weigher() default AbstractWeigher.class;
+    
+    /**
+     * Set class definition which extends AbstractKeyExtractor. If left unset 
+     * returnValue's are keyed on the equality of their arguments.
+     * 
+     * @return AbstractKeyExtractor class.
+     */
+    Class<? extends AbstractKeyExtractor> key() default AbstractKeyExtractor.class;
+}
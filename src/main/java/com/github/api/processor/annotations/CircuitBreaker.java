@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Guard the ExecutionHandler of an Api, or a single method, with a circuit breaker. Each 
+ * method gets its own breaker. Any value left as {@link #INHERIT} falls back to the class 
+ * annotation, if present, and then to the globally configured property.
+ * 
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface CircuitBreaker {
+    
+    int INHERIT = -1;
+    
+    /**
+     * Whether the breaker is enabled. Can be used to opt a single method out.
+     * 
+     * @return true if enabled.
+     */
+    boolean enabled() default true;
+    
+    /**
+     * Failure rate (between 0 and 1) over the sliding window at which the breaker opens.
+     * 
+     * @return failure rate threshold.
+     */
+    double failureRate() default INHERIT;
+    
+    /**
+     * Number of most recent invocations the failure rate is computed over.
+     * 
+     * @return size of sliding window.
+     */
+    int window() default INHERIT;
+    
+    /**
+     * Minimum number of invocations in the window before the failure rate is considered.
+     * 
+     * @return minimum number of invocations.
+     */
+    int minCalls() default INHERIT;
+    
+    /**
+     * Time (in milliseconds) the breaker stays open before letting trial invocations through.
+     * 
+     * @return open duration.
+     */
+    long openDuration() default INHERIT;
+    
+    /**
+     * Number of trial invocations, all of which must succeed, to close a half-open breaker.
+     * 
+     * @return number of trial invocations.
+     */
+    int halfOpenCalls() default INHERIT;
+}
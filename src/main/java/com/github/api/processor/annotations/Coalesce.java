@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import com.github.api.processor.handlers.AbstractKeyExtractor;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesce identical concurrent invocations of a method into a single flight: only one 
+ * invocation per key is executed at a time and every other caller, arriving while it is 
+ * in flight, receives its outcome (i.e. the same returnValue, or the same exception).
+ * 
+ * @author github.
+ */
+@Target( { METHOD } )
+@Retention( RUNTIME )
+public @interface Coalesce {
+    
+    /**
+     * Set class definition which extends AbstractKeyExtractor. If left unset 
+     * invocations are coalesced on the equality of their arguments.
+     * 
+     * @return AbstractKeyExtractor class.
+     */
+    Class<? extends AbstractKeyExtractor> value() default AbstractKeyExtractor.class;
+}
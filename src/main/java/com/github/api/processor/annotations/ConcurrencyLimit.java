@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Bound the number of invocations in flight against an Api, or ExecutionHandler, at once. 
+ * Any value left as {@link #INHERIT} falls back to the class annotation, if present, and 
+ * then to the globally configured property. A limit is shared by every method in its 
+ * scope. An API scoped limit is configured only on the class, and by the global properties, 
+ * with its methods only able to opt out through an algorithm of NONE. An EXECUTION_HANDLER 
+ * scoped limit is configured by whichever of its methods is compiled first.
+ * 
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface ConcurrencyLimit {
+    
+    int INHERIT = -1;
+    
+    enum Algorithm {
+        INHERIT,
+        NONE,
+        STATIC,
+        AIMD,
+        GRADIENT
+    }
+    
+    enum Scope {
+        INHERIT,
+        API,
+        EXECUTION_HANDLER
+    }
+    
+    /**
+     * Algorithm deciding the limit. NONE can be used to opt a single method out.
+     * 
+     * @return limit algorithm.
+     */
+    Algorithm algorithm() default Algorithm.INHERIT;
+    
+    /**
+     * What the limit is shared across.
+     * 
+     * @return scope of limit.
+     */
+    Scope scope() default Scope.INHERIT;
+    
+    /**
+     * Initial limit, or the fixed limit if the algorithm is STATIC.
+     * 
+     * @return initial limit.
+     */
+    int limit() default INHERIT;
+    
+    /**
+     * Lowest limit an adaptive algorithm can shrink to.
+     * 
+     * @return minimum limit.
+     */
+    int minLimit() default INHERIT;
+    
+    /**
+     * Highest limit an adaptive algorithm can grow to.
+     * 
+     * @return maximum limit.
+     */
+    int maxLimit() default INHERIT;
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import com.github.api.processor.executors.AbstractExecutorProvider;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ *
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface ExecutorProvider {
+    
+    /**
+     * Set class definition which extends AbstractExecutorProvider. Applies to asynchronous 
+     * methods, the attempts of timed or hedged methods, and batches. The provider is 
+     * created through the injector, and so may have an @Inject constructor. Can be used 
+     * like so: @ExecutorProvider(MyExtendingImpl.class);
+     * 
+     * @return AbstractExecutorProvider class. 
+     */ 
+    Class<? extends AbstractExecutorProvider> value();
+}
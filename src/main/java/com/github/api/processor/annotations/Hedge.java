@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Hedge the ExecutionHandler of an Api, or a single method: an attempt which has not 
+ * returned by the method's observed latency percentile is raced against a second, 
+ * speculative, attempt. As with retries only idempotent methods are hedged. Any value 
+ * left as {@link #INHERIT} falls back to the class annotation, if present, and then 
+ * to the globally configured property.
+ * 
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface Hedge {
+    
+    int INHERIT = -1;
+    
+    /**
+     * Whether hedging is enabled. Can be used to opt a single method out.
+     * 
+     * @return true if enabled.
+     */
+    boolean enabled() default true;
+    
+    /**
+     * Latency percentile (between 0 and 1) after which a speculative attempt is started.
+     * 
+     * @return latency percentile.
+     */
+    double percentile() default INHERIT;
+    
+    /**
+     * Number of most recent latencies the percentile is computed over. No attempt is 
+     * hedged until this many have been observed.
+     * 
+     * @return size of sliding window.
+     */
+    int window() default INHERIT;
+}
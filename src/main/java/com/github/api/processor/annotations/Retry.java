@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Override how the ExecutionHandler of an Api, or a single method, is retried upon 
+ * failure. Any value left as {@link #INHERIT}, or empty, falls back to the class annotation, 
+ * if present, and then to the globally configured property. Setting this on a method also 
+ * marks it as idempotent.
+ * 
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface Retry {
+    
+    int INHERIT = -1;
+    
+    /**
+     * Number of times to retry upon failure.
+     * 
+     * @return number of retries.
+     */
+    int count() default INHERIT;
+    
+    /**
+     * Time (in milliseconds) before the first retry.
+     * 
+     * @return initial delay.
+     */
+    long delay() default INHERIT;
+    
+    /**
+     * Upper bound (in milliseconds) of the delay between retries. Exponential 
+     * backoff is used if greater than {@link #delay()}.
+     * 
+     * @return maximum delay.
+     */
+    long maxDelay() default INHERIT;
+    
+    /**
+     * Factor the delay is multiplied by after each retry when backing off.
+     * 
+     * @return backoff multiplier.
+     */
+    double multiplier() default INHERIT;
+    
+    /**
+     * Factor (between 0 and 1) of the delay to randomly add or subtract from each delay.
+     * 
+     * @return jitter factor.
+     */
+    double jitter() default INHERIT;
+    
+    /**
+     * Exception classes which are retryable. If empty all are, bar those in {@link #abortOn()}.
+     * 
+     * @return retryable exception classes.
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+    
+    /**
+     * Exception classes which are never retryable.
+     * 
+     * @return non-retryable exception classes.
+     */
+    Class<? extends Throwable>[] abortOn() default {};
+}
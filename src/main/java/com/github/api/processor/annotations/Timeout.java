@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Bound how long the ExecutionHandler of an Api's, or a single method's, invocation may 
+ * run, including every retry, and optionally each single attempt. A value left as 
+ * {@link #INHERIT} falls back to the class annotation, if present, and then to the 
+ * globally configured property.
+ * 
+ * @author github.
+ */
+@Target( { TYPE, METHOD } )
+@Retention( RUNTIME )
+public @interface Timeout {
+    
+    long INHERIT = -1;
+    
+    /**
+     * Time (in milliseconds) after which an invocation, including every retry and the 
+     * delays between them, fails with an InvocationTimeoutException. 0 disables the timeout.
+     * 
+     * @return timeout.
+     */
+    long value() default INHERIT;
+    
+    /**
+     * Time (in milliseconds) after which a single attempt is cancelled and fails with an 
+     * InvocationTimeoutException, which may then be retried. 0 disables the timeout.
+     * 
+     * @return attempt timeout.
+     */
+    long attempt() default INHERIT;
+}
@@ -23,19 +23,20 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.github.api.processor.ApiProcessorConstants;
 import com.github.api.processor.ApiProcessorProperties;
 
-import com.github.api.processor.handlers.AbstractErrorHandler;
-import com.github.api.processor.handlers.AbstractExecutionHandler;
-import com.github.api.processor.handlers.AbstractFallbackHandler;
-import com.github.api.processor.handlers.AbstractRequestHandler;
-import com.github.api.processor.handlers.AbstractResponseHandler;
+import com.github.api.processor.annotations.Cached;
+import com.github.api.processor.handlers.AbstractKeyExtractor;
+import com.github.api.processor.codegen.GeneratedApis;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.handlers.AbstractWeigher;
 import com.github.api.processor.instance.ClassInstance;
-import com.github.api.processor.instance.InvocationInstance;
 import com.github.api.processor.instance.MethodInstance;
+import com.github.api.processor.proxy.ProxyGenerator;
 import com.github.api.processor.utils.ApiProcessorUtils;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.type.utils.ReflectionUtils;
 import com.google.common.base.Throwables;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.Reflection;
 import com.google.common.reflect.TypeToken;
@@ -43,37 +44,66 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- *
+ * Purpose-specific stores backing ApiProcessor. Reflective metadata (i.e. ClassInstance's 
+ * and MethodInstance's) is keyed by Class identity, through ClassValue's, and never 
+ * expires as it can never change for a loaded Class. Proxies and handler singletons are 
+ * likewise identity-keyed but are scoped to this instance (i.e. a single ApiProcessor). 
+ * Response caches of @Cached methods are each sized, and evicted, independently.
+ * 
  * @author github.
  */
 @Singleton
 public class ApiProcessorCache {
     
-    private static final Logger LOGGER = Logger.getLogger(ApiProcessorCache.class.getName());
-    
-    private static final String CLASS_INSTANCE_PREFIX = "ClassInstance@";
-    private static final String INVOKABLE_PREFIX = "Invokable@";
-    private static final String METHOD_INSTANCE_PREFIX = "MethodInstance@";
-    private static final String PROXY_PREFIX = "Proxy@";
-    private static final String TYPE_PREFIX = "Type@";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiProcessorCache.class);
     
     private static final String PROXY_IS_NULL = "proxyInterface cannot be null";
     private static final String PROXY_NOT_INTERFACE = "proxyInterface is not an interface";
     private static final String PROXY_INVOKE_HANDLER_IS_NULL = "invocationHandler cannot be null";
+    private static final String RESPONSE_CACHE_NAME_NULL = "response cache name cannot be null";
     
-    private static final String PROXY_CACHE_MESSAGE = "Caching new Proxy at: {0}";
-    private static final String TYPE_CACHE_MESSAGE = "Caching new Type at: {0}";
-    private static final String INVOKABLE_CACHE_MESSAGE = "Caching new Invokable at: {0}";
-    private static final String METHOD_INSTANCE_CACHE_MESSAGE = "Caching new MethodInstance at: {0}";
-    private static final String CLASS_INSTANCE_CACHE_MESSAGE = "Caching new ClassInstance at: {0}";
+    private static final String PROXY_CACHE_MESSAGE = "Caching new Proxy at: {}";
+    private static final String TYPE_CACHE_MESSAGE = "Caching new Type at: {}";
+    private static final String METHOD_INSTANCE_CACHE_MESSAGE = "Caching new MethodInstance at: {}";
+    private static final String CLASS_INSTANCE_CACHE_MESSAGE = "Caching new ClassInstance at: {}";
+    private static final String RESPONSE_CACHE_MESSAGE = "Creating new response cache {} with ttl={} and max-size={}";
+    private static final String WEIGHER_IS_NULL = "maximumWeight requires a weigher to be set";
 
-    private final Cache<String, Object> cache;
+    private static final ClassValue<ClassInstance> CLASS_INSTANCES = new ClassValue<ClassInstance>() {
+        @Override
+        protected ClassInstance computeValue(Class<?> type) {
+            LOGGER.debug(CLASS_INSTANCE_CACHE_MESSAGE, type.getName());
+            return new ClassInstance(type);
+        }
+    };
+    
+    private static final ClassValue<ConcurrentMap<Method, MethodInstance>> METHOD_INSTANCES = 
+            new ClassValue<ConcurrentMap<Method, MethodInstance>>() {
+        @Override
+        protected ConcurrentMap<Method, MethodInstance> computeValue(Class<?> type) {
+            return Maps.newConcurrentMap();
+        }
+    };
+    
+    private final ClassValue<Object> types = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            LOGGER.debug(TYPE_CACHE_MESSAGE, type.getName());
+            return ReflectionUtils.newInstance(type);
+        }
+    };
+    
+    private final ConcurrentMap<Class, Object> proxies = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, ResponseCache> responseCaches = Maps.newConcurrentMap();
+    
+    private final ApiProcessorProperties properties;
+    private final boolean generateProxies;
     
     @Inject
     private ApiProcessorUtils apiProcessorUtils;
@@ -84,15 +114,20 @@ public class ApiProcessorCache {
      * @param properties the default properties to query for ApiProcessor constants
      */
     public ApiProcessorCache(ApiProcessorProperties properties) {        
-        String expireAfterAccess = properties.get(ApiProcessorConstants.CACHE_EXPIRE, "360000");
-        cache = CacheBuilder.newBuilder()
-            .recordStats()
-            .expireAfterAccess(Long.valueOf(expireAfterAccess), TimeUnit.MILLISECONDS)
-            .build();
+        this.properties = checkNotNull(properties, "properties cannot be null");
+        
+        // a native-image cannot define classes at runtime.
+        generateProxies = Boolean.valueOf(properties.get(ApiProcessorConstants.PROXY_GENERATION, 
+                ApiProcessorConstants.PROXY_GENERATION_DEFAULT)) 
+                && !ApiProcessorUtils.nativeImage(properties.get(ApiProcessorConstants.NATIVE_IMAGE, 
+                        ApiProcessorConstants.NATIVE_IMAGE_DEFAULT));
     }
     
     /**
-     * Create a new type from the passed class interface and invocation handler.
+     * Create a new type from the passed class interface and invocation handler. If 
+     * the handler supports direct dispatch, the implementation generated at compile-time 
+     * is used if present, otherwise if proxy generation is enabled a class generated at 
+     * runtime is used in place of a java.lang.reflect.Proxy.
      * 
      * @param <T> the Type of this class/interface.
      * @param proxyInterface class definition for new Type.
@@ -101,18 +136,25 @@ public class ApiProcessorCache {
      */
     public <T> T proxyFrom(Class<T> proxyInterface, InvocationHandler invocationHandler) {
         checkNotNull(proxyInterface, PROXY_IS_NULL);
-        checkArgument(proxyInterface.isInterface(), PROXY_NOT_INTERFACE);
         checkNotNull(invocationHandler, PROXY_INVOKE_HANDLER_IS_NULL);
         
-        String key = (PROXY_PREFIX + proxyInterface.getName()).intern();
-        try {
-            return (T) cache.get(key, () -> {
-                LOGGER.log(Level.CONFIG, PROXY_CACHE_MESSAGE, key);
-                return Reflection.newProxy(proxyInterface, invocationHandler);
+        Object proxy = proxies.get(proxyInterface);
+        if (proxy == null) {
+            checkArgument(proxyInterface.isInterface(), PROXY_NOT_INTERFACE);
+            proxy = proxies.computeIfAbsent(proxyInterface, key -> {
+                LOGGER.debug(PROXY_CACHE_MESSAGE, key.getName());
+                if (invocationHandler instanceof AbstractRuntimeInvocationHandler) {
+                    Object generated = GeneratedApis.newInstance(proxyInterface, (AbstractRuntimeInvocationHandler) invocationHandler);
+                    if (generated != null) {
+                        return generated;
+                    }
+                }
+                return (generateProxies && invocationHandler instanceof AbstractRuntimeInvocationHandler)
+                        ? ProxyGenerator.newProxy(proxyInterface, (AbstractRuntimeInvocationHandler) invocationHandler)
+                        : Reflection.newProxy(proxyInterface, invocationHandler);
             });
-        } catch (SecurityException | IllegalArgumentException | ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
+        }
+        return (T) proxy;
     }
     
     /**
@@ -122,35 +164,8 @@ public class ApiProcessorCache {
      * @param beanClass zero-arg constructor bean class definition.
      * @return newly created Type.
      */
-    private <T> T typeFrom(Class<T> beanClass) {        
-        String key = (TYPE_PREFIX + beanClass.getName()).intern();
-        try {
-            return (T) cache.get(key, () -> {
-                LOGGER.log(Level.CONFIG, TYPE_CACHE_MESSAGE, key);
-                return ReflectionUtils.newInstance(beanClass);
-            });
-        } catch (ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
-    }
-    
-    /**
-     * Create a new Invokable from the passed clazz and method definitions.
-     * 
-     * @param clazz class definition
-     * @param method method definition.
-     * @return newly created Invokable.
-     */
-    private Invokable invokableFrom(Class clazz, Method method) {
-        String key = (INVOKABLE_PREFIX + method.getDeclaringClass().getName() + "@" + method.getName()).intern();
-        try {
-            return (Invokable) cache.get(key, () -> {
-                LOGGER.log(Level.CONFIG, INVOKABLE_CACHE_MESSAGE, key);
-                return TypeToken.of(clazz).method(method);
-            });
-        } catch (SecurityException | IllegalArgumentException | ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
+    public <T> T typeFrom(Class<T> beanClass) {        
+        return (T) types.get(beanClass);
     }
     
     /**
@@ -159,18 +174,22 @@ public class ApiProcessorCache {
      * @param method method definition.
      * @return newly created MethodInstance.
      */
-    private MethodInstance methodInstanceFrom(Method method) {
-        final String methodHashCode = Integer.toString(method.toGenericString().intern().hashCode());
-        String key = (METHOD_INSTANCE_PREFIX + method.getDeclaringClass().getName() + "@" + method.getName() + "#" + methodHashCode).intern(); 
-        try {
-            return (MethodInstance) cache.get(key, () -> {
-                LOGGER.log(Level.CONFIG, METHOD_INSTANCE_CACHE_MESSAGE, key);
-                Invokable inv = invokableFrom(method.getDeclaringClass(), method);
-                return new MethodInstance(inv.getName(), methodHashCode, inv.getAnnotations(), inv.getParameters(), inv.getReturnType());
+    public MethodInstance methodInstanceFrom(Method method) {
+        ConcurrentMap<Method, MethodInstance> methodInstances = METHOD_INSTANCES.get(method.getDeclaringClass());
+        MethodInstance methodInstance = methodInstances.get(method);
+        if (methodInstance == null) {
+            methodInstance = methodInstances.computeIfAbsent(method, key -> {
+                LOGGER.debug(METHOD_INSTANCE_CACHE_MESSAGE, key.toGenericString());
+                final String methodHashCode = Integer.toString(key.toGenericString().hashCode());
+                try {
+                    Invokable inv = TypeToken.of(key.getDeclaringClass()).method(key);
+                    return new MethodInstance(inv.getName(), methodHashCode, inv.getAnnotations(), inv.getParameters(), inv.getReturnType());
+                } catch (SecurityException | IllegalArgumentException ex) {
+                    throw Throwables.propagate(ex);
+                }
             });
-        } catch (SecurityException | IllegalArgumentException | ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
+        }
+        return methodInstance;
     }
         
     /**
@@ -179,59 +198,54 @@ public class ApiProcessorCache {
      * @param method method definition.
      * @return newly created ClassInstance.
      */
-    private ClassInstance classInstanceFrom(Method method) {
-        String key = (CLASS_INSTANCE_PREFIX + method.getDeclaringClass().getName() + "@" + method.getName()).intern(); 
-        try {
-            Invokable inv = invokableFrom(method.getDeclaringClass(), method);
-            return (ClassInstance) cache.get(key, () -> {
-                LOGGER.log(Level.CONFIG, CLASS_INSTANCE_CACHE_MESSAGE, key);
-                return new ClassInstance(inv.getDeclaringClass());
-            });
-        } catch (SecurityException | IllegalArgumentException | ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
+    public ClassInstance classInstanceFrom(Method method) {
+        return CLASS_INSTANCES.get(method.getDeclaringClass());
     }
     
     /**
-     * Create a new InvocationInstance from the passed method definition and argument list.
+     * Get, or create if not already done, the response cache of a @Cached method. Its 
+     * settings are taken from the annotation falling back to the properties 
+     * '{@link ApiProcessorConstants#RESPONSE_CACHE_TTL}' and 
+     * '{@link ApiProcessorConstants#RESPONSE_CACHE_MAX_SIZE}' respectively.
      * 
-     * @param method method definition.
-     * @param args argument list.
-     * @return newly created InvocationInstance.
+     * @param name unique name of cache.
+     * @param cached the annotation of the method.
+     * @return the named response cache.
      */
-    public InvocationInstance invocationInstanceFrom(Method method, Object [] args) {  
-        ClassInstance classInstance = classInstanceFrom(method);
-        MethodInstance methodInstance = methodInstanceFrom(method);
-        
-        Class<? extends AbstractExecutionHandler> executionHandlerClass = (methodInstance.executionHandler() != null) 
-                ? methodInstance.executionHandler() 
-                : classInstance.executionHandler();
-        Class<? extends AbstractErrorHandler> errorHandlerClass = (methodInstance.errorHandler() != null) 
-                ? methodInstance.errorHandler() 
-                : classInstance.errorHandler();
-        Class<? extends AbstractFallbackHandler> fallbackHandlerClass = (methodInstance.fallbackHandler() != null) 
-                ? methodInstance.fallbackHandler() 
-                : classInstance.fallbackHandler();
-        Class<? extends AbstractRequestHandler> requestHandlerClass = (methodInstance.requestHandler()!= null) 
-                ? methodInstance.requestHandler()
-                : classInstance.requestHandler();
-        Class<? extends AbstractResponseHandler> responseHandlerClass = (methodInstance.responseHandler() != null) 
-                ? methodInstance.responseHandler() 
-                : classInstance.responseHandler();
-        
-        AbstractExecutionHandler executionHandler = (executionHandlerClass != null) ? typeFrom(executionHandlerClass) : null;
-        AbstractErrorHandler errorHandler = errorHandlerClass != null ? typeFrom(errorHandlerClass) : null; 
-        AbstractFallbackHandler fallbackHandler = fallbackHandlerClass != null ? typeFrom(fallbackHandlerClass) : null;
-        AbstractRequestHandler requestHandler = requestHandlerClass != null ? typeFrom(requestHandlerClass) : null;
-        AbstractResponseHandler responseHandler = responseHandlerClass != null ? typeFrom(responseHandlerClass) : null;
-                        
-        return InvocationInstance.newInstance(classInstance, 
-                methodInstance, 
-                args,
-                executionHandler,
-                errorHandler,
-                fallbackHandler,
-                requestHandler,
-                responseHandler);
+    public ResponseCache responseCache(String name, Cached cached) {
+        checkNotNull(name, RESPONSE_CACHE_NAME_NULL);
+        return responseCaches.computeIfAbsent(name, key -> {
+            long ttl = (cached.ttl() != Cached.INHERIT) 
+                    ? cached.ttl() 
+                    : Long.valueOf(properties.get(ApiProcessorConstants.RESPONSE_CACHE_TTL, ApiProcessorConstants.RESPONSE_CACHE_TTL_DEFAULT));
+            long maxSize = (cached.maximumSize() != Cached.INHERIT) 
+                    ? cached.maximumSize() 
+                    : Long.valueOf(properties.get(ApiProcessorConstants.RESPONSE_CACHE_MAX_SIZE, ApiProcessorConstants.RESPONSE_CACHE_MAX_SIZE_DEFAULT));
+            Object [] loggerParams = {key, ttl, (cached.maximumWeight() != Cached.INHERIT) ? "weighed" : maxSize};
+            LOGGER.debug(RESPONSE_CACHE_MESSAGE, loggerParams);
+            
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+            if (ttl > 0) {
+                builder.expireAfterWrite(ttl, TimeUnit.MILLISECONDS);
+            }
+            if (cached.maximumWeight() != Cached.INHERIT) {
+                checkArgument(!AbstractWeigher.class.equals(cached.weigher()), WEIGHER_IS_NULL);
+                builder.maximumWeight(cached.maximumWeight()).weigher(typeFrom(cached.weigher()));
+            } else {
+                builder.maximumSize(maxSize);
+            }
+            return new ResponseCache(key, builder.build(), AbstractKeyExtractor.class.equals(cached.key()) 
+                    ? null 
+                    : typeFrom(cached.key()));
+        });
+    }
+    
+    /**
+     * Get all response caches created thus far.
+     * 
+     * @return map of cache name to response cache.
+     */
+    public ImmutableMap<String, ResponseCache> responseCaches() {
+        return ImmutableMap.copyOf(responseCaches);
     }
 }
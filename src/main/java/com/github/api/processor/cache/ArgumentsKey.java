@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.cache;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Key made from the arguments of an invocation. Arrays passed as arguments 
+ * are compared by content rather than identity.
+ * 
+ * @author github.
+ */
+public final class ArgumentsKey {
+    
+    private static final Object [] NO_ARGS = new Object[0];
+    
+    private final Object [] args;
+    private final int hashCode;
+    
+    private ArgumentsKey(Object [] args) {
+        this.args = args;
+        this.hashCode = Arrays.deepHashCode(args);
+    }
+    
+    /**
+     * Create ArgumentsKey from passed arguments.
+     * 
+     * @param args the arguments of an invocation (copied as they may be modified later).
+     * @return newly created ArgumentsKey.
+     */
+    public static ArgumentsKey of(@Nullable Object [] args) {
+        return new ArgumentsKey((args != null && args.length > 0) ? args.clone() : NO_ARGS);
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof ArgumentsKey) && Arrays.deepEquals(args, ((ArgumentsKey) other).args);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.deepToString(args);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.instance.InvocationPlan;
+import com.google.common.collect.Maps;
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Holds the compiled InvocationPlan of each Api method. Lookups are done by Method 
+ * identity against a copy-on-write snapshot, so that once a Method instance has been 
+ * seen (e.g. the instances a java.lang.reflect.Proxy caches in its static fields) 
+ * resolving its plan is a single identity-hash read with no locking or String keys.
+ * 
+ * @author github.
+ */
+public class InvocationPlanStore {
+    
+    private final ConcurrentMap<Method, InvocationPlan> plans = Maps.newConcurrentMap();
+    private volatile IdentityHashMap<Method, InvocationPlan> identityPlans = new IdentityHashMap<>();
+    
+    /**
+     * Get the plan for the passed method, compiling it if it does not yet exist.
+     * 
+     * @param method method definition.
+     * @param compiler function used to compile a plan for a method seen for the first time.
+     * @return the plan for the passed method.
+     */
+    public InvocationPlan get(Method method, Function<Method, InvocationPlan> compiler) {
+        InvocationPlan plan = identityPlans.get(method);
+        if (plan == null) {
+            
+            // Method equality is used as a fallback as distinct Method 
+            // instances can, and often do, represent the same method.
+            plan = plans.get(checkNotNull(method, "method cannot be null"));
+            if (plan == null) {
+                InvocationPlan compiledPlan = checkNotNull(compiler.apply(method), "compiled plan cannot be null");
+                InvocationPlan existingPlan = plans.putIfAbsent(method, compiledPlan);
+                plan = (existingPlan != null) ? existingPlan : compiledPlan;
+            }
+            publish(method, plan);
+        }
+        return plan;
+    }
+    
+    /**
+     * Get a snapshot of all plans compiled thus far.
+     * 
+     * @return map of method to compiled plan.
+     */
+    public Map<Method, InvocationPlan> plans() {
+        return Maps.newHashMap(plans);
+    }
+    
+    private synchronized void publish(Method method, InvocationPlan plan) {
+        if (identityPlans.get(method) == null) {
+            IdentityHashMap<Method, InvocationPlan> copy = new IdentityHashMap<>(identityPlans);
+            copy.put(method, plan);
+            identityPlans = copy;
+        }
+    }
+}
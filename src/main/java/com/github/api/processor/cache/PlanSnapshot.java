@@ -0,0 +1,478 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.metrics.ApiProcessorMetrics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local snapshot of what compiling the InvocationPlan of each method resolved: the 
+ * handler bound to each stage, the generic types passed between handlers and which 
+ * type-checks are required. Entries are keyed by method and validated against a 
+ * fingerprint of the bytes of the declaring Api, of every bound handler class and 
+ * of every class named by the return type or by the generic supertypes of those 
+ * handlers, such that only methods whose classes, or bindings, changed are compiled 
+ * in full on restart. Enabled through {@link ApiProcessorConstants#PLAN_SNAPSHOT}.
+ * 
+ * @author github.
+ */
+@Singleton
+public class PlanSnapshot {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlanSnapshot.class);
+    
+    private static final String COMMENT = "#";
+    private static final String HEADER = COMMENT + " Generated by com.github.api.processor.cache.PlanSnapshot";
+    private static final String SEPARATOR = "\t";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String NONE = "-";
+    
+    private static final String SNAPSHOT_LOADED_MESSAGE = "Loaded {} InvocationPlan(s) from snapshot at: {}";
+    private static final String SNAPSHOT_READ_MESSAGE = "Failed reading InvocationPlan snapshot at: {}";
+    private static final String SNAPSHOT_WRITE_MESSAGE = "Failed writing InvocationPlan snapshot to: {}";
+    private static final String SNAPSHOT_STALE_MESSAGE = "Snapshot of InvocationPlan is stale for: {}";
+    
+    // Classes without an accessible class file are never fingerprinted, and so never snapshot.
+    private static final String UNAVAILABLE = "";
+    private static final String JAVA_VERSION = System.getProperty("java.version", NONE);
+    private static final ClassValue<String> FINGERPRINTS = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return classFingerprintOf(type);
+        }
+    };
+    
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentSkipListMap<>();
+    private volatile boolean dirty;
+    
+    /**
+     * Create PlanSnapshot from passed properties, loading any existing snapshot.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public PlanSnapshot(ApiProcessorProperties properties) {
+        final String location = properties.get(ApiProcessorConstants.PLAN_SNAPSHOT, ApiProcessorConstants.PLAN_SNAPSHOT_DEFAULT);
+        this.file = location.isEmpty() ? null : Paths.get(location);
+        if (file != null) {
+            read();
+        }
+    }
+    
+    public boolean enabled() {
+        return file != null;
+    }
+    
+    /**
+     * Fingerprint a method as bound to the passed handlers.
+     * 
+     * @param method the method to fingerprint.
+     * @param handlers the handler bound to each stage, or null where none is bound.
+     * @return fingerprint or null if snapshots are disabled or a class could not be fingerprinted.
+     */
+    public String fingerprintOf(Method method, Object... handlers) {
+        if (file == null) {
+            return null;
+        }
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putString(method.toGenericString(), StandardCharsets.UTF_8);
+        final String apiFingerprint = FINGERPRINTS.get(method.getDeclaringClass());
+        if (apiFingerprint.equals(UNAVAILABLE)) {
+            return null;
+        }
+        hasher.putString(apiFingerprint, StandardCharsets.UTF_8);
+        for (Object handler : handlers) {
+            if (handler == null) {
+                hasher.putString(NONE, StandardCharsets.UTF_8);
+            } else {
+                final String handlerFingerprint = FINGERPRINTS.get(handler.getClass());
+                if (handlerFingerprint.equals(UNAVAILABLE)) {
+                    return null;
+                }
+                hasher.putString(handler.getClass().getName(), StandardCharsets.UTF_8)
+                        .putString(handlerFingerprint, StandardCharsets.UTF_8);
+            }
+        }
+        
+        // The types passed between handlers are only known consistent for as long as 
+        // the classes they resolve to, e.g. a return type and its subclasses, are unchanged.
+        for (Class<?> type : typesOf(method, handlers)) {
+            final String typeFingerprint = FINGERPRINTS.get(type);
+            if (typeFingerprint.equals(UNAVAILABLE)) {
+                return null;
+            }
+            hasher.putString(type.getName(), StandardCharsets.UTF_8)
+                    .putString(typeFingerprint, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+    
+    /**
+     * Get every class named by the generic return type of a method and by the generic 
+     * supertypes, including their type-arguments, of the passed handlers.
+     * 
+     * @param method the method to get the types of.
+     * @param handlers the handler bound to each stage, or null where none is bound.
+     * @return classes in the order first found.
+     */
+    static Set<Class<?>> typesOf(Method method, Object... handlers) {
+        final Set<Class<?>> types = new LinkedHashSet<>();
+        final Set<Type> visited = new HashSet<>();
+        collectTypes(method.getGenericReturnType(), types, visited);
+        for (Object handler : handlers) {
+            if (handler != null) {
+                for (Class<?> type = handler.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                    collectTypes(type.getGenericSuperclass(), types, visited);
+                    for (Type genericInterface : type.getGenericInterfaces()) {
+                        collectTypes(genericInterface, types, visited);
+                    }
+                }
+            }
+        }
+        return types;
+    }
+    
+    private static void collectTypes(@Nullable Type type, Set<Class<?>> types, Set<Type> visited) {
+        if (type == null || !visited.add(type)) {
+            return;
+        }
+        if (type instanceof Class) {
+            final Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                collectTypes(clazz.getComponentType(), types, visited);
+            } else if (!clazz.isPrimitive()) {
+                types.add(clazz);
+            }
+        } else if (type instanceof ParameterizedType) {
+            final ParameterizedType parameterizedType = (ParameterizedType) type;
+            collectTypes(parameterizedType.getRawType(), types, visited);
+            for (Type typeArgument : parameterizedType.getActualTypeArguments()) {
+                collectTypes(typeArgument, types, visited);
+            }
+        } else if (type instanceof GenericArrayType) {
+            collectTypes(((GenericArrayType) type).getGenericComponentType(), types, visited);
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                collectTypes(bound, types, visited);
+            }
+            for (Type bound : ((WildcardType) type).getLowerBounds()) {
+                collectTypes(bound, types, visited);
+            }
+        } else if (type instanceof TypeVariable) {
+            for (Type bound : ((TypeVariable<?>) type).getBounds()) {
+                collectTypes(bound, types, visited);
+            }
+        }
+    }
+    
+    /**
+     * Get the snapshot of a method if, and only if, it is still valid.
+     * 
+     * @param method the method to get the snapshot of.
+     * @param fingerprint the current fingerprint of the method.
+     * @return valid snapshot or null if none exists or it is stale.
+     */
+    public Entry get(Method method, @Nullable String fingerprint) {
+        if (fingerprint == null) {
+            return null;
+        }
+        final Entry entry = entries.get(ApiProcessorMetrics.nameOf(method));
+        if (entry != null && !entry.fingerprint().equals(fingerprint)) {
+            LOGGER.debug(SNAPSHOT_STALE_MESSAGE, method);
+            return null;
+        }
+        return entry;
+    }
+    
+    /**
+     * Record the snapshot of a freshly compiled method.
+     * 
+     * @param method the method compiled.
+     * @param entry the snapshot of the method.
+     */
+    public void put(Method method, Entry entry) {
+        if (file != null && !entry.equals(entries.put(ApiProcessorMetrics.nameOf(method), entry))) {
+            dirty = true;
+        }
+    }
+    
+    /**
+     * Write the snapshot, if changed since loaded, to its file. Failures are logged 
+     * as the snapshot is only an optimization.
+     */
+    public synchronized void persist() {
+        if (file == null || !dirty) {
+            return;
+        }
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temp = Files.createTempFile(directory, file.getFileName().toString(), null);
+            final List<String> lines = ImmutableList.<String>builder()
+                    .add(HEADER)
+                    .addAll(entries.entrySet().stream()
+                            .map(entry -> entry.getKey() + SEPARATOR + entry.getValue().format())
+                            .collect(Collectors.toList()))
+                    .build();
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(SNAPSHOT_WRITE_MESSAGE, file, e);
+        }
+    }
+    
+    private void read() {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith(COMMENT)) {
+                    continue;
+                }
+                final int separator = line.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    final Entry entry = Entry.parse(line.substring(separator + 1));
+                    if (entry != null) {
+                        entries.put(line.substring(0, separator), entry);
+                    }
+                }
+            }
+            LOGGER.debug(SNAPSHOT_LOADED_MESSAGE, entries.size(), file);
+        } catch (NoSuchFileException e) {
+            dirty = true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(SNAPSHOT_READ_MESSAGE, file, e);
+            entries.clear();
+            dirty = true;
+        }
+    }
+    
+    private static String classFingerprintOf(Class<?> type) {
+        
+        // Classes of the JDK only change along with it.
+        if (type.getClassLoader() == null) {
+            return JAVA_VERSION;
+        }
+        final String resource = type.getName().replace('.', '/') + ".class";
+        final ClassLoader loader = type.getClassLoader();
+        try (InputStream classFile = (loader != null) 
+                ? loader.getResourceAsStream(resource) 
+                : ClassLoader.getSystemResourceAsStream(resource)) {
+            return (classFile != null) 
+                    ? Hashing.sha256().hashBytes(ByteStreams.toByteArray(classFile)).toString() 
+                    : UNAVAILABLE;
+        } catch (IOException e) {
+            return UNAVAILABLE;
+        }
+    }
+    
+    /**
+     * Snapshot of a single compiled method.
+     */
+    public static final class Entry {
+        
+        private static final int FIELDS = 5;
+        
+        private final String fingerprint;
+        private final ImmutableList<String> handlers;
+        private final String requestType;
+        private final String executionType;
+        private final ImmutableSortedSet<Integer> requiredChecks;
+        
+        /**
+         * Create an Entry.
+         * 
+         * @param fingerprint fingerprint of the method when compiled.
+         * @param handlers binary names of the handler bound to each stage, or null where none is bound.
+         * @param requestType the generic input type of the RequestHandler, if any.
+         * @param executionType the generic input type of the ExecutionHandler.
+         * @param requiredChecks slots of the type-checks required at runtime.
+         */
+        public Entry(String fingerprint, 
+                List<String> handlers, 
+                @Nullable Class requestType, 
+                Class executionType, 
+                Collection<Integer> requiredChecks) {
+            this(fingerprint, 
+                    handlers, 
+                    (requestType != null) ? requestType.getName() : null, 
+                    checkNotNull(executionType, "executionType cannot be null").getName(), 
+                    requiredChecks);
+        }
+        
+        private Entry(String fingerprint, 
+                List<String> handlers, 
+                @Nullable String requestType, 
+                String executionType, 
+                Collection<Integer> requiredChecks) {
+            this.fingerprint = checkNotNull(fingerprint, "fingerprint cannot be null");
+            this.handlers = ImmutableList.copyOf(handlers.stream()
+                    .map(handler -> (handler != null) ? handler : NONE)
+                    .collect(Collectors.toList()));
+            this.requestType = (requestType != null) ? requestType : NONE;
+            this.executionType = executionType;
+            this.requiredChecks = ImmutableSortedSet.copyOf(requiredChecks);
+        }
+        
+        public String fingerprint() {
+            return fingerprint;
+        }
+        
+        /**
+         * Whether the passed handlers are those this snapshot was taken with.
+         * 
+         * @param handlers the handler bound to each stage, or null where none is bound.
+         * @return true if bindings are unchanged.
+         */
+        public boolean boundTo(Object... handlers) {
+            if (handlers.length != this.handlers.size()) {
+                return false;
+            }
+            for (int i = 0; i < handlers.length; i++) {
+                final String handler = (handlers[i] != null) ? handlers[i].getClass().getName() : NONE;
+                if (!handler.equals(this.handlers.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Load the generic input type of the RequestHandler.
+         * 
+         * @param loader the loader to load the type with.
+         * @return loaded type or null if no RequestHandler is bound.
+         * @throws ClassNotFoundException if type could not be found.
+         */
+        public Class requestType(ClassLoader loader) throws ClassNotFoundException {
+            return requestType.equals(NONE) ? null : Class.forName(requestType, false, loader);
+        }
+        
+        /**
+         * Load the generic input type of the ExecutionHandler.
+         * 
+         * @param loader the loader to load the type with.
+         * @return loaded type.
+         * @throws ClassNotFoundException if type could not be found.
+         */
+        public Class executionType(ClassLoader loader) throws ClassNotFoundException {
+            return Class.forName(executionType, false, loader);
+        }
+        
+        public ImmutableSortedSet<Integer> requiredChecks() {
+            return requiredChecks;
+        }
+        
+        String format() {
+            return String.join(SEPARATOR, 
+                    fingerprint, 
+                    String.join(LIST_SEPARATOR, handlers), 
+                    requestType, 
+                    executionType, 
+                    requiredChecks.isEmpty() 
+                            ? NONE 
+                            : requiredChecks.stream().map(String::valueOf).collect(Collectors.joining(LIST_SEPARATOR)));
+        }
+        
+        // null if line is malformed.
+        static Entry parse(String line) {
+            final String [] fields = line.split(SEPARATOR);
+            if (fields.length != FIELDS) {
+                return null;
+            }
+            try {
+                return new Entry(fields[0], 
+                        Arrays.asList(fields[1].split(LIST_SEPARATOR)), 
+                        fields[2].equals(NONE) ? null : fields[2], 
+                        fields[3], 
+                        fields[4].equals(NONE) 
+                                ? ImmutableSortedSet.of() 
+                                : Arrays.stream(fields[4].split(LIST_SEPARATOR)).map(Integer::valueOf).collect(Collectors.toList()));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            } else if (!(object instanceof Entry)) {
+                return false;
+            }
+            final Entry other = (Entry) object;
+            return fingerprint.equals(other.fingerprint) 
+                    && handlers.equals(other.handlers) 
+                    && requestType.equals(other.requestType) 
+                    && executionType.equals(other.executionType) 
+                    && requiredChecks.equals(other.requiredChecks);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, handlers, requestType, executionType, requiredChecks);
+        }
+        
+        @Override
+        public String toString() {
+            return format();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.handlers.AbstractKeyExtractor;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of the returnValue's of a single @Cached method. Backed by a Caffeine cache 
+ * whose W-TinyLFU eviction only admits a new entry if it is used more frequently than 
+ * the entry it would evict, so one-hit wonders never displace hot entries.
+ * 
+ * @author github.
+ */
+public final class ResponseCache {
+    
+    private static final String KEY_IS_NULL = "keyExtractor returned a null key";
+    
+    private final String name;
+    private final Cache<Object, Object> cache;
+    
+    @Nullable
+    private final AbstractKeyExtractor keyExtractor;
+
+    /**
+     * Create ResponseCache from passed parameters.
+     * 
+     * @param name unique name of cache.
+     * @param cache the cache to store returnValue's in.
+     * @param keyExtractor the key extractor or null to key on argument equality.
+     */
+    public ResponseCache(String name, Cache<Object, Object> cache, @Nullable AbstractKeyExtractor keyExtractor) {
+        this.name = checkNotNull(name, "name cannot be null");
+        this.cache = checkNotNull(cache, "cache cannot be null");
+        this.keyExtractor = keyExtractor;
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    /**
+     * Get the key an invocation's returnValue is cached under.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param args the arguments of the invocation.
+     * @return key of invocation.
+     */
+    public Object keyFrom(InvocationInstance invocationInstance, @Nullable Object [] args) {
+        return (keyExtractor != null) 
+                ? checkNotNull(keyExtractor.apply(invocationInstance), KEY_IS_NULL) 
+                : ArgumentsKey.of(args);
+    }
+    
+    /**
+     * Get a cached returnValue.
+     * 
+     * @param key the key of the invocation.
+     * @return cached returnValue or null if not present.
+     */
+    public Object get(Object key) {
+        return cache.getIfPresent(key);
+    }
+    
+    /**
+     * Cache a returnValue. Null returnValue's are never cached.
+     * 
+     * @param key the key of the invocation.
+     * @param returnValue the returnValue to cache.
+     */
+    public void put(Object key, @Nullable Object returnValue) {
+        if (returnValue != null) {
+            cache.put(key, returnValue);
+        }
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
+    
+    /**
+     * Hit/miss, and eviction, statistics of this cache.
+     * 
+     * @return snapshot of statistics.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
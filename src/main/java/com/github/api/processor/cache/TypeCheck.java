@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.utils.Pair;
+import com.github.type.utils.ClassType;
+import com.github.type.utils.TypeUtils;
+import com.github.type.utils.exceptions.TypeMismatchException;
+import javax.annotation.Nullable;
+
+/**
+ * A type-check, required at runtime, between the output of one handler and the 
+ * input of the next (or the returnValue). An instance can only be parsed as far 
+ * as its runtime class and so the verdict, pass or mismatch, is memoized per 
+ * class: repeated values of the same class are never parsed again. Checks whose 
+ * declared types already match can only be failed by a null, and so are skipped 
+ * entirely for any other value.
+ * 
+ * @author github.
+ */
+public final class TypeCheck {
+    
+    private static final Object PASSED = new Object();
+    
+    private final Pair<ClassType, ClassType> pair;
+    private final boolean nullOnly;
+    private final Object nullVerdict;
+    private final ClassValue<Object> verdicts = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            return verdictOf(type);
+        }
+    };
+    
+    /**
+     * Create TypeCheck from passed pair of parsed types.
+     * 
+     * @param pair the declared output (left) and expected input (right) types.
+     */
+    public TypeCheck(Pair<ClassType, ClassType> pair) {
+        this.pair = checkNotNull(pair, "pair cannot be null");
+        this.nullOnly = declaredMatch(pair);
+        this.nullVerdict = verdictOf(null);
+    }
+    
+    public Pair<ClassType, ClassType> pair() {
+        return pair;
+    }
+    
+    /**
+     * Check the passed value against the expected type.
+     * 
+     * @param value the value to check.
+     * @throws TypeMismatchException if value does not match the expected type. The 
+     *     exception is memoized along with its verdict and so may be thrown more than once.
+     */
+    public void verify(@Nullable Object value) throws TypeMismatchException {
+        final Object verdict;
+        if (value == null) {
+            verdict = nullVerdict;
+        } else if (nullOnly) {
+            return;
+        } else if (value instanceof Class) {
+            
+            // a Class would be parsed as the type it represents rather than as an instance.
+            verdict = verdictOf(value);
+        } else {
+            verdict = verdicts.get(value.getClass());
+        }
+        if (verdict != PASSED) {
+            throw (TypeMismatchException) verdict;
+        }
+    }
+    
+    private static boolean declaredMatch(Pair<ClassType, ClassType> pair) {
+        try {
+            return pair.left().compare(pair.right()) == 0;
+        } catch (TypeMismatchException tme) {
+            return false;
+        }
+    }
+    
+    private Object verdictOf(@Nullable Object value) {
+        try {
+            TypeUtils.parseClassType(value).compare(pair.right());
+            return PASSED;
+        } catch (TypeMismatchException tme) {
+            return tme;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return pair.toString();
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.codegen;
+
+import com.github.api.processor.annotations.Api;
+import com.github.api.processor.annotations.Delegate;
+import com.github.api.processor.annotations.ErrorHandler;
+import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.FallbackHandler;
+import com.github.api.processor.annotations.RequestHandler;
+import com.github.api.processor.annotations.ResponseHandler;
+import com.github.api.processor.handlers.AbstractErrorHandler;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractFallbackHandler;
+import com.github.api.processor.handlers.AbstractRequestHandler;
+import com.github.api.processor.handlers.AbstractResponseHandler;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor which resolves, at compile-time, the handlers of every method 
+ * of each @Api interface, giving precedence to those set on the method and then the 
+ * interface, and reports handlers whose generic input/output types can never match 
+ * one another (or the returnType) as compile errors rather than as a 
+ * CheckTimeTypeMismatchException on first invocation. Handlers set globally through 
+ * the ApiProcessor.Builder are only known at runtime and so are not checked here. 
+ * Types are only reported when provably incompatible: those which may still match 
+ * at runtime (e.g. a supertype) are left to the runtime checks.
+ * 
+ * <p>If passed the '-Aapi.processor.generate=true' option, a straight-line implementation 
+ * of each valid @Api is also generated (see {@link GeneratedApis}) which the runtime 
+ * uses in place of a reflective, or bytecode generated, proxy.
+ * 
+ * @author github.
+ */
+@SupportedAnnotationTypes("com.github.api.processor.annotations.Api")
+@SupportedOptions(ApiCodegenProcessor.GENERATE_OPTION)
+public class ApiCodegenProcessor extends AbstractProcessor {
+    
+    public static final String GENERATE_OPTION = "api.processor.generate";
+    
+    private static final String VALUE = "value";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final boolean generate = Boolean.parseBoolean(processingEnv.getOptions().get(GENERATE_OPTION));
+        for (TypeElement api : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Api.class))) {
+            if (api.getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            
+            final List<ExecutableElement> methods = ApiImplementationWriter.methodsOf(processingEnv, api);
+            boolean valid = true;
+            for (ExecutableElement method : methods) {
+                valid &= validate(api, method);
+            }
+            if (valid && generate) {
+                new ApiImplementationWriter(processingEnv, api, methods).write();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Check that the types passed between the handlers of a single method are sane. Mirrors 
+     * the checks made by RuntimeInvocationHandler#checkTypeConsistency.
+     * 
+     * @param api the @Api the method belongs to.
+     * @param method the method to validate.
+     * @return true if no mismatch was found.
+     */
+    private boolean validate(TypeElement api, ExecutableElement method) {
+        if (method.getAnnotation(Delegate.class) != null) {
+            return true;
+        }
+        
+        final TypeElement requestHandler = handlerOf(method, api, RequestHandler.class);
+        final TypeElement executionHandler = handlerOf(method, api, ExecutionHandler.class);
+        final TypeElement errorHandler = handlerOf(method, api, ErrorHandler.class);
+        final TypeElement fallbackHandler = handlerOf(method, api, FallbackHandler.class);
+        final TypeElement responseHandler = handlerOf(method, api, ResponseHandler.class);
+        
+        final List<? extends TypeMirror> requestTypes = typeArgumentsOf(requestHandler, AbstractRequestHandler.class);
+        final List<? extends TypeMirror> executionTypes = typeArgumentsOf(executionHandler, AbstractExecutionHandler.class);
+        final List<? extends TypeMirror> errorTypes = typeArgumentsOf(errorHandler, AbstractErrorHandler.class);
+        final List<? extends TypeMirror> fallbackTypes = typeArgumentsOf(fallbackHandler, AbstractFallbackHandler.class);
+        final List<? extends TypeMirror> responseTypes = typeArgumentsOf(responseHandler, AbstractResponseHandler.class);
+        
+        final ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils()
+                .asMemberOf((DeclaredType) api.asType(), method);
+        final TypeMirror returnType = resultTypeOf(methodType.getReturnType());
+        
+        boolean valid = true;
+        valid &= check(method, typeAt(requestTypes, 1), typeAt(executionTypes, 0), 
+                "RequestHandler (" + requestHandler + ") outputs do not match ExecutionHandler (" + executionHandler + ") inputs.");
+        valid &= check(method, typeAt(executionTypes, 0), typeAt(errorTypes, 0), 
+                "ExecutionHandler (" + executionHandler + ") inputs do not match ErrorHandler (" + errorHandler + ") inputs.");
+        valid &= check(method, typeAt(fallbackTypes, 0), returnType, 
+                "FallbackHandler (" + fallbackHandler + ") outputs do not match expected returnType.");
+        if (responseHandler != null) {
+            valid &= check(method, typeAt(executionTypes, 1), typeAt(responseTypes, 0), 
+                    "ExecutionHandler (" + executionHandler + ") outputs do not match ResponseHandler (" + responseHandler + ") inputs.");
+            valid &= check(method, typeAt(responseTypes, 1), returnType, 
+                    "ResponseHandler (" + responseHandler + ") outputs do not match expected returnType.");
+        } else {
+            valid &= check(method, typeAt(executionTypes, 1), returnType, 
+                    "ExecutionHandler (" + executionHandler + ") outputs do not match expected returnType.");
+        }
+        return valid;
+    }
+    
+    private boolean check(ExecutableElement method, TypeMirror produced, TypeMirror expected, String message) {
+        if (compatible(produced, expected)) {
+            return true;
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message 
+                + " Found '" + produced + "' but expected '" + expected + "'.", method);
+        return false;
+    }
+    
+    /**
+     * Whether a value of the produced type could ever be accepted as the expected type. 
+     * Unknown (i.e. null), generic and Object types always could.
+     * 
+     * @param produced type produced by one handler.
+     * @param expected type expected by the next handler, or the returnType.
+     * @return false only if the types are provably incompatible.
+     */
+    private boolean compatible(TypeMirror produced, TypeMirror expected) {
+        if (produced == null || expected == null) {
+            return true;
+        }
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror left = boxed(types.erasure(produced));
+        final TypeMirror right = boxed(types.erasure(expected));
+        if (!checkable(left) || !checkable(right) 
+                || types.isAssignable(left, right) || types.isAssignable(right, left)) {
+            return true;
+        }
+        if (left.getKind() != TypeKind.DECLARED || right.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        
+        // a non-final class may still be cast to an unrelated interface.
+        final Element leftElement = types.asElement(left);
+        final Element rightElement = types.asElement(right);
+        return (leftElement.getKind() == ElementKind.INTERFACE && !rightElement.getModifiers().contains(Modifier.FINAL)) 
+                || (rightElement.getKind() == ElementKind.INTERFACE && !leftElement.getModifiers().contains(Modifier.FINAL));
+    }
+    
+    private static boolean checkable(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED || type.getKind() == TypeKind.ARRAY;
+    }
+    
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive() 
+                ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType() 
+                : type;
+    }
+    
+    /**
+     * Asynchronous methods are checked against the element type of their future and 
+     * void methods are not checked at all.
+     * 
+     * @param returnType the declared returnType of a method.
+     * @return the type to check handler outputs against or null if unchecked.
+     */
+    private TypeMirror resultTypeOf(TypeMirror returnType) {
+        if (returnType.getKind() == TypeKind.VOID) {
+            return null;
+        }
+        if (returnType.getKind() == TypeKind.DECLARED) {
+            final String rawName = processingEnv.getTypeUtils().erasure(returnType).toString();
+            if (rawName.equals(CompletableFuture.class.getName()) || rawName.equals(CompletionStage.class.getName())) {
+                return typeAt(((DeclaredType) returnType).getTypeArguments(), 0);
+            }
+        }
+        return returnType;
+    }
+    
+    private static TypeMirror typeAt(List<? extends TypeMirror> types, int index) {
+        return (types != null && types.size() > index) ? types.get(index) : null;
+    }
+    
+    /**
+     * Resolve the handler set on a method, or failing that on its @Api.
+     * 
+     * @param method the method to resolve handler for.
+     * @param api the @Api the method belongs to.
+     * @param annotation the handler annotation to look for.
+     * @return the handler or null if none was set.
+     */
+    private TypeElement handlerOf(ExecutableElement method, TypeElement api, Class<?> annotation) {
+        final TypeElement handler = valueOf(method, annotation);
+        return (handler != null) ? handler : valueOf(api, annotation);
+    }
+    
+    private TypeElement valueOf(Element element, Class<?> annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(annotation.getCanonicalName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(VALUE) 
+                        && value.getValue().getValue() instanceof DeclaredType) {
+                    return (TypeElement) ((DeclaredType) value.getValue().getValue()).asElement();
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Find the type arguments a handler passes to the abstract handler it extends.
+     * 
+     * @param handler the handler to inspect.
+     * @param abstractHandler the abstract handler it extends.
+     * @return resolved type arguments or null if handler is null or extends it raw.
+     */
+    private List<? extends TypeMirror> typeArgumentsOf(TypeElement handler, Class<?> abstractHandler) {
+        if (handler == null) {
+            return null;
+        }
+        final Types types = processingEnv.getTypeUtils();
+        final Deque<TypeMirror> pending = new ArrayDeque<>();
+        pending.push(handler.asType());
+        while (!pending.isEmpty()) {
+            final TypeMirror type = pending.pop();
+            final Element element = types.asElement(type);
+            if (element instanceof TypeElement 
+                    && ((TypeElement) element).getQualifiedName().contentEquals(abstractHandler.getName())) {
+                final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                return arguments.isEmpty() ? null : arguments;
+            }
+            for (TypeMirror supertype : types.directSupertypes(type)) {
+                pending.push(supertype);
+            }
+        }
+        return null;
+    }
+}
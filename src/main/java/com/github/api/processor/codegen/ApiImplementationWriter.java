@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.codegen;
+
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.proxy.MethodDispatcher;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Writes the source of a straight-line implementation of a single @Api. Each method of 
+ * the generated class calls straight into its own MethodDispatcher, bound once when the 
+ * class is constructed, and so skips both the reflective Proxy entry point and any lookup 
+ * of the invoked Method.
+ * 
+ * @author github.
+ */
+class ApiImplementationWriter {
+    
+    private static final String INDENT = "    ";
+    
+    private final ProcessingEnvironment processingEnv;
+    private final TypeElement api;
+    private final List<ExecutableElement> methods;
+    
+    ApiImplementationWriter(ProcessingEnvironment processingEnv, TypeElement api, List<ExecutableElement> methods) {
+        this.processingEnv = processingEnv;
+        this.api = api;
+        this.methods = methods;
+    }
+    
+    /**
+     * Get every method, declared or inherited, which an implementation of the @Api must 
+     * dispatch: i.e. all non-static, non-private, interface methods.
+     * 
+     * @param processingEnv the current processing environment.
+     * @param api the @Api to get methods of.
+     * @return methods of the @Api, each signature appearing once.
+     */
+    static List<ExecutableElement> methodsOf(ProcessingEnvironment processingEnv, TypeElement api) {
+        final Types types = processingEnv.getTypeUtils();
+        final Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(api))) {
+            if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE 
+                    || method.getModifiers().contains(Modifier.STATIC) 
+                    || method.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            final String signature = method.getSimpleName() + method.getParameters().stream()
+                    .map(parameter -> types.erasure(parameter.asType()).toString())
+                    .collect(Collectors.joining(",", "(", ")"));
+            methods.putIfAbsent(signature, method);
+        }
+        return new ArrayList<>(methods.values());
+    }
+    
+    void write() {
+        if (!api.getTypeParameters().isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, 
+                    "Not generating implementation of generic @Api", api);
+            return;
+        }
+        
+        final String apiName = processingEnv.getElementUtils().getBinaryName(api).toString();
+        final String generatedName = GeneratedApis.generatedNameOf(apiName);
+        final int packageEnd = generatedName.lastIndexOf('.');
+        try {
+            final JavaFileObject source = processingEnv.getFiler().createSourceFile(generatedName, api);
+            try (Writer writer = source.openWriter()) {
+                writeClass(writer, (packageEnd > 0) ? generatedName.substring(0, packageEnd) : null, 
+                        generatedName.substring(packageEnd + 1));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, 
+                    "Failed generating implementation of @Api: " + e, api);
+        }
+    }
+    
+    private void writeClass(Writer writer, String packageName, String simpleName) throws IOException {
+        final String apiType = api.getQualifiedName().toString();
+        final StringBuilder source = new StringBuilder();
+        if (packageName != null) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Generated by ").append(ApiCodegenProcessor.class.getName())
+                .append(" from ").append(apiType).append(". Do not edit.\n */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(apiType).append(" {\n\n");
+        
+        for (int i = 0; i < methods.size(); i++) {
+            source.append(INDENT).append("private final ").append(MethodDispatcher.class.getName())
+                    .append(" dispatcher").append(i).append(";\n");
+        }
+        
+        source.append('\n').append(INDENT).append("public ").append(simpleName).append('(')
+                .append(AbstractRuntimeInvocationHandler.class.getName()).append(" invocationHandler) {\n");
+        
+        // a method-less Api (e.g. one only annotated with handlers) has nothing to look up.
+        if (!methods.isEmpty()) {
+            source.append(INDENT).append(INDENT).append("try {\n");
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            final ExecutableElement method = methods.get(i);
+            source.append(INDENT).append(INDENT).append(INDENT).append("this.dispatcher").append(i)
+                    .append(" = new ").append(MethodDispatcher.class.getName()).append("(invocationHandler, ")
+                    .append(apiType).append(".class.getMethod(\"").append(method.getSimpleName()).append('"');
+            for (TypeMirror parameter : ((ExecutableType) method.asType()).getParameterTypes()) {
+                source.append(", ").append(processingEnv.getTypeUtils().erasure(parameter)).append(".class");
+            }
+            source.append("));\n");
+        }
+        if (!methods.isEmpty()) {
+            source.append(INDENT).append(INDENT).append("} catch (NoSuchMethodException e) {\n");
+            source.append(INDENT).append(INDENT).append(INDENT).append("throw new IllegalStateException(e);\n");
+            source.append(INDENT).append(INDENT).append("}\n");
+        }
+        source.append(INDENT).append("}\n");
+        
+        for (int i = 0; i < methods.size(); i++) {
+            writeMethod(source, methods.get(i), i);
+        }
+        source.append("}\n");
+        writer.write(source.toString());
+    }
+    
+    private void writeMethod(StringBuilder source, ExecutableElement method, int index) {
+        final Types types = processingEnv.getTypeUtils();
+        final ExecutableType methodType = (ExecutableType) types.asMemberOf((DeclaredType) api.asType(), method);
+        final TypeMirror returnType = methodType.getReturnType();
+        final List<? extends TypeMirror> parameters = methodType.getParameterTypes();
+        
+        source.append('\n').append(INDENT).append("@Override\n").append(INDENT).append("public ");
+        if (!method.getTypeParameters().isEmpty()) {
+            source.append(method.getTypeParameters().stream()
+                    .map(this::typeParameter)
+                    .collect(Collectors.joining(", ", "<", "> ")));
+        }
+        source.append(returnType).append(' ').append(method.getSimpleName()).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            source.append((i > 0) ? ", " : "").append(parameters.get(i)).append(" arg").append(i);
+        }
+        source.append(')');
+        
+        // only rethrow, as is, the checked exceptions the method declares.
+        final List<TypeMirror> thrown = checkedExceptions(methodType.getThrownTypes());
+        if (!methodType.getThrownTypes().isEmpty()) {
+            source.append(" throws ").append(methodType.getThrownTypes().stream()
+                    .map(TypeMirror::toString)
+                    .collect(Collectors.joining(", ")));
+        }
+        source.append(" {\n");
+        
+        source.append(INDENT).append(INDENT).append("try {\n").append(INDENT).append(INDENT).append(INDENT);
+        if (returnType.getKind() != TypeKind.VOID) {
+            final TypeMirror castType = returnType.getKind().isPrimitive() 
+                    ? types.boxedClass(types.getPrimitiveType(returnType.getKind())).asType() 
+                    : returnType;
+            source.append("return (").append(castType).append(") ");
+        }
+        source.append("dispatcher").append(index).append(".dispatch(this, new Object[] {");
+        for (int i = 0; i < parameters.size(); i++) {
+            source.append((i > 0) ? ", " : "").append("arg").append(i);
+        }
+        source.append("});\n");
+        
+        source.append(INDENT).append(INDENT).append("} catch (RuntimeException | Error e) {\n");
+        source.append(INDENT).append(INDENT).append(INDENT).append("throw e;\n");
+        boolean throwable = false;
+        for (TypeMirror exception : thrown) {
+            throwable |= exception.toString().equals(Throwable.class.getName());
+            source.append(INDENT).append(INDENT).append("} catch (").append(exception).append(" e) {\n");
+            source.append(INDENT).append(INDENT).append(INDENT).append("throw e;\n");
+        }
+        if (!throwable) {
+            source.append(INDENT).append(INDENT).append("} catch (Throwable e) {\n");
+            source.append(INDENT).append(INDENT).append(INDENT).append("throw new ")
+                    .append(UndeclaredThrowableException.class.getName()).append("(e);\n");
+        }
+        source.append(INDENT).append(INDENT).append("}\n");
+        source.append(INDENT).append("}\n");
+    }
+    
+    /**
+     * Reduce the declared exceptions of a method to the checked ones which are not 
+     * subtypes of another, so that no catch clause is unreachable.
+     * 
+     * @param thrownTypes the declared exceptions of a method.
+     * @return checked exceptions to rethrow.
+     */
+    private List<TypeMirror> checkedExceptions(List<? extends TypeMirror> thrownTypes) {
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement(RuntimeException.class.getName()).asType();
+        final TypeMirror error = processingEnv.getElementUtils().getTypeElement(Error.class.getName()).asType();
+        final List<TypeMirror> checked = new ArrayList<>();
+        for (TypeMirror candidate : thrownTypes) {
+            if (candidate.getKind() != TypeKind.DECLARED 
+                    || types.isSubtype(candidate, runtimeException) 
+                    || types.isSubtype(candidate, error)) {
+                continue;
+            }
+            boolean subsumed = false;
+            for (TypeMirror other : thrownTypes) {
+                subsumed |= other != candidate && !types.isSameType(other, candidate) && types.isSubtype(candidate, other);
+            }
+            if (!subsumed && checked.stream().noneMatch(existing -> types.isSameType(existing, candidate))) {
+                checked.add(candidate);
+            }
+        }
+        return checked;
+    }
+    
+    private String typeParameter(TypeParameterElement parameter) {
+        final List<? extends TypeMirror> bounds = parameter.getBounds();
+        if (bounds.isEmpty() || (bounds.size() == 1 && bounds.get(0).toString().equals(Object.class.getName()))) {
+            return parameter.getSimpleName().toString();
+        }
+        return parameter.getSimpleName() + " extends " + bounds.stream()
+                .map(TypeMirror::toString)
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.codegen;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.google.common.base.Throwables;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the implementation generated, at compile-time, by the {@link ApiCodegenProcessor} 
+ * for an @Api interface. A generated implementation is named after its interface, with 
+ * any enclosing classes joined by an underscore, and lives in the same package 
+ * (e.g. 'com.example.Outer$MyApi' is implemented by 'com.example.Outer_MyApi_ApiImpl').
+ * 
+ * @author github.
+ */
+public final class GeneratedApis {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratedApis.class);
+    
+    public static final String GENERATED_SUFFIX = "_ApiImpl";
+    
+    private static final String GENERATED_FOUND_MESSAGE = "Using generated implementation of: {}";
+    
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                Class<?> generated = Class.forName(generatedNameOf(type.getName()), true, type.getClassLoader());
+                if (!type.isAssignableFrom(generated)) {
+                    return null;
+                }
+                LOGGER.debug(GENERATED_FOUND_MESSAGE, type.getName());
+                return generated.getConstructor(AbstractRuntimeInvocationHandler.class);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+    
+    /**
+     * Get the binary name of the implementation generated for an @Api.
+     * 
+     * @param apiName binary name of the @Api.
+     * @return binary name of its generated implementation.
+     */
+    public static String generatedNameOf(String apiName) {
+        checkNotNull(apiName, "apiName cannot be null");
+        final int packageEnd = apiName.lastIndexOf('.');
+        return apiName.substring(0, packageEnd + 1) 
+                + apiName.substring(packageEnd + 1).replace('$', '_') 
+                + GENERATED_SUFFIX;
+    }
+    
+    /**
+     * Create a new instance of the implementation generated for the passed interface.
+     * 
+     * @param <T> the Type of this interface.
+     * @param apiInterface the interface to create an implementation of.
+     * @param invocationHandler the handler every generated method will dispatch to.
+     * @return newly created implementation or null if none was generated.
+     */
+    @Nullable
+    public static <T> T newInstance(Class<T> apiInterface, AbstractRuntimeInvocationHandler invocationHandler) {
+        checkNotNull(apiInterface, "apiInterface cannot be null");
+        checkNotNull(invocationHandler, "invocationHandler cannot be null");
+        final Constructor<?> constructor = CONSTRUCTORS.get(apiInterface);
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return apiInterface.cast(constructor.newInstance(invocationHandler));
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+    
+    private GeneratedApis() {
+        throw new UnsupportedOperationException("intentionally unimplemented");
+    }
+}
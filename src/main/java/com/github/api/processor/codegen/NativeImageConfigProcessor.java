@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.codegen;
+
+import com.github.api.processor.annotations.Api;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor which, when passed -Aapi.processor.nativeImage=true, writes the 
+ * GraalVM native-image reflection and dynamic proxy configuration of every @Api interface 
+ * compiled alongside it. Registered are the Api itself (whose methods are looked up 
+ * reflectively and which is proxied), every class referenced by the annotations of the 
+ * Api and its methods (handlers, executor providers, key extractors and the like, which 
+ * are instantiated reflectively) and, if generated, the Api's implementation. As with 
+ * the ApiIndexProcessor, entries of a previous build whose types still exist are kept.
+ * 
+ * @author github.
+ */
+@SupportedAnnotationTypes("com.github.api.processor.annotations.Api")
+@SupportedOptions(NativeImageConfigProcessor.NATIVE_IMAGE_OPTION)
+public class NativeImageConfigProcessor extends AbstractProcessor {
+    
+    public static final String NATIVE_IMAGE_OPTION = "api.processor.nativeImage";
+    
+    public static final String LOCATION = "META-INF/native-image/api-processor/apis/";
+    public static final String REFLECT_CONFIG = LOCATION + "reflect-config.json";
+    public static final String PROXY_CONFIG = LOCATION + "proxy-config.json";
+    
+    private static final String ANNOTATIONS_PACKAGE = Api.class.getPackage().getName();
+    private static final String API_ENTRY = "  {\"name\" : \"%s\", \"allPublicMethods\" : true}";
+    private static final String TYPE_ENTRY = "  {\"name\" : \"%s\", \"allDeclaredConstructors\" : true, \"allPublicMethods\" : true}";
+    private static final String PROXY_ENTRY = "  [\"%s\"]";
+    private static final Pattern NAME = Pattern.compile("\\{\"name\" : \"([^\"]+)\", \"(allPublicMethods|allDeclaredConstructors)\"");
+    
+    // one entry per line, such that previous configs can be merged without a JSON parser.
+    private final Set<String> apis = new TreeSet<>();
+    private final Set<String> types = new TreeSet<>();
+    private boolean loaded = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(NATIVE_IMAGE_OPTION))) {
+            return false;
+        }
+        if (!loaded) {
+            loadPrevious();
+            loaded = true;
+        }
+        
+        final boolean generate = Boolean.parseBoolean(processingEnv.getOptions().get(ApiCodegenProcessor.GENERATE_OPTION));
+        for (TypeElement api : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Api.class))) {
+            if (api.getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            final String apiName = binaryName(api);
+            apis.add(apiName);
+            addReferencedTypes(api);
+            ApiImplementationWriter.methodsOf(processingEnv, api).forEach(this::addReferencedTypes);
+            if (generate && api.getTypeParameters().isEmpty()) {
+                types.add(GeneratedApis.generatedNameOf(apiName));
+            }
+        }
+        
+        if (roundEnv.processingOver()) {
+            write();
+        }
+        return false;
+    }
+    
+    /**
+     * Add every class referenced by the annotations, of this library, on an element.
+     * 
+     * @param element the Api or method to add the referenced classes of.
+     */
+    private void addReferencedTypes(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (processingEnv.getElementUtils().getPackageOf(annotation).getQualifiedName().contentEquals(ANNOTATIONS_PACKAGE)) {
+                mirror.getElementValues().values().forEach(this::addReferencedType);
+            }
+        }
+    }
+    
+    private void addReferencedType(AnnotationValue value) {
+        final Object resolved = value.getValue();
+        if (resolved instanceof DeclaredType) {
+            final TypeElement type = (TypeElement) ((DeclaredType) resolved).asElement();
+            if (!type.getModifiers().contains(Modifier.ABSTRACT)) {
+                types.add(binaryName(type));
+            }
+        } else if (resolved instanceof List) {
+            for (Object element : (List<?>) resolved) {
+                if (element instanceof AnnotationValue) {
+                    addReferencedType((AnnotationValue) element);
+                }
+            }
+        }
+    }
+    
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+    
+    private void loadPrevious() {
+        try {
+            final FileObject previous = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", REFLECT_CONFIG);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(previous.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final Matcher matcher = NAME.matcher(line);
+                    if (matcher.find()) {
+                        (line.contains("allDeclaredConstructors") ? types : apis).add(matcher.group(1));
+                    }
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Not merging previous native-image config: " + e);
+            return;
+        }
+        
+        // drop types which were since deleted, and Apis which are no longer annotated.
+        for (Iterator<String> iterator = apis.iterator(); iterator.hasNext();) {
+            final TypeElement type = processingEnv.getElementUtils().getTypeElement(iterator.next().replace('$', '.'));
+            if (type == null || type.getAnnotation(Api.class) == null) {
+                iterator.remove();
+            }
+        }
+        types.removeIf(type -> processingEnv.getElementUtils().getTypeElement(type.replace('$', '.')) == null);
+    }
+    
+    private void write() {
+        if (apis.isEmpty()) {
+            return;
+        }
+        final List<String> reflectEntries = new ArrayList<>();
+        apis.forEach(api -> reflectEntries.add(String.format(API_ENTRY, api)));
+        types.forEach(type -> reflectEntries.add(String.format(TYPE_ENTRY, type)));
+        final List<String> proxyEntries = new ArrayList<>();
+        apis.forEach(api -> proxyEntries.add(String.format(PROXY_ENTRY, api)));
+        
+        writeArray(REFLECT_CONFIG, reflectEntries);
+        writeArray(PROXY_CONFIG, proxyEntries);
+    }
+    
+    private void writeArray(String location, List<String> entries) {
+        try {
+            final FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (Writer writer = resource.openWriter()) {
+                writer.write("[\n");
+                writer.write(String.join(",\n", entries));
+                writer.write("\n]\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed writing native-image config: " + e);
+        }
+    }
+}
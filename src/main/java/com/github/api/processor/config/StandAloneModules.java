@@ -19,9 +19,19 @@ package com.github.api.processor.config;
 
 import com.github.api.processor.ApiProcessorProperties;
 import com.github.api.processor.cache.ApiProcessorCache;
+import com.github.api.processor.executors.AbstractExecutorProvider;
+import com.github.api.processor.executors.BoundedPoolExecutorProvider;
+import com.github.api.processor.tracing.AbstractTracer;
+import com.github.api.processor.tracing.Slf4jTracer;
 import com.github.api.processor.utils.ApiProcessorUtils;
+import com.github.api.processor.utils.Constants;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.Nullable;
 
 /**
  *
@@ -29,10 +39,37 @@ import java.util.Properties;
  */
 public class StandAloneModules extends AbstractModule {
             
+    private static final String RETRY_THREAD_NAME = "api-processor-retry-%d";
+    
     private final Properties properties;
+    
+    @Nullable
+    private final AbstractExecutorProvider executorProvider;
+    
+    private final ScheduledExecutorService retryScheduler;
+    private final AbstractTracer tracer;
 
     public StandAloneModules(Properties properties) {
+        this(properties, null, null, null);
+    }
+    
+    /**
+     * Create StandAloneModules from passed properties, executors and tracer.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     * @param executorProvider global executor provider, defaults to a BoundedPoolExecutorProvider if null.
+     * @param retryScheduler scheduler retries are delayed on, defaults to a single daemon thread, 
+     *        shared by every ApiProcessor, if null.
+     * @param tracer tracer invocations are reported to, defaults to Slf4jTracer if null.
+     */
+    public StandAloneModules(Properties properties, 
+            @Nullable AbstractExecutorProvider executorProvider, 
+            @Nullable ScheduledExecutorService retryScheduler, 
+            @Nullable AbstractTracer tracer) {
         this.properties = properties;
+        this.tracer = (tracer != null) ? tracer : new Slf4jTracer();
+        this.executorProvider = executorProvider;
+        this.retryScheduler = (retryScheduler != null) ? retryScheduler : DefaultRetryScheduler.INSTANCE;
     }
         
     @Override 
@@ -44,5 +81,20 @@ public class StandAloneModules extends AbstractModule {
         bind(ApiProcessorProperties.class).toInstance(apiProcessorProperties);
         bind(ApiProcessorCache.class).toInstance(apiProcessorCache);
         bind(ApiProcessorUtils.class).toInstance(apiProcessorUtils);
+        if (executorProvider != null) {
+            bind(AbstractExecutorProvider.class).toInstance(executorProvider);
+        } else {
+            bind(AbstractExecutorProvider.class).to(BoundedPoolExecutorProvider.class);
+        }
+        bind(AbstractTracer.class).toInstance(tracer);
+        bind(ScheduledExecutorService.class).annotatedWith(Names.named(Constants.RETRY_SCHEDULER)).toInstance(retryScheduler);
+    }
+    
+    // Created on first use, and never shut down, such that building many ApiProcessor's 
+    // doesn't leak a scheduler, and its thread, per build.
+    private static final class DefaultRetryScheduler {
+        
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat(RETRY_THREAD_NAME).build());
     }
 }
\ No newline at end of file
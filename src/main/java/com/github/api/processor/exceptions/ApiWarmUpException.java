@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.exceptions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+
+/**
+ * Thrown when warming up an ApiProcessor finds methods whose handlers do not fit 
+ * together (e.g. mismatched types). Lists every failing method at once, rather 
+ * than only the first, with each failure also attached as a suppressed exception.
+ * 
+ * @author github.
+ */
+public class ApiWarmUpException extends RuntimeException {
+    
+    private final ImmutableSortedMap<String, Throwable> failures;
+    
+    public ApiWarmUpException(Map<String, ? extends Throwable> failures) {
+        super(messageOf(failures));
+        this.failures = ImmutableSortedMap.copyOf(failures);
+        this.failures.values().forEach(this::addSuppressed);
+    }
+    
+    /**
+     * Get the failure of each method that could not be warmed up.
+     * 
+     * @return failures keyed by method name (e.g. "com.example.MyApi#get(String)").
+     */
+    public ImmutableSortedMap<String, Throwable> failures() {
+        return failures;
+    }
+    
+    private static String messageOf(Map<String, ? extends Throwable> failures) {
+        checkArgument(failures != null && !failures.isEmpty(), "failures cannot be null or empty");
+        final StringBuilder message = new StringBuilder()
+                .append(failures.size())
+                .append(" Api method(s) failed to warm up:");
+        ImmutableSortedMap.copyOf(failures).forEach((method, failure) -> {
+            message.append("\n    ").append(method).append(": ").append(failure);
+        });
+        return message.toString();
+    }
+}
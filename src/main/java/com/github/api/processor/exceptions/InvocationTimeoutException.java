@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.exceptions;
+
+/**
+ * Thrown, or passed to the ErrorHandler and FallbackHandler, when an attempt of the 
+ * ExecutionHandler is not completed within its timeout. Carries no stack trace as it 
+ * is expected to be thrown at a high rate while a backend is hung.
+ * 
+ * @author github.
+ */
+public class InvocationTimeoutException extends RuntimeException {
+    
+    public InvocationTimeoutException(String s) {
+        super(s, null, false, false);
+    }
+}
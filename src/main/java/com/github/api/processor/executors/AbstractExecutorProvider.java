@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.executors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Provides the Executor asynchronous Api methods, and the attempts of timed, hedged 
+ * or batched methods, are run on. A provider is queried once per compiled InvocationPlan 
+ * and so should hand back a shared Executor rather than creating a new one on each call. 
+ * Can be set globally through the ApiProcessor.Builder or per Api/method via 
+ * @ExecutorProvider, in which case it is created through the injector.
+ * 
+ * @author github.
+ */
+public abstract class AbstractExecutorProvider implements Supplier<Executor> {
+    
+    /**
+     * Create a provider which always hands back the passed executor.
+     * 
+     * @param executor the executor to provide.
+     * @return newly created provider.
+     */
+    public static AbstractExecutorProvider of(Executor executor) {
+        checkNotNull(executor, "executor cannot be null");
+        return new AbstractExecutorProvider() {
+            @Override
+            public Executor get() {
+                return executor;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.executors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default provider running asynchronous Api methods, and the attempts of timed, hedged 
+ * or batched methods, on a dedicated pool of daemon threads bounded by 
+ * {@link ApiProcessorConstants#EXECUTOR_THREADS} and {@link ApiProcessorConstants#EXECUTOR_QUEUE_SIZE}. 
+ * Blocking ExecutionHandlers are thereby kept off the common ForkJoinPool, which the whole 
+ * JVM shares, and a hung backend fails further invocations with a RejectedExecutionException 
+ * rather than starving it. Idle threads time out, so the pool holds no threads once unused, 
+ * and the pool is shut down once its ApiProcessor is closed.
+ * 
+ * @author github.
+ */
+@Singleton
+public class BoundedPoolExecutorProvider extends AbstractExecutorProvider implements AutoCloseable {
+    
+    private static final String THREAD_NAME = "api-processor-executor-%d";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Create BoundedPoolExecutorProvider from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public BoundedPoolExecutorProvider(ApiProcessorProperties properties) {
+        final int threads = Integer.valueOf(properties.get(ApiProcessorConstants.EXECUTOR_THREADS, 
+                ApiProcessorConstants.EXECUTOR_THREADS_DEFAULT));
+        final int queueSize = Integer.valueOf(properties.get(ApiProcessorConstants.EXECUTOR_QUEUE_SIZE, 
+                ApiProcessorConstants.EXECUTOR_QUEUE_SIZE_DEFAULT));
+        checkArgument(threads > 0, "executor threads must be greater than 0");
+        checkArgument(queueSize > 0, "executor queue size must be greater than 0");
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, 
+                new ArrayBlockingQueue<>(queueSize), 
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat(THREAD_NAME).build());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public Executor get() {
+        return executor;
+    }
+    
+    /**
+     * Shut down the pool: already submitted tasks are still run but any new ones are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
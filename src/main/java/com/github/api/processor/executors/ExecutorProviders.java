@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.api.processor.executors;
+
+import com.google.common.collect.Sets;
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the AbstractExecutorProvider of each Api/method through the injector, such 
+ * that providers may have @Inject constructors (e.g. the BoundedPoolExecutorProvider) 
+ * and, being @Singleton, are shared by every Api/method of an ApiProcessor. Providers 
+ * created this way, which are AutoCloseable, are closed along with their ApiProcessor.
+ * 
+ * @author github.
+ */
+@Singleton
+public class ExecutorProviders {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorProviders.class);
+    
+    private static final String CLOSE_MESSAGE = "Closing executor provider: {}";
+    private static final String CLOSE_FAILED_MESSAGE = "Failed closing executor provider: {}";
+    
+    private final Injector injector;
+    private final AbstractExecutorProvider defaultExecutorProvider;
+    private final Set<AbstractExecutorProvider> created = Sets.newConcurrentHashSet();
+    
+    /**
+     * Create ExecutorProviders from passed parameters.
+     * 
+     * @param injector the injector providers are created by.
+     * @param defaultExecutorProvider the globally registered provider.
+     */
+    @Inject
+    public ExecutorProviders(Injector injector, AbstractExecutorProvider defaultExecutorProvider) {
+        this.injector = injector;
+        this.defaultExecutorProvider = defaultExecutorProvider;
+    }
+    
+    /**
+     * Resolve which provider to use giving precedence to the method, then the class, 
+     * and lastly to the globally registered provider.
+     * 
+     * @param methodProvider provider class set on method (possibly null).
+     * @param classProvider provider class set on class (possibly null).
+     * @return resolved provider.
+     */
+    public AbstractExecutorProvider executorProviderFrom(@Nullable Class<? extends AbstractExecutorProvider> methodProvider, 
+            @Nullable Class<? extends AbstractExecutorProvider> classProvider) {
+        final Class<? extends AbstractExecutorProvider> providerClass = (methodProvider != null) ? methodProvider : classProvider;
+        if (providerClass == null) {
+            return defaultExecutorProvider;
+        }
+        final AbstractExecutorProvider executorProvider = injector.getInstance(providerClass);
+        created.add(executorProvider);
+        return executorProvider;
+    }
+    
+    /**
+     * Close every AutoCloseable provider created by the injector: i.e. those set on an 
+     * Api/method and the default BoundedPoolExecutorProvider, but never a provider 
+     * registered through the ApiProcessor.Builder.
+     */
+    public void close() {
+        final Binding<BoundedPoolExecutorProvider> defaultBinding = injector.getExistingBinding(Key.get(BoundedPoolExecutorProvider.class));
+        if (defaultBinding != null) {
+            created.add(defaultBinding.getProvider().get());
+        }
+        for (AbstractExecutorProvider executorProvider : created) {
+            if (executorProvider instanceof AutoCloseable) {
+                try {
+                    LOGGER.debug(CLOSE_MESSAGE, executorProvider.getClass().getName());
+                    ((AutoCloseable) executorProvider).close();
+                } catch (Exception e) {
+                    LOGGER.warn(CLOSE_FAILED_MESSAGE, executorProvider.getClass().getName(), e);
+                }
+            }
+        }
+        created.clear();
+    }
+}
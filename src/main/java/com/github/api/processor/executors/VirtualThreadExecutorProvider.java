@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.executors;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.inject.Singleton;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provider running each asynchronous invocation on its own virtual thread. Virtual 
+ * threads are only present on JDK 21+ runtimes and so the executor is looked up 
+ * reflectively, allowing this class to ship in a Java 8 compatible jar. Blocking 
+ * ExecutionHandlers can then scale to tens of thousands of concurrent invocations 
+ * without sizing a pool of platform threads.
+ * 
+ * @author github.
+ */
+@Singleton
+public class VirtualThreadExecutorProvider extends AbstractExecutorProvider {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadExecutorProvider.class);
+
+    private static final String FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+    private static final String NOT_AVAILABLE = "virtual threads require a JDK 21+ runtime";
+    private static final String NOT_AVAILABLE_MESSAGE = "Virtual threads not available: {}";
+    
+    /**
+     * Whether the current runtime supports virtual threads.
+     * 
+     * @return true if virtual threads are available.
+     */
+    public static boolean isAvailable() {
+        return Holder.EXECUTOR != null;
+    }
+    
+    @Override
+    public Executor get() {
+        checkState(Holder.EXECUTOR != null, NOT_AVAILABLE);
+        return Holder.EXECUTOR;
+    }
+    
+    // created on first use, and shared by all providers, as virtual threads are cheap 
+    // enough that a single per-task executor can serve every Api.
+    private static final class Holder {
+        
+        private static final Executor EXECUTOR = lookup();
+        
+        private static Executor lookup() {
+            try {
+                Method factory = Executors.class.getMethod(FACTORY_METHOD);
+                return (Executor) factory.invoke(null);
+            } catch (ReflectiveOperationException | SecurityException e) {
+                LOGGER.debug(NOT_AVAILABLE_MESSAGE, e.toString());
+                return null;
+            }
+        }
+    }
+}
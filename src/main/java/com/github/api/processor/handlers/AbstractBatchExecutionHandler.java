@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.handlers;
+
+import com.github.api.processor.wrappers.BatchWrapper;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Executes a batch of invocations of a @Batch method at once. Outputs must be returned 
+ * in the same order as the invocations of the batch and each is then passed on, 
+ * individually, to its invocation's ResponseHandler. Throwing fails every invocation 
+ * of the batch.
+ *
+ * @author github.
+ * @param <V>
+ * @param <T>
+ */
+public abstract class AbstractBatchExecutionHandler<T, V> implements Function<BatchWrapper<T>, List<V>> {
+
+}
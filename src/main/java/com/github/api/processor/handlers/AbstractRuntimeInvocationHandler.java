@@ -17,7 +17,12 @@
 
 package com.github.api.processor.handlers;
 
+import com.github.api.processor.exceptions.ApiWarmUpException;
+import com.github.api.processor.instance.InvocationPlan;
 import com.google.common.reflect.AbstractInvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -25,4 +30,43 @@ import com.google.common.reflect.AbstractInvocationHandler;
  */
 public abstract class AbstractRuntimeInvocationHandler extends AbstractInvocationHandler {
         
+    /**
+     * Compile, ahead of any invocation, the plans of every method of the passed 
+     * Api's as well as those of any Api's reachable through their @Delegate methods.
+     * 
+     * @param apis the Api's to compile plans for.
+     */
+    public abstract void prepare(Set<Class> apis);
+    
+    /**
+     * Like prepare, but compiles plans in parallel on the passed executor and, rather 
+     * than failing on the first, reports every method whose plan could not be compiled 
+     * at once. Proxies of Api's reachable through @Delegate methods are created as well.
+     * 
+     * @param apis the Api's to compile plans for.
+     * @param executor the executor to compile plans on.
+     * @throws ApiWarmUpException if the plan of any method could not be compiled.
+     */
+    public abstract void warmUp(Set<Class> apis, Executor executor);
+    
+    /**
+     * Get the compiled plan of the passed method, compiling it if not already done.
+     * 
+     * @param method the method to get the plan for.
+     * @return the compiled plan.
+     */
+    public abstract InvocationPlan planFor(Method method);
+    
+    /**
+     * Dispatch an invocation straight to this handler. Used by generated proxies, 
+     * whose methods are already bound to their plan, to bypass the 
+     * java.lang.reflect.Proxy entry point and any lookup of the invoked Method.
+     * 
+     * @param source the proxy instance the method was invoked on.
+     * @param plan the compiled plan of the method being invoked.
+     * @param args the arguments passed to the method.
+     * @return the result of the invocation.
+     * @throws Throwable if invocation fails.
+     */
+    public abstract Object dispatch(Object source, InvocationPlan plan, Object[] args) throws Throwable;
 }
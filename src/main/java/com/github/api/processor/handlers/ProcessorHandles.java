@@ -17,6 +17,7 @@
 
 package com.github.api.processor.handlers;
 
+import com.github.api.processor.executors.AbstractExecutorProvider;
 import javax.annotation.Nullable;
 
 /**
@@ -39,4 +40,7 @@ public interface ProcessorHandles {
     
     @Nullable
     Class<? extends AbstractResponseHandler> responseHandler();
+    
+    @Nullable
+    Class<? extends AbstractExecutorProvider> executorProvider();
 }
@@ -17,13 +17,45 @@
 
 package com.github.api.processor.handlers;
 
-import com.github.api.processor.ApiProcessorConstants;
-import com.github.api.processor.ApiProcessorProperties;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.annotations.Batch;
+import com.github.api.processor.annotations.Cached;
+import com.github.api.processor.annotations.Coalesce;
 import com.github.api.processor.annotations.Delegate;
 import com.github.api.processor.wrappers.ResponseWrapper;
-import com.github.api.processor.instance.InvocationInstance;
 import com.github.api.processor.cache.ApiProcessorCache;
+import com.github.api.processor.cache.ResponseCache;
+import com.github.api.processor.cache.TypeCheck;
+import com.github.api.processor.cache.InvocationPlanStore;
+import com.github.api.processor.cache.PlanSnapshot;
+import com.github.api.processor.executors.AbstractExecutorProvider;
+import com.github.api.processor.executors.ExecutorProviders;
+import com.github.api.processor.instance.ClassInstance;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.github.api.processor.instance.MethodInstance;
+import com.github.api.processor.metrics.ApiProcessorMetrics;
+import com.github.api.processor.metrics.Counter;
+import com.github.api.processor.metrics.MethodMetrics;
+import com.github.api.processor.metrics.Stage;
+import com.github.api.processor.policies.BudgetedRetryPolicy;
+import com.github.api.processor.policies.CircuitBreakers;
+import com.github.api.processor.policies.ConcurrencyLimiter;
+import com.github.api.processor.policies.ConcurrencyLimiters;
+import com.github.api.processor.policies.HedgePolicy;
+import com.github.api.processor.policies.MicroBatchers;
+import com.github.api.processor.policies.MethodCircuitBreaker;
+import com.github.api.processor.policies.RetryPolicies;
+import com.github.api.processor.policies.SingleFlight;
+import com.github.api.processor.policies.TimeoutPolicies;
+import com.github.api.processor.tracing.AbstractTracer;
+import com.github.api.processor.exceptions.ApiWarmUpException;
+import com.github.api.processor.exceptions.CircuitBreakerOpenException;
+import com.github.api.processor.exceptions.ConcurrencyLimitExceededException;
+import com.github.api.processor.exceptions.InvocationTimeoutException;
 import com.github.api.processor.exceptions.NullNotAllowedException;
+import com.github.api.processor.exceptions.RetryBudgetExhaustedException;
 import com.github.api.processor.utils.ApiProcessorUtils;
 import com.github.api.processor.utils.Constants;
 import com.github.api.processor.utils.Pair;
@@ -37,22 +69,42 @@ import com.github.type.utils.ReflectionUtils;
 import com.github.type.utils.TypeUtils;
 import com.github.type.utils.exceptions.TypeMismatchException;
 import com.google.common.base.Throwables;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import net.jodah.failsafe.ExecutionContext;
 import net.jodah.failsafe.Failsafe;
 import net.jodah.failsafe.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -61,15 +113,18 @@ import net.jodah.failsafe.RetryPolicy;
 @Singleton
 public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
     
-    private static final Cache<String, Object> RUNTIME_METADATA = CacheBuilder.newBuilder().build();
-    
-    private static final Logger LOGGER = Logger.getLogger(RuntimeInvocationHandler.class.getName());
+    private static final Logger LOGGER = LoggerFactory.getLogger(RuntimeInvocationHandler.class);
 
-    private static final String GENERIC_TYPE_CACHE_MESSAGE = "Caching new generic-types for: {0}";
-    private static final String DELEGATE_MESSAGE = "Delegate method returning instance of {0}";
-    private static final String RETRY_ATTEMPT_MESSAGE = "Invocation attempt failed due to: {0}";
-    private static final String RETRY_FAILED_MESSAGE = "Invocation failed due to: {0}";
-    private static final String RETRY_RUN_MESSAGE = "Invocation attempt {0} on {1}";
+    private static final String EXECUTOR_IS_NULL = "executorProvider returned a null executor";
+    
+    private static final String CIRCUIT_OPEN_MESSAGE = "Circuit breaker open for: ";
+    private static final String LIMIT_EXCEEDED_MESSAGE = "Concurrency limit exceeded for: ";
+    private static final String TIMEOUT_MESSAGE = "Timed out waiting on ExecutionHandler for: ";
+    
+    private static final String GENERIC_TYPE_CACHE_MESSAGE = "Caching new generic-types for: {}";
+    private static final String PLAN_COMPILE_MESSAGE = "Compiling new InvocationPlan for: {}";
+    private static final String RETRY_ATTEMPT_MESSAGE = "Invocation attempt failed due to: {}";
+    private static final String RETRY_FAILED_MESSAGE = "Invocation failed due to: {}";
 
     @Inject
     Injector injector;
@@ -100,83 +155,529 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
     AbstractResponseHandler abstractResponseHandler;
         
     @Inject
-    private ApiProcessorProperties properties;
+    private RetryPolicies retryPolicies;
+    
+    @Inject
+    private CircuitBreakers circuitBreakers;
+    
+    @Inject
+    private ConcurrencyLimiters concurrencyLimiters;
+    
+    @Inject
+    private TimeoutPolicies timeoutPolicies;
+    
+    @Inject
+    private MicroBatchers microBatchers;
+    
+    @Inject
+    private ApiProcessorMetrics apiProcessorMetrics;
+    
+    @Inject
+    private AbstractTracer tracer;
+    
+    @Inject
+    private PlanSnapshot planSnapshot;
+    
+    @Inject
+    ExecutorProviders executorProviders;
+    
+    @Inject
+    @Named(Constants.RETRY_SCHEDULER)
+    private ScheduledExecutorService retryScheduler;
         
+    private final InvocationPlanStore plans = new InvocationPlanStore();
+    
+    private final ClassValue<Class[]> genericTypes = new ClassValue<Class[]>() {
+        @Override
+        protected Class[] computeValue(Class<?> type) {
+            LOGGER.debug(GENERIC_TYPE_CACHE_MESSAGE, type.getName());
+            return processorUtils.getGenericTypesAsClasses(type);
+        }
+    };
+    
+    @Override
+    public void prepare(Set<Class> apis) {
+        Set<Class> prepared = Sets.newHashSet();
+        Deque<Class> pending = new ArrayDeque<>(apis);
+        while (!pending.isEmpty()) {
+            Class api = pending.pop();
+            if (prepared.add(api)) {
+                for (Method method : api.getMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers())) {
+                        InvocationPlan plan = planFor(method);
+                        if (plan.delegate()) {
+                            pending.push(plan.delegateType());
+                        }
+                    }
+                }
+            }
+        }
+        planSnapshot.persist();
+    }
+    
+    @Override
+    public void warmUp(Set<Class> apis, Executor executor) {
+        final Map<String, Throwable> failures = new ConcurrentSkipListMap<>();
+        final Set<Class> prepared = Sets.newHashSet();
+        List<Class> pending = Lists.newArrayList(apis);
+        while (!pending.isEmpty()) {
+            
+            // Compile one level of delegation at a time, as the Api's of the 
+            // next level are only known once the current level is compiled.
+            final List<CompletableFuture<Class>> compiling = Lists.newArrayList();
+            for (Class api : pending) {
+                if (prepared.add(api)) {
+                    for (Method method : api.getMethods()) {
+                        if (!Modifier.isStatic(method.getModifiers())) {
+                            compiling.add(CompletableFuture.supplyAsync(() -> warmUpMethod(method, failures), executor));
+                        }
+                    }
+                }
+            }
+            pending = compiling.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        planSnapshot.persist();
+        if (!failures.isEmpty()) {
+            throw new ApiWarmUpException(failures);
+        }
+    }
+    
+    /**
+     * Compile the plan of a single method, recording rather than throwing any failure.
+     * 
+     * @return the delegate type of the method, if any, whose methods should be warmed next.
+     */
+    private Class warmUpMethod(Method method, Map<String, Throwable> failures) {
+        try {
+            final InvocationPlan plan = planFor(method);
+            if (plan.delegate()) {
+                processorCache.proxyFrom(plan.delegateType(), this);
+                return plan.delegateType();
+            }
+        } catch (RuntimeException e) {
+            failures.put(ApiProcessorMetrics.nameOf(method), e);
+        }
+        return null;
+    }
+    
+    @Override
+    public InvocationPlan planFor(Method method) {
+        return plans.get(method, this::compilePlan);
+    }
+    
     @Override
     protected Object handleInvocation(Object source, Method method, Object[] args) {
+        return dispatch(source, planFor(method), args);
+    }
+    
+    @Override
+    public Object dispatch(Object source, InvocationPlan plan, Object[] args) {
+        
+        // 1.) If method is a Delegate then return an instance of its Api/Interface
+        if (plan.delegate()) {
+            tracer.onDelegate(plan);
+            return processorCache.proxyFrom(plan.delegateType(), this);
+        }
+        
+        // 2.) Create InvocationInstance from pre-compiled plan.
+        final InvocationInstance invocationInstance = InvocationInstance.newInstance(plan, args);
+        final long startedAt = ticks(invocationInstance, Stage.INVOCATION);
+        if (startedAt == 0) {
+            return dispatchStages(invocationInstance, args);
+        }
+        
+        final Object returnValue;
+        try {
+            returnValue = dispatchStages(invocationInstance, args);
+        } catch (RuntimeException | Error e) {
+            processSpan(invocationInstance, Stage.INVOCATION, startedAt, e);
+            throw e;
+        }
+        
+        // Asynchronous invocations are only done once their future is.
+        if (plan.async()) {
+            ((CompletableFuture<?>) returnValue).whenComplete((ignore, exception) -> {
+                processSpan(invocationInstance, Stage.INVOCATION, startedAt, (exception != null) ? unwrap(exception) : null);
+            });
+        } else {
+            processSpan(invocationInstance, Stage.INVOCATION, startedAt, null);
+        }
+        return returnValue;
+    }
+    
+    private Object dispatchStages(final InvocationInstance invocationInstance, final Object[] args) {
+        final InvocationPlan plan = invocationInstance.plan();
+        
+        // 2.1) A cached returnValue skips every remaining stage.
+        final ResponseCache responseCache = plan.responseCache();
+        if (responseCache != null) {
+            final Object cacheKey = responseCache.keyFrom(invocationInstance, args);
+            final Object cachedValue = responseCache.get(cacheKey);
+            if (cachedValue != null) {
+                return plan.async() ? CompletableFuture.completedFuture(cachedValue) : cachedValue;
+            }
+            invocationInstance.cacheKey(cacheKey);
+        }
+        
+        // 3.) Types passed between handlers were checked for sanity when the 
+        //     plan was compiled. What remains are the checks that can only 
+        //     be done against the actual objects, as each stage completes.
+        
+        // 4.) Identical concurrent invocations of a @Coalesce'd method share a single flight.
+        final SingleFlight singleFlight = plan.singleFlight();
+        if (singleFlight != null) {
+            final CompletableFuture<Object> flight = singleFlight.join(singleFlight.keyFrom(invocationInstance, args), 
+                    () -> plan.async() ? dispatchAsync(invocationInstance) : invokeFuture(invocationInstance));
+            if (plan.async()) {
+                return flight;
+            }
+            try {
+                return flight.get();
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            }
+        }
         
-        // 1.) Get/Build InvocationInstance from cache.
-        final InvocationInstance invocationInstance = processorCache.invocationInstanceFrom(method, args);
-        
-        // 2.) If method is a Delegate then return an instance of its Api/Interface
-        if (invocationInstance.methodAnnotation(Delegate.class) != null) {
-            Class proxyType = invocationInstance.typeToken().getRawType();
-            LOGGER.log(Level.INFO, DELEGATE_MESSAGE, proxyType);
-            return processorCache.proxyFrom(proxyType, this);
-        }
-        
-        // 3.) Initialize handlers, if present, for runtime execution
-        final AbstractRequestHandler runtimeRequestHandler = (invocationInstance.requestHandler() != null) 
-                ? invocationInstance.requestHandler()
-                : abstractRequestHandler;
-        final AbstractExecutionHandler runtimeExecutionHandler = (invocationInstance.executionHandler() != null) 
-                ? invocationInstance.executionHandler() 
-                : abstractExecutionHandler;
-        final AbstractErrorHandler runtimeErrorHandler = (invocationInstance.errorHandler() != null) 
-                ? invocationInstance.errorHandler() 
-                : abstractErrorHandler;
-        final AbstractFallbackHandler runtimeFallbackHandler = (invocationInstance.fallbackHandler() != null) 
-                ? invocationInstance.fallbackHandler() 
-                : abstractFallbackHandler;
-        final AbstractResponseHandler runtimeResponseHandler = (invocationInstance.responseHandler() != null) 
-                ? invocationInstance.responseHandler() 
-                : abstractResponseHandler;
-        
-        
-        Class returnType = processorUtils.potentialPrimitiveToClass(invocationInstance.typeToken().getRawType());
-        boolean isPrimitive = invocationInstance.typeToken().getRawType().isPrimitive();
-        
-        // 4.) Check that Types passed between handlers are sane and not mismatched.
-        //     Throws RuntimeException if something does not match correctly.
-        final Map<Integer, Pair<ClassType, ClassType>> requiredChecks;
+        // 4.1) Asynchronous methods run every remaining stage on the executor 
+        //      and hand back a future in place of the returnValue.
+        if (plan.async()) {
+            return dispatchAsync(invocationInstance);
+        }
+        
+        try {
+            return invoke(invocationInstance);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+    
+    /**
+     * Get the current time if the stage is to be recorded, or traced, and 
+     * otherwise avoid reading the clock altogether.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param stage the stage about to run.
+     * @return current time (in nanoseconds) or 0 if the stage is neither recorded nor traced.
+     */
+    private long ticks(final InvocationInstance invocationInstance, final Stage stage) {
+        return timed(invocationInstance, stage) ? System.nanoTime() : 0;
+    }
+    
+    private boolean timed(final InvocationInstance invocationInstance, final Stage stage) {
+        return invocationInstance.plan().metrics() != null || tracer.isEnabled(stage);
+    }
+    
+    /**
+     * Get the current time if the ExecutionHandler is to be recorded, traced, or its 
+     * latency fed back to a concurrency limiter, and otherwise avoid reading the clock.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @return current time (in nanoseconds) or 0 if the execution is not timed.
+     */
+    private long admissionTicks(final InvocationInstance invocationInstance) {
+        return (invocationInstance.plan().concurrencyLimiter() != null) 
+                ? System.nanoTime() 
+                : ticks(invocationInstance, Stage.EXECUTION);
+    }
+    
+    /**
+     * Record, and trace, a completed stage of an invocation. Failed invocations 
+     * are also counted against the runtime check, if any, which failed them.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param stage the completed stage.
+     * @param startedAt time (in nanoseconds) the stage started at, or 0 if it was not timed.
+     * @param failure the exception the stage failed with, or null if it succeeded.
+     */
+    private void processSpan(final InvocationInstance invocationInstance, 
+            final Stage stage, 
+            final long startedAt, 
+            @Nullable final Throwable failure) {
+        if (startedAt == 0) {
+            return;
+        }
+        final long latency = System.nanoTime() - startedAt;
+        final MethodMetrics metrics = invocationInstance.plan().metrics();
+        if (metrics != null) {
+            metrics.record(stage, latency);
+            if (failure != null) {
+                countFailure(metrics, failure);
+            }
+        }
+        if (tracer.isEnabled(stage)) {
+            tracer.onSpan(stage, invocationInstance, latency, failure);
+        }
+    }
+    
+    /**
+     * Count a failed invocation against the runtime check, if any, which failed it.
+     * 
+     * @param metrics the metrics of the invoked method.
+     * @param failure the exception the invocation failed with.
+     */
+    private void countFailure(final MethodMetrics metrics, final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProcessTimeTypeMismatchException) {
+                metrics.increment(Counter.TYPE_CHECK_FAILURES);
+                return;
+            } else if (cause instanceof NullNotAllowedException) {
+                metrics.increment(Counter.NULL_PRIMITIVE_REJECTIONS);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Run the handlers of a single invocation, in order, on the current thread 
+     * and report its outcome through an already completed future.
+     * 
+     * @param invocationInstance the invocation to run.
+     * @return future completed with the outcome of the invocation.
+     */
+    private CompletableFuture<Object> invokeFuture(final InvocationInstance invocationInstance) {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
         try {
-            requiredChecks = (Map<Integer, Pair<ClassType, ClassType>>) RUNTIME_METADATA.get(invocationInstance.signature(), () -> {
-                return checkTypeConsistency(runtimeRequestHandler,
-                        runtimeExecutionHandler,
-                        runtimeErrorHandler,
-                        runtimeFallbackHandler,
-                        runtimeResponseHandler,
-                        returnType,
-                        isPrimitive);
+            result.complete(invoke(invocationInstance));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Run every stage of an asynchronous method on the plan's executor. The 
+     * caller's thread is never blocked, nor is any other thread while retries 
+     * are backing off, and any failure, including a type-mismatch, is reported 
+     * through the returned future.
+     * 
+     * @param invocationInstance the invocation to dispatch.
+     * @return future completed with the returnValue of the invocation.
+     */
+    private CompletableFuture<Object> dispatchAsync(final InvocationInstance invocationInstance) {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        try {
+            invocationInstance.plan().executor().execute(() -> {
+                final long admittedAt;
+                try {
+                    invocationInstance.context(processExecutionContext(invocationInstance));
+                    admittedAt = admissionTicks(invocationInstance);
+                    final RuntimeException rejection = processAdmission(invocationInstance);
+                    if (rejection != null) {
+                        result.complete(processRejection(invocationInstance, rejection));
+                        return;
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                
+                // a synchronous failure to dispatch is released like any other.
+                CompletableFuture<Object> execution;
+                try {
+                    execution = processExecutionHandlerAsync(invocationInstance);
+                } catch (Throwable e) {
+                    execution = new CompletableFuture<>();
+                    execution.completeExceptionally(e);
+                }
+                execution.whenComplete((response, exception) -> {
+                    processRelease(invocationInstance, admittedAt, (exception != null) ? unwrap(exception) : null);
+                    try {
+                        result.complete((exception == null) 
+                                ? processCache(invocationInstance, processResponse(invocationInstance, response)) 
+                                : processFailure(invocationInstance, unwrap(exception)));
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
             });
-        } catch (ExecutionException ex) {
-            throw Throwables.propagate(ex);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
         }
+        return result;
+    }
+    
+    /**
+     * Run the handlers of a single invocation, in order, on the current thread.
+     * 
+     * @param invocationInstance the invocation to run.
+     * @return the returnValue of the invocation.
+     * @throws Throwable the, possibly marshalled, exception thrown during execution 
+     *     if no FallbackHandler is present.
+     */
+    private Object invoke(final InvocationInstance invocationInstance) throws Throwable {
+        
+        // 5.) Build the execution context, optionally through a RequestHandler.
+        invocationInstance.context(processExecutionContext(invocationInstance));
         
-        for(Map.Entry<Integer, Pair<ClassType, ClassType>> fish : requiredChecks.entrySet()) {
-            System.out.println("~~~~~~FOUND: key=" + fish.getKey() + ", value=" + fish.getValue());
+        // 5.1) If over the concurrency limit, or the circuit breaker is open, skip execution entirely.
+        final long admittedAt = admissionTicks(invocationInstance);
+        final RuntimeException rejection = processAdmission(invocationInstance);
+        if (rejection != null) {
+            return processRejection(invocationInstance, rejection);
+        }
+            
+        // 6.) Pass InvocationInstance to ExecutionHandler for runtime execution.
+        // Released on every path, Errors included, as a circuit breaker left 
+        // waiting on the outcome of a trial invocation never closes again.
+        final Object response;
+        try {
+            response = processExecutionHandler(invocationInstance);
+        } catch (Throwable e) {
+            processRelease(invocationInstance, admittedAt, e);
+            Throwables.propagateIfInstanceOf(e, Error.class);
+            
+            // 7.) Optionally marshall the exception into something else.
+            return processFailure(invocationInstance, e);
         }
+        processRelease(invocationInstance, admittedAt, null);
+        
+        // 8.) Check, and optionally marshall, the response of the ExecutionHandler.
+        return processCache(invocationInstance, processResponse(invocationInstance, response));
+    }
+    
+    /**
+     * Cache the returnValue of a successful invocation if its method is @Cached.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param returnValue the returnValue of the invocation.
+     * @return the passed returnValue.
+     */
+    private Object processCache(final InvocationInstance invocationInstance, final Object returnValue) {
+        final ResponseCache responseCache = invocationInstance.plan().responseCache();
+        if (responseCache != null) {
+            responseCache.put(invocationInstance.cacheKey(), returnValue);
+        }
+        return returnValue;
+    }
+    
+    /**
+     * Optionally marshall an exception, thrown during execution, into something 
+     * else and, if no FallbackHandler is present to turn it into a valid 
+     * returnValue, throw it.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param exception the exception thrown during execution.
+     * @return the returnValue of the FallbackHandler.
+     * @throws Throwable the, possibly marshalled, exception if no FallbackHandler is present.
+     */
+    private Object processFailure(final InvocationInstance invocationInstance, 
+            final Throwable exception) throws Throwable {
+        Throwable invocationException = processInvocationException(invocationInstance, exception);
+        if (invocationInstance.plan().fallbackHandler() == null) {
+            throw invocationException;
+        }
+        return processFallback(invocationInstance, invocationException);
+    }
+    
+    /**
+     * Admit an invocation through its concurrency limiter and then its circuit breaker. 
+     * Every admitted invocation must be followed, whichever way it completes, by a call 
+     * to {@link #processRelease(InvocationInstance, long, Throwable)}.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @return null if admitted, otherwise the exception it was rejected with.
+     */
+    private RuntimeException processAdmission(final InvocationInstance invocationInstance) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final ConcurrencyLimiter concurrencyLimiter = plan.concurrencyLimiter();
+        if (concurrencyLimiter != null && !concurrencyLimiter.tryAcquire()) {
+            return new ConcurrencyLimitExceededException(LIMIT_EXCEEDED_MESSAGE + plan);
+        }
+        final MethodCircuitBreaker circuitBreaker = plan.circuitBreaker();
+        if (circuitBreaker != null) {
+            final MethodCircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+            if (permit == null) {
+                if (concurrencyLimiter != null) {
+                    concurrencyLimiter.cancel();
+                }
+                return new CircuitBreakerOpenException(CIRCUIT_OPEN_MESSAGE + plan);
+            }
+            invocationInstance.circuitBreakerPermit(permit);
+        }
+        return null;
+    }
+    
+    /**
+     * Feed the outcome of an admitted invocation back to its concurrency limiter and circuit breaker.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param admittedAt time (in nanoseconds) the invocation was admitted, or 0 if it was not timed.
+     * @param failure the exception the ExecutionHandler failed with, or null if it succeeded.
+     */
+    private void processRelease(final InvocationInstance invocationInstance, 
+            final long admittedAt, 
+            @Nullable final Throwable failure) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final boolean succeeded = (failure == null);
+        processSpan(invocationInstance, Stage.EXECUTION, timed(invocationInstance, Stage.EXECUTION) ? admittedAt : 0, failure);
+        final ConcurrencyLimiter concurrencyLimiter = plan.concurrencyLimiter();
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.release(System.nanoTime() - admittedAt, !succeeded);
+        }
+        final MethodCircuitBreaker circuitBreaker = plan.circuitBreaker();
+        if (circuitBreaker != null) {
+            if (succeeded) {
+                circuitBreaker.onSuccess(invocationInstance.circuitBreakerPermit());
+            } else {
+                circuitBreaker.onFailure(invocationInstance.circuitBreakerPermit());
+            }
+        }
+    }
+    
+    /**
+     * Pass an invocation rejected by its concurrency limiter, or an open circuit breaker, 
+     * straight to the FallbackHandler, bypassing the ErrorHandler, or fail fast if none is present.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param rejection the exception the invocation was rejected with.
+     * @return the returnValue of the FallbackHandler.
+     */
+    private Object processRejection(final InvocationInstance invocationInstance, final RuntimeException rejection) {
+        if (invocationInstance.plan().fallbackHandler() == null) {
+            throw rejection;
+        }
+        return processFallback(invocationInstance, rejection);
+    }
+    
+    /**
+     * Two things are happening below: we are optionally executing a RequestHandler and 
+     * generating, not optional, an executionContext. The RequestHandler takes in an 
+     * executionContext which is why we have to build/generate it as part of its 
+     * invocation. If we don't execute a RequestHandler we are still required to 
+     * build/generate an executionContext.
+     * 
+     * @param invocationInstance the invocation to build an executionContext for.
+     * @return the executionContext.
+     */
+    private Object processExecutionContext(final InvocationInstance invocationInstance) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final AbstractRequestHandler runtimeRequestHandler = plan.requestHandler();
+        final AbstractExecutionHandler runtimeExecutionHandler = plan.executionHandler();
+        final AbstractErrorHandler runtimeErrorHandler = plan.errorHandler();
+        final long startedAt = ticks(invocationInstance, Stage.CONTEXT);
         
-          
-        // 5.) Two things are happening below: we are optionally executing a RequestHandler and 
-        //     generating, not optional, an executionContext. The RequestHandler takes in an 
-        //     executionContext which is why we have to build/generate it as part of its 
-        //     invocation. If we don't execute a RequestHandler we are still required to 
-        //     build/generate an executionContext.
         final Object executionContext;
-        Class genericExecutionType = genericTypes(runtimeExecutionHandler.getClass())[0];
+        Class genericExecutionType = plan.executionType();
         if (runtimeRequestHandler != null) {
-            Class[] requestTypes = genericTypes(runtimeRequestHandler.getClass()); 
+            final Object initialContext = getInstance(plan.requestType());
+            final long requestedAt = ticks(invocationInstance, Stage.REQUEST_HANDLER);
             executionContext = processRequestHandler(runtimeRequestHandler,
                     runtimeExecutionHandler,
-                    getInstance(requestTypes[0]),
+                    initialContext,
                     genericExecutionType);
+            processSpan(invocationInstance, Stage.REQUEST_HANDLER, requestedAt, null);
             
             // if necessary check the output of RequestHandler before passing to ExecutionHandler
-            Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.REQUEST_HANDLER_TO_EXECUTION_HANDLER_CHECK);
-            if (parsedPair != null) {
+            TypeCheck typeCheck = plan.requiredCheck(Constants.REQUEST_HANDLER_TO_EXECUTION_HANDLER_CHECK);
+            if (typeCheck != null) {
                 try {
-                    TypeUtils.parseClassType(executionContext).compare(parsedPair.right());
+                    typeCheck.verify(executionContext);
                 } catch (TypeMismatchException tme) {
                     throw new ProcessTimeTypeMismatchException("RequestHandler (" 
                             + runtimeRequestHandler.getClass().getCanonicalName() + ") " 
@@ -188,14 +689,14 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
             executionContext = getInstance(genericExecutionType);
         }
         
-        // 5.1 Now that the context has been set the only other handler 
-        //     which will accept it is the ErrorHandler. Lets check, if 
-        //     necessary, that type-consistency is sane.
+        // Now that the context has been set the only other handler 
+        // which will accept it is the ErrorHandler. Lets check, if 
+        // necessary, that type-consistency is sane.
         if(runtimeErrorHandler != null) {
-            Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.EXECUTION_HANDLER_TO_ERROR_HANDLER_CHECK);
-            if (parsedPair != null) {
+            TypeCheck typeCheck = plan.requiredCheck(Constants.EXECUTION_HANDLER_TO_ERROR_HANDLER_CHECK);
+            if (typeCheck != null) {
                 try {
-                    TypeUtils.parseClassType(executionContext).compare(parsedPair.right());
+                    typeCheck.verify(executionContext);
                 } catch (TypeMismatchException tme) {
                     throw new ProcessTimeTypeMismatchException("The 'execution context' " 
                             + "does not match the ErrorHandler (" 
@@ -203,174 +704,345 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
                 }
             }
         }
-            
-        // 6.) Pass InvocationInstance to ExecutionHandler for runtime execution.
-        final AtomicReference<Object> responseReference = new AtomicReference();
-        Throwable invocationException = null;
-        try {
-            invocationInstance.context(executionContext); // set context for execution
-            processExecutionHandler(runtimeExecutionHandler, 
-                    responseReference, 
-                    invocationInstance);
-        } catch (Exception e) {
-            invocationException = e;
-        }
-        
-        // 6.1) Because we are successful only 2 paths exist:
-        //      
-        //          1.) Pass off to ResponseHandler (if applicable)
-        //
-        //          2.) Return from method invocation
-        //
-        //      We need to ensure type-consistency for either of 
-        //      these scenarios is sane.
-        if (invocationException == null) {
-            if (runtimeResponseHandler != null) {
-
-                // if necessary check the output of ExecutionHandler before passing to ResponseHandler
-                Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.EXECUTION_HANDLER_TO_RESPONSE_HANDLER_CHECK);
-                if (parsedPair != null) {
-                    try {
-                        TypeUtils.parseClassType(responseReference.get()).compare(parsedPair.right());
-                    } catch (TypeMismatchException tme) {
-                        throw new ProcessTimeTypeMismatchException("ExecutionHandler (" 
-                                + runtimeExecutionHandler.getClass().getCanonicalName() + ") " 
-                                + "outputs do not match ResponseHandler (" 
-                                + runtimeResponseHandler.getClass().getCanonicalName() + ") inputs.", tme);
-                    }
-                }
-            } else {
-                
-                System.out.println("::::::: NO RESPONSE HANDLER");
-                
-                // if necessary check the output of ExecutionHandler before returning from method invocation
-                Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK);
-                if (parsedPair != null) {
-                    
-                    System.out.println("!!!!!!!! GOT A PAIR");
-                    try {       
-                                            System.out.println("!!!!!!!! GOT A PAIR2");
-
-                        responseReference.get();
-                                
-                                                    System.out.println("!!!!!!!! GOT A PAIR3");
-
-                        TypeUtils.parseClassType(responseReference.get()).compare(parsedPair.right());
-                    } catch (TypeMismatchException tme) {
-                        if (tme.source.equalsIgnoreCase(PrimitiveTypes.NULL.getRawClass().getName())) {
-                            if (isPrimitive) {
-                                throw new NullNotAllowedException("ExecutionHandler returned NULL while return-value (" 
-                                        + invocationInstance.typeToken().getRawType() 
-                                        + ") is a primitive.", tme);
-                            } else {
-                                
-                                // Let execution fall through as the return type 
-                                // is an Object, and not a primitive, and so can 
-                                // accept a null.
-                            }
-                        } else {
-                            throw new ProcessTimeTypeMismatchException("ExecutionHandler (" 
-                                    + runtimeExecutionHandler.getClass().getCanonicalName() + ") "
-                                    + "outputs do not match expected returnType.", tme);
-                        }
-                    }
-                } else {
-                    System.out.println("!!!!!!!! NO PAIR");
-                }
-            }     
-        } 
-        
         
-        // 7.) Optionally, if exception was found during execution then pass to 
-        //     errorHandler for marshalling into some other type of Throwable.
-        if (invocationException != null && runtimeErrorHandler != null) {
-            invocationException = processErrorHandler(runtimeErrorHandler, 
-                    invocationInstance, 
-                    invocationException);
-        }
+        processSpan(invocationInstance, Stage.CONTEXT, startedAt, null);
+        return executionContext;
+    }
+    
+    /**
+     * Because execution was successful only 2 paths exist:
+     *  
+     *      1.) Pass off to ResponseHandler (if applicable)
+     *      
+     *      2.) Return from method invocation
+     *      
+     * We need to ensure type-consistency for either of these scenarios is sane.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param response the output of the ExecutionHandler.
+     * @return the returnValue of the invocation.
+     */
+    private Object processResponse(final InvocationInstance invocationInstance, final Object response) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final AbstractExecutionHandler runtimeExecutionHandler = plan.executionHandler();
+        final AbstractResponseHandler runtimeResponseHandler = plan.responseHandler();
+        final boolean isPrimitive = plan.primitiveReturn();
+        final long startedAt = ticks(invocationInstance, Stage.RESPONSE);
         
-        // 8.) Optionally, if exception was not previously handled (perhaps 
-        //     re-thrown as something else), then pass to fallbackHandler to 
-        //     marshall thrown exception into a valid returnValue.
-        boolean fallbackInvoked = false;
-        if (invocationException != null) {
-            if (runtimeFallbackHandler != null) {
-                Object newFallbackObject = processFallbackHandler(runtimeFallbackHandler, 
-                        invocationInstance, 
-                        invocationException);
-                
-                // if necessary check the output of FallbackHandler output to 
-                // ensure type-consistency with the expected returnValue.
-                Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.FALLBACK_HANDLER_TO_RETURN_VALUE_CHECK);
-                if (parsedPair != null) {
-                    try {
-                        TypeUtils.parseClassType(newFallbackObject).compare(parsedPair.right());
-                    } catch (TypeMismatchException tme) {
-                        if (tme.source.equalsIgnoreCase(PrimitiveTypes.NULL.getRawClass().getName())) {
-                            if (isPrimitive) {
-                                throw new NullNotAllowedException("FallbackHandler returned NULL while return-value (" 
-                                        + invocationInstance.typeToken().getRawType() 
-                                        + ") is a primitive.", tme);
-                            } else {
-                                
-                                // Let execution fall through as the return type 
-                                // is an Object, and not a primitive, and so can 
-                                // accept a null.
-                            }
-                        } else {
-                            throw new ProcessTimeTypeMismatchException("FallbackHandler (" 
-                                    + runtimeFallbackHandler.getClass().getCanonicalName() + ") "
-                                    + "outputs do not match expected returnType.", tme);
-                        }
-                    }
+        if (runtimeResponseHandler != null) {
+
+            // if necessary check the output of ExecutionHandler before passing to ResponseHandler
+            TypeCheck typeCheck = plan.requiredCheck(Constants.EXECUTION_HANDLER_TO_RESPONSE_HANDLER_CHECK);
+            if (typeCheck != null) {
+                try {
+                    typeCheck.verify(response);
+                } catch (TypeMismatchException tme) {
+                    throw new ProcessTimeTypeMismatchException("ExecutionHandler (" 
+                            + runtimeExecutionHandler.getClass().getCanonicalName() + ") " 
+                            + "outputs do not match ResponseHandler (" 
+                            + runtimeResponseHandler.getClass().getCanonicalName() + ") inputs.", tme);
                 }
-                
-                responseReference.set(newFallbackObject);
-                fallbackInvoked = true;
-            } else {
-                throw Throwables.propagate(invocationException);
             }
-        } 
-        
-        // 9.) Optionally, we can marshall the response from the ExecutionHandler 
-        //     into some other valid returnValue.
-        if (!fallbackInvoked && runtimeResponseHandler != null) {
-            Object newResponseObject = processResponseHandler(runtimeResponseHandler, 
-                    responseReference.get(), 
-                    invocationInstance);
+        } else {
             
-            // if necessary check the ResponseHandler output to 
-            // ensure type-consistency with the expected returnValue.
-            Pair<ClassType, ClassType> parsedPair = requiredChecks.get(Constants.RESPONSE_HANDLER_TO_RETURN_VALUE_CHECK);
-            if (parsedPair != null) {
-                try {
-                    TypeUtils.parseClassType(newResponseObject).compare(parsedPair.right());
+            // if necessary check the output of ExecutionHandler before returning from method invocation
+            TypeCheck typeCheck = plan.requiredCheck(Constants.EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK);
+            if (typeCheck != null) {
+                try {       
+                    typeCheck.verify(response);
                 } catch (TypeMismatchException tme) {
                     if (tme.source.equalsIgnoreCase(PrimitiveTypes.NULL.getRawClass().getName())) {
                         if (isPrimitive) {
-                            throw new NullNotAllowedException("ResponseHandler returned NULL while return-value (" 
+                            throw new NullNotAllowedException("ExecutionHandler returned NULL while return-value (" 
                                     + invocationInstance.typeToken().getRawType() 
                                     + ") is a primitive.", tme);
                         } else {
-
+                            
                             // Let execution fall through as the return type 
                             // is an Object, and not a primitive, and so can 
                             // accept a null.
                         }
                     } else {
-                        throw new ProcessTimeTypeMismatchException("ResponseHandler (" 
-                                + runtimeResponseHandler.getClass().getCanonicalName() + ") "
+                        throw new ProcessTimeTypeMismatchException("ExecutionHandler (" 
+                                + runtimeExecutionHandler.getClass().getCanonicalName() + ") "
                                 + "outputs do not match expected returnType.", tme);
                     }
                 }
             }
-                
-            responseReference.set(newResponseObject);
-        } 
+            processSpan(invocationInstance, Stage.RESPONSE, startedAt, null);
+            return response;
+        }
+        
+        // Optionally, we can marshall the response from the ExecutionHandler 
+        // into some other valid returnValue.
+        Object newResponseObject = processResponseHandler(runtimeResponseHandler, 
+                response, 
+                invocationInstance);
+        
+        // if necessary check the ResponseHandler output to 
+        // ensure type-consistency with the expected returnValue.
+        TypeCheck typeCheck = plan.requiredCheck(Constants.RESPONSE_HANDLER_TO_RETURN_VALUE_CHECK);
+        if (typeCheck != null) {
+            try {
+                typeCheck.verify(newResponseObject);
+            } catch (TypeMismatchException tme) {
+                if (tme.source.equalsIgnoreCase(PrimitiveTypes.NULL.getRawClass().getName())) {
+                    if (isPrimitive) {
+                        throw new NullNotAllowedException("ResponseHandler returned NULL while return-value (" 
+                                + invocationInstance.typeToken().getRawType() 
+                                + ") is a primitive.", tme);
+                    } else {
+
+                        // Let execution fall through as the return type 
+                        // is an Object, and not a primitive, and so can 
+                        // accept a null.
+                    }
+                } else {
+                    throw new ProcessTimeTypeMismatchException("ResponseHandler (" 
+                            + runtimeResponseHandler.getClass().getCanonicalName() + ") "
+                            + "outputs do not match expected returnType.", tme);
+                }
+            }
+        }
         
-        return responseReference.get();
+        processSpan(invocationInstance, Stage.RESPONSE, startedAt, null);
+        return newResponseObject;
+    }
+    
+    /**
+     * Optionally, if exception was found during execution then pass to 
+     * errorHandler for marshalling into some other type of Throwable.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param invocationException the exception thrown during execution.
+     * @return the, possibly marshalled, exception.
+     */
+    private Throwable processInvocationException(final InvocationInstance invocationInstance, 
+            final Throwable invocationException) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final AbstractErrorHandler runtimeErrorHandler = plan.errorHandler();
+        if (runtimeErrorHandler == null) {
+            return invocationException;
+        }
+        final long startedAt = ticks(invocationInstance, Stage.ERROR);
+        final Throwable marshalledException = processErrorHandler(runtimeErrorHandler, invocationInstance, invocationException);
+        processSpan(invocationInstance, Stage.ERROR, startedAt, null);
+        return marshalledException;
+    }
+    
+    /**
+     * Pass an exception, not previously handled (perhaps re-thrown as something 
+     * else), to the FallbackHandler to marshall it into a valid returnValue.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param invocationException the exception to marshall.
+     * @return the returnValue of the invocation.
+     */
+    private Object processFallback(final InvocationInstance invocationInstance, 
+            final Throwable invocationException) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final AbstractFallbackHandler runtimeFallbackHandler = plan.fallbackHandler();
+        final long startedAt = ticks(invocationInstance, Stage.FALLBACK);
+        Object newFallbackObject = processFallbackHandler(runtimeFallbackHandler, 
+                invocationInstance, 
+                invocationException);
+        processSpan(invocationInstance, Stage.FALLBACK, startedAt, null);
+        if (plan.metrics() != null) {
+            plan.metrics().increment(Counter.FALLBACKS);
+        }
+
+        // if necessary check the output of FallbackHandler output to 
+        // ensure type-consistency with the expected returnValue.
+        TypeCheck typeCheck = plan.requiredCheck(Constants.FALLBACK_HANDLER_TO_RETURN_VALUE_CHECK);
+        if (typeCheck != null) {
+            try {
+                typeCheck.verify(newFallbackObject);
+            } catch (TypeMismatchException tme) {
+                if (tme.source.equalsIgnoreCase(PrimitiveTypes.NULL.getRawClass().getName())) {
+                    if (plan.primitiveReturn()) {
+                        throw new NullNotAllowedException("FallbackHandler returned NULL while return-value (" 
+                                + invocationInstance.typeToken().getRawType() 
+                                + ") is a primitive.", tme);
+                    } else {
+                        
+                        // Let execution fall through as the return type 
+                        // is an Object, and not a primitive, and so can 
+                        // accept a null.
+                    }
+                } else {
+                    throw new ProcessTimeTypeMismatchException("FallbackHandler (" 
+                            + runtimeFallbackHandler.getClass().getCanonicalName() + ") "
+                            + "outputs do not match expected returnType.", tme);
+                }
+            }
+        }
+        
+        return newFallbackObject;
     }
 
+    /**
+     * Compile the plan of a single method: resolve its handlers, giving precedence 
+     * to those set on the method, then the class, then the global defaults, and 
+     * check that the types passed between them are sane.
+     * 
+     * @param method the method to compile a plan for.
+     * @return newly compiled plan.
+     */
+    private InvocationPlan compilePlan(Method method) {
+        LOGGER.debug(PLAN_COMPILE_MESSAGE, method.toGenericString());
+        
+        final ClassInstance classInstance = processorCache.classInstanceFrom(method);
+        final MethodInstance methodInstance = processorCache.methodInstanceFrom(method);
+        final TypeToken returnTypeToken = methodInstance.typeToken();
+        final Class rawReturnType = returnTypeToken.getRawType();
+        
+        InvocationPlan.Builder builder = InvocationPlan.builder(method)
+                .classInstance(classInstance)
+                .methodInstance(methodInstance);
+        
+        // Delegates return an instance of another Api and so never touch any handlers.
+        if (methodInstance.annotations().get(Delegate.class.getName()) != null) {
+            return builder.returnType(rawReturnType, false).delegateType(rawReturnType).build();
+        }
+        
+        // Asynchronous methods, the attempts of retried, timed or hedged methods, and 
+        // batches run on the executor resolved with method/class/global precedence.
+        final RetryPolicy retryPolicy = retryPolicies.retryPolicyFrom(methodInstance, classInstance);
+        final boolean async = CompletionStage.class.isAssignableFrom(rawReturnType) 
+                && rawReturnType.isAssignableFrom(CompletableFuture.class);
+        final long timeout = timeoutPolicies.timeoutFrom(methodInstance, classInstance);
+        final long attemptTimeout = timeoutPolicies.attemptTimeoutFrom(methodInstance, classInstance);
+        final HedgePolicy hedgePolicy = timeoutPolicies.hedgePolicyFrom(methodInstance, classInstance);
+        final boolean batched = methodInstance.annotations().get(Batch.class.getName()) != null;
+        if (async || retryPolicy != null || timeout > 0 || attemptTimeout > 0 || hedgePolicy != null || batched) {
+            AbstractExecutorProvider executorProvider = executorProviders.executorProviderFrom(methodInstance.executorProvider(), 
+                    classInstance.executorProvider());
+            Executor executor = checkNotNull(executorProvider.get(), EXECUTOR_IS_NULL);
+            builder.executor(executor).microBatcher(microBatchers.microBatcherFrom(methodInstance, executor));
+        }
+        builder.timeout(timeout).attemptTimeout(attemptTimeout).hedgePolicy(hedgePolicy);
+        
+        // Asynchronous methods are checked against the element type of their future.
+        final Class rawResultType;
+        if (async) {
+            TypeToken elementTypeToken = returnTypeToken.resolveType(rawReturnType.getTypeParameters()[0]);
+            rawResultType = elementTypeToken.getRawType();
+            builder.async(elementTypeToken);
+        } else {
+            rawResultType = rawReturnType;
+        }
+        builder.returnType(processorUtils.potentialPrimitiveToClass(rawResultType), rawResultType.isPrimitive());
+        
+        final AbstractRequestHandler runtimeRequestHandler = handlerFrom(methodInstance.requestHandler(), 
+                classInstance.requestHandler(), abstractRequestHandler);
+        final AbstractExecutionHandler runtimeExecutionHandler = handlerFrom(methodInstance.executionHandler(), 
+                classInstance.executionHandler(), abstractExecutionHandler);
+        final AbstractErrorHandler runtimeErrorHandler = handlerFrom(methodInstance.errorHandler(), 
+                classInstance.errorHandler(), abstractErrorHandler);
+        final AbstractFallbackHandler runtimeFallbackHandler = handlerFrom(methodInstance.fallbackHandler(), 
+                classInstance.fallbackHandler(), abstractFallbackHandler);
+        final AbstractResponseHandler runtimeResponseHandler = handlerFrom(methodInstance.responseHandler(), 
+                classInstance.responseHandler(), abstractResponseHandler);
+        
+        final Object [] runtimeHandlers = {runtimeRequestHandler, 
+            runtimeExecutionHandler, 
+            runtimeErrorHandler, 
+            runtimeFallbackHandler, 
+            runtimeResponseHandler};
+        
+        // Reuse what a previous compile of this method, with the same classes and 
+        // bindings, resolved, otherwise resolve and snapshot it.
+        final String fingerprint = planSnapshot.fingerprintOf(method, runtimeHandlers);
+        final PlanSnapshot.Entry snapshot = planSnapshot.get(method, fingerprint);
+        if (snapshot == null || !applySnapshot(builder, snapshot, runtimeHandlers, processorUtils.potentialPrimitiveToClass(rawResultType))) {
+            
+            // Check that Types passed between handlers are sane and not mismatched.
+            // Throws RuntimeException if something does not match correctly.
+            Map<Integer, Pair<ClassType, ClassType>> requiredChecks = checkTypeConsistency(runtimeRequestHandler,
+                    runtimeExecutionHandler,
+                    runtimeErrorHandler,
+                    runtimeFallbackHandler,
+                    runtimeResponseHandler,
+                    processorUtils.potentialPrimitiveToClass(rawResultType),
+                    rawResultType.isPrimitive());
+            Class requestType = (runtimeRequestHandler != null) ? genericTypes(runtimeRequestHandler.getClass())[0] : null;
+            Class executionType = genericTypes(runtimeExecutionHandler.getClass())[0];
+            builder.requestType(requestType).executionType(executionType).requiredChecks(requiredChecks);
+            if (fingerprint != null) {
+                planSnapshot.put(method, new PlanSnapshot.Entry(fingerprint, 
+                        Arrays.stream(runtimeHandlers)
+                                .map(handler -> (handler != null) ? handler.getClass().getName() : null)
+                                .collect(Collectors.toList()), 
+                        requestType, 
+                        executionType, 
+                        requiredChecks.keySet()));
+            }
+        }
+        
+        return builder.requestHandler(runtimeRequestHandler)
+                .executionHandler(runtimeExecutionHandler)
+                .errorHandler(runtimeErrorHandler)
+                .fallbackHandler(runtimeFallbackHandler)
+                .responseHandler(runtimeResponseHandler)
+                .retryPolicy(retryPolicy)
+                .circuitBreaker(circuitBreakers.circuitBreakerFrom(methodInstance, classInstance))
+                .concurrencyLimiter(concurrencyLimiters.concurrencyLimiterFrom(methodInstance, classInstance, runtimeExecutionHandler))
+                .singleFlight(singleFlightFrom(methodInstance))
+                .responseCache(responseCacheFrom(method, methodInstance))
+                .metrics(apiProcessorMetrics.metricsFor(method))
+                .build();
+    }
+    
+    /**
+     * Get the response cache of a @Cached method.
+     * 
+     * @param method the method to get a response cache for.
+     * @param methodInstance the MethodInstance of the method.
+     * @return response cache or null if method is not @Cached.
+     */
+    private ResponseCache responseCacheFrom(Method method, MethodInstance methodInstance) {
+        final Cached cached = (Cached) methodInstance.annotations().get(Cached.class.getName());
+        return (cached != null) ? processorCache.responseCache(method.toGenericString(), cached) : null;
+    }
+    
+    /**
+     * Create the single flight of a @Coalesce'd method.
+     * 
+     * @param methodInstance the method to create a single flight for.
+     * @return newly created single flight or null if method is not @Coalesce'd.
+     */
+    private SingleFlight singleFlightFrom(MethodInstance methodInstance) {
+        final Coalesce coalesce = (Coalesce) methodInstance.annotations().get(Coalesce.class.getName());
+        if (coalesce == null) {
+            return null;
+        }
+        return new SingleFlight(AbstractKeyExtractor.class.equals(coalesce.value()) 
+                ? null 
+                : processorCache.typeFrom(coalesce.value()));
+    }
+    
+    /**
+     * Resolve which handler to use giving precedence to the method, then the class, 
+     * and lastly to the globally registered handler.
+     * 
+     * @param <T> the handler type.
+     * @param methodHandler handler class set on method (possibly null).
+     * @param classHandler handler class set on class (possibly null).
+     * @param globalHandler globally registered handler (possibly null).
+     * @return resolved handler or null if none could be found.
+     */
+    private <T> T handlerFrom(@Nullable Class<? extends T> methodHandler, 
+            @Nullable Class<? extends T> classHandler, 
+            @Nullable T globalHandler) {
+        if (methodHandler != null) {
+            return processorCache.typeFrom(methodHandler);
+        } else if (classHandler != null) {
+            return processorCache.typeFrom(classHandler);
+        } else {
+            return globalHandler;
+        }
+    }
+    
     private Object processRequestHandler(final AbstractRequestHandler requestHandler, 
             final AbstractExecutionHandler executionHandler,
             Object executionContext,
@@ -403,25 +1075,277 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
         return possibleyNewObject;
     }
     
-    private void processExecutionHandler(final AbstractExecutionHandler executionHandler,
-            final AtomicReference<Object> responseReference,
-            final InvocationInstance invocationInstance) {
-        String retryCount = properties.get(ApiProcessorConstants.RETRY_COUNT, ApiProcessorConstants.RETRY_COUNT_DEFAULT);
-        String retryDelayStart = properties.get(ApiProcessorConstants.RETRY_DELAY_START, ApiProcessorConstants.RETRY_DELAY_START_DEFAULT);
-
-        RetryPolicy retryPolicy = new RetryPolicy()
-                .withDelay(Long.valueOf(retryDelayStart), TimeUnit.MILLISECONDS)
-                .withMaxRetries(Integer.valueOf(retryCount));
-
-        Failsafe.with(retryPolicy)
-                .onFailedAttempt(attempt -> LOGGER.log(Level.WARNING, RETRY_ATTEMPT_MESSAGE, attempt.getMessage()))
-                .onFailure(failure -> LOGGER.log(Level.SEVERE, RETRY_FAILED_MESSAGE, failure.getMessage()))
-                .run((ctx) -> { 
-                    Object [] loggerParams = {ctx.getExecutions() + 1, invocationInstance.toString()};
-                    LOGGER.log(Level.FINE, RETRY_RUN_MESSAGE, loggerParams);
-                    Object responseObject = executionHandler.apply(invocationInstance);
-                    responseReference.set(responseObject); 
+    private Object processExecutionHandler(final InvocationInstance invocationInstance) {
+        
+        // Delays between retries are timed on the retry scheduler, and every attempt 
+        // is run on the plan's executor, while the current thread waits rather than 
+        // sleeping between attempts.
+        if (invocationInstance.plan().retryPolicy() != null) {
+            return processAwait(processExecutionHandlerAsync(invocationInstance));
+        }
+        
+        processDeadline(invocationInstance);
+        return processAttempt(invocationInstance);
+    }
+    
+    private void processRetry(final InvocationInstance invocationInstance, 
+            final ExecutionContext ctx, 
+            final Throwable failure) {
+        final MethodMetrics metrics = invocationInstance.plan().metrics();
+        if (metrics != null) {
+            metrics.increment(Counter.RETRIES);
+        }
+        tracer.onRetry(invocationInstance, ctx.getExecutions(), failure);
+    }
+    
+    /**
+     * Run a single attempt of the ExecutionHandler. Attempts which are neither timed, 
+     * hedged nor batched run directly on the current thread, otherwise the current 
+     * thread waits on {@link #processAttemptAsync(InvocationInstance)}.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @return the output of the ExecutionHandler.
+     */
+    private Object processAttempt(final InvocationInstance invocationInstance) {
+        if (!invocationInstance.plan().offloaded()) {
+            return invocationInstance.plan().executionHandler().apply(invocationInstance);
+        }
+        
+        return processAwait(processAttemptAsync(invocationInstance));
+    }
+    
+    private Object processAwait(final CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(unwrap(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+    }
+    
+    /**
+     * Start the deadline of an invocation, if its method has a timeout, by which the 
+     * ExecutionHandler, including every retry, must complete.
+     * 
+     * @param invocationInstance the invocation being processed.
+     */
+    private void processDeadline(final InvocationInstance invocationInstance) {
+        final long timeout = invocationInstance.plan().timeout();
+        if (timeout > 0) {
+            invocationInstance.deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+        }
+    }
+    
+    /**
+     * Run a single attempt of the ExecutionHandler on the plan's executor, or as part of 
+     * a batch if the method is @Batch'ed, in which case the AbstractBatchExecutionHandler 
+     * is run in place of the ExecutionHandler. The attempt fails with an 
+     * InvocationTimeoutException if not completed within the plan's attempt timeout, or 
+     * by the invocation's deadline, and, if still running after the hedge delay, is raced 
+     * against a second, speculative, attempt. The first attempt to succeed wins, and the 
+     * attempt only fails if every one does. Attempts which lose the race, or time out, are 
+     * cancelled and their threads interrupted.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @return future completed with the output of the ExecutionHandler.
+     */
+    private CompletableFuture<Object> processAttemptAsync(final InvocationInstance invocationInstance) {
+        final InvocationPlan plan = invocationInstance.plan();
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+        long timeoutNanos = (plan.attemptTimeout() > 0) ? TimeUnit.MILLISECONDS.toNanos(plan.attemptTimeout()) : Long.MAX_VALUE;
+        if (invocationInstance.deadline() != 0) {
+            timeoutNanos = Math.min(timeoutNanos, invocationInstance.deadline() - System.nanoTime());
+            if (timeoutNanos <= 0) {
+                response.completeExceptionally(new InvocationTimeoutException(TIMEOUT_MESSAGE + plan));
+                return response;
+            }
+        }
+        
+        final AtomicInteger pending = new AtomicInteger(1);
+        submitAttempt(invocationInstance, response, pending);
+        
+        final HedgePolicy hedgePolicy = plan.hedgePolicy();
+        final long hedgeDelay = (hedgePolicy != null) ? hedgePolicy.delay() : -1;
+        if (hedgeDelay >= 0 && hedgeDelay < timeoutNanos) {
+            final ScheduledFuture<?> hedge = retryScheduler.schedule(() -> {
+                if (!response.isDone()) {
+                    tracer.onHedge(invocationInstance);
+                    pending.incrementAndGet();
+                    submitAttempt(invocationInstance, response, pending);
+                }
+            }, hedgeDelay, TimeUnit.NANOSECONDS);
+            response.whenComplete((ignore, exception) -> hedge.cancel(false));
+        }
+        
+        if (timeoutNanos != Long.MAX_VALUE) {
+            final ScheduledFuture<?> timeout = retryScheduler.schedule(() -> {
+                response.completeExceptionally(new InvocationTimeoutException(TIMEOUT_MESSAGE + plan));
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+            response.whenComplete((ignore, exception) -> timeout.cancel(false));
+        }
+        return response;
+    }
+    
+    private void submitAttempt(final InvocationInstance invocationInstance, 
+            final CompletableFuture<Object> response, 
+            final AtomicInteger pending) {
+        final InvocationPlan plan = invocationInstance.plan();
+        if (plan.microBatcher() != null) {
+            plan.microBatcher().submit(invocationInstance).whenComplete((output, exception) -> {
+                if (exception == null) {
+                    response.complete(output);
+                } else if (pending.decrementAndGet() == 0) {
+                    response.completeExceptionally(exception);
+                }
+            });
+            return;
+        }
+        
+        // the response is only completed once the attempt is done, such that 
+        // cancelling the attempt when the response completes never interrupts 
+        // the thread completing it.
+        final long submittedAt = System.nanoTime();
+        final FutureTask<Object> attempt = new FutureTask<Object>(() -> plan.executionHandler().apply(invocationInstance)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    final Object output = get();
+                    if (plan.hedgePolicy() != null) {
+                        plan.hedgePolicy().record(System.nanoTime() - submittedAt);
+                    }
+                    response.complete(output);
+                } catch (ExecutionException e) {
+                    if (pending.decrementAndGet() == 0) {
+                        response.completeExceptionally(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try {
+            plan.executor().execute(attempt);
+        } catch (RejectedExecutionException e) {
+            if (pending.decrementAndGet() == 0) {
+                response.completeExceptionally(e);
+            }
+            return;
+        }
+        response.whenComplete((ignore, exception) -> attempt.cancel(true));
+    }
+    
+    /**
+     * Asynchronous counterpart of {@link #processExecutionHandler(InvocationInstance)}. Must be 
+     * called from the plan's executor unless the method is retried or offloaded. Delays between retries 
+     * are timed on the retry scheduler and each retry is handed back to the plan's executor. 
+     * Once the invocation's deadline passes the future fails and pending retries are cancelled.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @return future completed with the output of the ExecutionHandler.
+     */
+    private CompletableFuture<Object> processExecutionHandlerAsync(final InvocationInstance invocationInstance) {
+        final AbstractExecutionHandler executionHandler = invocationInstance.plan().executionHandler();
+        final RetryPolicy retryPolicy = invocationInstance.plan().retryPolicy();
+        processDeadline(invocationInstance);
+        if (retryPolicy == null && invocationInstance.plan().offloaded()) {
+            return processAttemptAsync(invocationInstance);
+        } else if (retryPolicy == null) {
+            final CompletableFuture<Object> response = new CompletableFuture<>();
+            try {
+                response.complete(executionHandler.apply(invocationInstance));
+            } catch (Exception e) {
+                response.completeExceptionally(e);
+            }
+            return response;
+        }
+        
+        final Executor executor = invocationInstance.plan().executor();
+        final CompletableFuture<Object> execution = Failsafe.with(retryPolicy)
+                .with(retryScheduler)
+                .onFailedAttempt(attempt -> LOGGER.warn(RETRY_ATTEMPT_MESSAGE, unwrap(attempt).getMessage()))
+                .onRetry((Object ignore, Throwable failure, ExecutionContext ctx) -> processRetry(invocationInstance, ctx, failure))
+                .onFailure(failure -> LOGGER.error(RETRY_FAILED_MESSAGE, unwrap(failure).getMessage()))
+                .future((ExecutionContext ctx) -> {
+                    final CompletableFuture<Object> attempt;
+                    if (invocationInstance.plan().offloaded()) {
+                        attempt = processAttemptAsync(invocationInstance);
+                    } else {
+                        attempt = new CompletableFuture<>();
+                        executor.execute(() -> {
+                            try {
+                                attempt.complete(executionHandler.apply(invocationInstance));
+                            } catch (Exception e) {
+                                attempt.completeExceptionally(e);
+                            }
+                        });
+                    }
+                    return (retryPolicy instanceof BudgetedRetryPolicy) 
+                            ? processRetryBudget(invocationInstance, ctx, attempt) 
+                            : attempt;
                 });
+        return (invocationInstance.deadline() != 0) ? processDeadline(invocationInstance, execution) : execution;
+    }
+    
+    /**
+     * Fail the passed execution with an InvocationTimeoutException, cancelling any 
+     * pending retry, if not completed by the invocation's deadline.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param execution the execution, including retries, of the ExecutionHandler.
+     * @return future completed as the execution, or failed at the deadline.
+     */
+    private CompletableFuture<Object> processDeadline(final InvocationInstance invocationInstance, 
+            final CompletableFuture<Object> execution) {
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+        final ScheduledFuture<?> timeout = retryScheduler.schedule(() -> {
+            if (response.completeExceptionally(new InvocationTimeoutException(TIMEOUT_MESSAGE + invocationInstance.plan()))) {
+                execution.cancel(true);
+            }
+        }, invocationInstance.deadline() - System.nanoTime(), TimeUnit.NANOSECONDS);
+        execution.whenComplete((output, exception) -> {
+            timeout.cancel(false);
+            if (exception == null) {
+                response.complete(output);
+            } else {
+                response.completeExceptionally(exception);
+            }
+        });
+        return response;
+    }
+    
+    /**
+     * Fail the passed attempt with a RetryBudgetExhaustedException, aborting any 
+     * further retries, if it would be retried but its retry budget denies it. No 
+     * token is taken once the invocation's deadline has passed, as no retry is made.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param ctx the context of the execution the attempt is part of.
+     * @param attempt the attempt of the ExecutionHandler.
+     * @return future completed as the attempt, bar a denied retry.
+     */
+    private CompletableFuture<Object> processRetryBudget(final InvocationInstance invocationInstance, 
+            final ExecutionContext ctx, 
+            final CompletableFuture<Object> attempt) {
+        final BudgetedRetryPolicy retryPolicy = (BudgetedRetryPolicy) invocationInstance.plan().retryPolicy();
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+        attempt.whenComplete((output, exception) -> {
+            if (exception == null) {
+                response.complete(output);
+            } else {
+                final Throwable failure = unwrap(exception);
+                final long deadline = invocationInstance.deadline();
+                response.completeExceptionally((deadline != 0 && deadline - System.nanoTime() <= 0) 
+                        || retryPolicy.tryAcquire(ctx, failure) 
+                        ? failure 
+                        : new RetryBudgetExhaustedException(failure));
+            }
+        });
+        return response;
     }
     
     private Throwable processErrorHandler(final AbstractErrorHandler errorHandler,
@@ -440,7 +1364,7 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
             final InvocationInstance invocationInstance,
             Throwable invocationException) {
         try {
-            FallbackWrapper fallbackWrapper = FallbackWrapper.newInstance(invocationInstance.typeToken(), invocationException);
+            FallbackWrapper fallbackWrapper = FallbackWrapper.newInstance(invocationInstance.plan().resultTypeToken(), invocationException);
             return fallbackHandler.apply(fallbackWrapper);
         } catch (Exception e) {
             throw Throwables.propagate(e);
@@ -450,7 +1374,7 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
     private Object processResponseHandler(final AbstractResponseHandler responseHandler, 
             final Object responseReference,
             final InvocationInstance invocationInstance) {
-        ResponseWrapper<?, ?> responseWrapper = ResponseWrapper.newInstance(responseReference, invocationInstance.context(), invocationInstance.typeToken());
+        ResponseWrapper<?, ?> responseWrapper = ResponseWrapper.newInstance(responseReference, invocationInstance.context(), invocationInstance.plan().resultTypeToken());
         return responseHandler.apply(responseWrapper);
     }
     
@@ -564,7 +1488,6 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
             try {
                 int index = executionTypes.subTypeAtIndex(1).compare(returnType);
                 if(index > 0 || isReturnTypePrimitive) {
-                    System.out.println("!!!!!!!! DEFINITELY ADDING: index=" + index);
                     Pair pair = pairFromParsedTypes(index, executionTypes.subTypeAtIndex(1), returnType);
                     requiredChecks.put(Constants.EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK, pair);   
                 }
@@ -578,6 +1501,67 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
         return requiredChecks;
     }
     
+    /**
+     * Set the generic types, and required type-checks, of a plan from its snapshot. As 
+     * the snapshot was taken of identical classes and bindings the types passed between 
+     * handlers are known to be consistent, and so only the required checks are parsed.
+     * 
+     * @param builder the builder of the plan being compiled.
+     * @param snapshot the valid snapshot of the plan.
+     * @param runtimeHandlers the handler bound to each stage, or null where none is bound.
+     * @param comparisonSafeReturnType the non-primitive return type of the method.
+     * @return true if applied or false if the snapshot could not be used.
+     */
+    private boolean applySnapshot(InvocationPlan.Builder builder, 
+            PlanSnapshot.Entry snapshot, 
+            Object [] runtimeHandlers, 
+            Class comparisonSafeReturnType) {
+        if (!snapshot.boundTo(runtimeHandlers)) {
+            return false;
+        }
+        
+        final Map<Integer, Pair<ClassType, ClassType>> requiredChecks = Maps.newHashMap();
+        final ClassType returnType = TypeUtils.parseClassType(comparisonSafeReturnType);
+        final ClassType requestTypes = TypeUtils.parseClassType(runtimeHandlers[0]);
+        final ClassType executionTypes = TypeUtils.parseClassType(runtimeHandlers[1]);
+        for (int slot : snapshot.requiredChecks()) {
+            switch (slot) {
+                case Constants.REQUEST_HANDLER_TO_EXECUTION_HANDLER_CHECK:
+                    requiredChecks.put(slot, Pair.of(requestTypes.subTypeAtIndex(1), executionTypes.subTypeAtIndex(0)));
+                    break;
+                case Constants.EXECUTION_HANDLER_TO_ERROR_HANDLER_CHECK:
+                    requiredChecks.put(slot, Pair.of(executionTypes.subTypeAtIndex(0), 
+                            TypeUtils.parseClassType(runtimeHandlers[2]).subTypeAtIndex(0)));
+                    break;
+                case Constants.FALLBACK_HANDLER_TO_RETURN_VALUE_CHECK:
+                    requiredChecks.put(slot, Pair.of(TypeUtils.parseClassType(runtimeHandlers[3]).subTypeAtIndex(0), returnType));
+                    break;
+                case Constants.EXECUTION_HANDLER_TO_RESPONSE_HANDLER_CHECK:
+                    requiredChecks.put(slot, Pair.of(executionTypes.subTypeAtIndex(1), 
+                            TypeUtils.parseClassType(runtimeHandlers[4]).subTypeAtIndex(0)));
+                    break;
+                case Constants.RESPONSE_HANDLER_TO_RETURN_VALUE_CHECK:
+                    requiredChecks.put(slot, Pair.of(TypeUtils.parseClassType(runtimeHandlers[4]).subTypeAtIndex(1), returnType));
+                    break;
+                case Constants.EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK:
+                    requiredChecks.put(slot, Pair.of(executionTypes.subTypeAtIndex(1), returnType));
+                    break;
+                default:
+                    return false;
+            }
+        }
+        
+        try {
+            final ClassLoader loader = runtimeHandlers[1].getClass().getClassLoader();
+            builder.requestType(snapshot.requestType(loader))
+                    .executionType(snapshot.executionType(loader))
+                    .requiredChecks(requiredChecks);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+    
     private Pair<ClassType, ClassType> pairFromParsedTypes(int comparisonValue, ClassType source, ClassType target) {
         switch(comparisonValue) {
             case 0:
@@ -599,14 +1583,14 @@ public class RuntimeInvocationHandler extends AbstractRuntimeInvocationHandler {
      * @return array listing generic types in order.
      */
     private Class[] genericTypes(Class genericTypeClass) {        
-        try {
-            return (Class[]) RUNTIME_METADATA.get(genericTypeClass.getName(), () -> {
-                LOGGER.log(Level.CONFIG, GENERIC_TYPE_CACHE_MESSAGE, genericTypeClass.getName());
-                return processorUtils.getGenericTypesAsClasses(genericTypeClass);
-            });
-        } catch (ExecutionException ex) {
-            throw Throwables.propagate(ex);
-        } 
+        return genericTypes.get(genericTypeClass);
+    }
+    
+    private Throwable unwrap(Throwable throwable) {
+        final Throwable unwrapped = (throwable instanceof CompletionException && throwable.getCause() != null) 
+                ? throwable.getCause() 
+                : throwable;
+        return (unwrapped instanceof RetryBudgetExhaustedException) ? unwrapped.getCause() : unwrapped;
     }
     
     private Object getInstance(Class clazz) {
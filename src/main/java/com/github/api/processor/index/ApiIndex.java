@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.index;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the @Api interfaces, and the handlers annotated on each, written at 
+ * build-time by {@link ApiIndexProcessor} to {@link #LOCATION}. Each line of the 
+ * index names a single @Api by its binary name followed, optionally, by any 
+ * handlers annotated on it:
+ * 
+ *     com.example.MyApi ExecutionHandler=com.example.MyExecutionHandler
+ * 
+ * Every index found on the classpath (i.e. one per jar) is merged when loaded, 
+ * remembering the classpath element each was found in such that scanning can skip 
+ * just those elements.
+ * 
+ * @author github.
+ */
+public final class ApiIndex {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiIndex.class);
+    
+    public static final String LOCATION = "META-INF/api-processor/apis.index";
+    
+    private static final String COMMENT = "#";
+    private static final String HEADER = COMMENT + " Generated by com.github.api.processor.index.ApiIndexProcessor";
+    private static final String HANDLER_SEPARATOR = "=";
+    private static final String JAR_SPEC_PREFIX = "jar:";
+    private static final String JAR_SEPARATOR = "!/";
+    
+    private static final String INDEX_FOUND_MESSAGE = "Loading Api index at: {}";
+    private static final String INDEX_READ_MESSAGE = "Failed reading Api index at: {}";
+    private static final String INDEX_LOCATION_MESSAGE = "Could not determine classpath element of Api index at: {}";
+    private static final String API_MISSING_MESSAGE = "Skipping indexed Api not found on classpath: {}";
+    
+    // keyed by binary name of Api and then by simple name of handler annotation.
+    private final Map<String, Map<String, String>> entries = new TreeMap<>();
+    
+    // keyed by binary name of Api, absent for Apis not read from a known classpath element.
+    private final Map<String, File> locations = new HashMap<>();
+    
+    public ApiIndex() {
+    }
+    
+    /**
+     * Load and merge every index found on the passed loader.
+     * 
+     * @param loader the loader to find indexes with.
+     * @return merged index which is empty if none could be found.
+     */
+    public static ApiIndex load(ClassLoader loader) {
+        checkNotNull(loader, "loader cannot be null");
+        final ApiIndex index = new ApiIndex();
+        try {
+            final Enumeration<URL> resources = loader.getResources(LOCATION);
+            while (resources.hasMoreElements()) {
+                final URL resource = resources.nextElement();
+                LOGGER.debug(INDEX_FOUND_MESSAGE, resource);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                    index.read(reader, classpathElementOf(resource));
+                } catch (IOException e) {
+                    LOGGER.warn(INDEX_READ_MESSAGE, resource, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn(INDEX_READ_MESSAGE, LOCATION, e);
+        }
+        return index;
+    }
+    
+    /**
+     * Read, and merge into this index, the lines of a single index.
+     * 
+     * @param reader reader of a single index.
+     * @throws IOException if index could not be read.
+     */
+    public void read(BufferedReader reader) throws IOException {
+        read(reader, null);
+    }
+    
+    /**
+     * Read, and merge into this index, the lines of a single index found in the 
+     * passed classpath element.
+     * 
+     * @param reader reader of a single index.
+     * @param location the jar or directory the index was found in, or null if not known.
+     * @throws IOException if index could not be read.
+     */
+    public void read(BufferedReader reader, @Nullable File location) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+            final String [] tokens = line.split("\\s+");
+            final Map<String, String> handlers = new TreeMap<>();
+            for (int i = 1; i < tokens.length; i++) {
+                final int separator = tokens[i].indexOf(HANDLER_SEPARATOR);
+                if (separator > 0) {
+                    handlers.put(tokens[i].substring(0, separator), tokens[i].substring(separator + 1));
+                }
+            }
+            entries.put(tokens[0], handlers);
+            if (location != null) {
+                locations.put(tokens[0], location);
+            } else {
+                locations.remove(tokens[0]);
+            }
+        }
+    }
+    
+    /**
+     * Write this index, one @Api per line.
+     * 
+     * @param writer the writer to write index to.
+     * @throws IOException if index could not be written.
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Map.Entry<String, Map<String, String>> entry : entries.entrySet()) {
+            writer.write(entry.getKey());
+            for (Map.Entry<String, String> handler : entry.getValue().entrySet()) {
+                writer.write(' ');
+                writer.write(handler.getKey());
+                writer.write(HANDLER_SEPARATOR);
+                writer.write(handler.getValue());
+            }
+            writer.write('\n');
+        }
+    }
+    
+    /**
+     * Add, or replace, a single @Api.
+     * 
+     * @param api binary name of the @Api.
+     * @param handlers binary names of handlers keyed by simple name of their annotation.
+     */
+    public void put(String api, Map<String, String> handlers) {
+        entries.put(checkNotNull(api, "api cannot be null"), new TreeMap<>(handlers));
+        locations.remove(api);
+    }
+    
+    public void remove(String api) {
+        entries.remove(api);
+        locations.remove(api);
+    }
+    
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+    
+    /**
+     * Get the binary names of every indexed @Api.
+     * 
+     * @return binary names of indexed Apis.
+     */
+    public Set<String> apiNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+    
+    /**
+     * Get the classpath elements, i.e. the jars and directories, an index was loaded from.
+     * 
+     * @return canonical files of indexed classpath elements.
+     */
+    public Set<File> locations() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(locations.values()));
+    }
+    
+    /**
+     * Get the handlers annotated on a single @Api.
+     * 
+     * @param api binary name of the @Api.
+     * @return binary names of handlers keyed by simple name of their annotation.
+     */
+    public Map<String, String> handlers(String api) {
+        final Map<String, String> handlers = entries.get(api);
+        return (handlers != null) ? Collections.unmodifiableMap(handlers) : Collections.emptyMap();
+    }
+    
+    /**
+     * Load every indexed @Api. Apis which can no longer be found are skipped.
+     * 
+     * @param loader the loader to load Apis with.
+     * @return loaded Apis.
+     */
+    public Set<Class> apis(ClassLoader loader) {
+        return apis(loader, Collections.emptySet());
+    }
+    
+    /**
+     * Load every indexed @Api within the passed whitelists, as understood by classpath 
+     * scanning: an Api must be within one of the whitelisted packages, if any, and, if 
+     * any jars are whitelisted, must not have been indexed in a jar other than those. 
+     * Apis which can no longer be found are skipped.
+     * 
+     * @param loader the loader to load Apis with.
+     * @param scanSpec package prefixes and "jar:" prefixed jar names to whitelist, 
+     *        where an empty spec loads every indexed Api.
+     * @return loaded Apis.
+     */
+    public Set<Class> apis(ClassLoader loader, Collection<String> scanSpec) {
+        checkNotNull(scanSpec, "scanSpec cannot be null");
+        final Set<String> packages = new LinkedHashSet<>();
+        final Set<String> jars = new LinkedHashSet<>();
+        for (String spec : scanSpec) {
+            if (spec.startsWith(JAR_SPEC_PREFIX)) {
+                jars.add(spec.substring(JAR_SPEC_PREFIX.length()));
+            } else {
+                packages.add(spec);
+            }
+        }
+        
+        final Set<Class> apis = new LinkedHashSet<>();
+        for (String api : entries.keySet()) {
+            if (!inPackages(api, packages) || !inJars(locations.get(api), jars)) {
+                continue;
+            }
+            try {
+                apis.add(Class.forName(api, false, loader));
+            } catch (ClassNotFoundException e) {
+                LOGGER.warn(API_MISSING_MESSAGE, api);
+            }
+        }
+        return apis;
+    }
+    
+    private static boolean inPackages(String api, Set<String> packages) {
+        if (packages.isEmpty()) {
+            return true;
+        }
+        for (String pkg : packages) {
+            if (api.startsWith(pkg + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // directories, like the classpath scanner, are never excluded by a jar whitelist.
+    private static boolean inJars(@Nullable File location, Set<String> jars) {
+        return jars.isEmpty() || location == null || location.isDirectory() || jars.contains(location.getName());
+    }
+    
+    // null if the jar or directory the index was found in could not be determined.
+    @Nullable
+    private static File classpathElementOf(URL resource) {
+        try {
+            final File element;
+            if ("jar".equals(resource.getProtocol())) {
+                final String path = resource.getPath();
+                final int separator = path.indexOf(JAR_SEPARATOR);
+                if (separator < 0) {
+                    return null;
+                }
+                final URL jar = new URL(path.substring(0, separator));
+                if (!"file".equals(jar.getProtocol())) {
+                    return null;
+                }
+                element = new File(jar.toURI());
+            } else if ("file".equals(resource.getProtocol())) {
+                File parent = new File(resource.toURI());
+                for (int i = 0; i < LOCATION.split("/").length && parent != null; i++) {
+                    parent = parent.getParentFile();
+                }
+                element = parent;
+            } else {
+                return null;
+            }
+            return (element != null) ? element.getCanonicalFile() : null;
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            LOGGER.debug(INDEX_LOCATION_MESSAGE, resource, e);
+            return null;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return new LinkedHashMap<>(entries).toString();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.index;
+
+import com.github.api.processor.annotations.Api;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor which writes the {@link ApiIndex} of every @Api interface 
+ * compiled alongside it, so that ApiProcessor.Builder#scanClasspath need not scan 
+ * the classpath at startup. Entries of a previous build, whose @Api still exists, 
+ * are kept so that incremental builds (which only see changed sources) write a 
+ * complete index.
+ * 
+ * @author github.
+ */
+@SupportedAnnotationTypes("com.github.api.processor.annotations.Api")
+public class ApiIndexProcessor extends AbstractProcessor {
+    
+    private static final String ANNOTATIONS_PACKAGE = Api.class.getPackage().getName();
+    private static final String HANDLER_SUFFIX = "Handler";
+    private static final String EXECUTOR_PROVIDER = "ExecutorProvider";
+    private static final String VALUE = "value";
+    
+    private final ApiIndex index = new ApiIndex();
+    private boolean loaded = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!loaded) {
+            loadPrevious();
+            loaded = true;
+        }
+        
+        for (Element element : roundEnv.getElementsAnnotatedWith(Api.class)) {
+            if (element.getKind() == ElementKind.INTERFACE) {
+                final TypeElement api = (TypeElement) element;
+                index.put(binaryName(api), handlersOf(api));
+            } else {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, 
+                        "@Api is only applicable to interfaces", element);
+            }
+        }
+        
+        if (roundEnv.processingOver()) {
+            write();
+        }
+        return false;
+    }
+    
+    private Map<String, String> handlersOf(TypeElement api) {
+        final Map<String, String> handlers = new TreeMap<>();
+        for (AnnotationMirror mirror : api.getAnnotationMirrors()) {
+            final TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            final String name = annotation.getSimpleName().toString();
+            final boolean handler = name.endsWith(HANDLER_SUFFIX) || name.equals(EXECUTOR_PROVIDER);
+            if (!handler || !processingEnv.getElementUtils().getPackageOf(annotation).getQualifiedName().contentEquals(ANNOTATIONS_PACKAGE)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(VALUE) 
+                        && value.getValue().getValue() instanceof DeclaredType) {
+                    TypeMirror type = (TypeMirror) value.getValue().getValue();
+                    handlers.put(name, binaryName((TypeElement) processingEnv.getTypeUtils().asElement(type)));
+                }
+            }
+        }
+        return handlers;
+    }
+    
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+    
+    private void loadPrevious() {
+        try {
+            final FileObject previous = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ApiIndex.LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(previous.openInputStream(), StandardCharsets.UTF_8))) {
+                index.read(reader);
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Not merging previous Api index: " + e);
+            return;
+        }
+        
+        // drop Apis which were since deleted, or are no longer annotated.
+        for (String api : index.apiNames().toArray(new String[0])) {
+            final TypeElement type = processingEnv.getElementUtils().getTypeElement(api.replace('$', '.'));
+            if (type == null || type.getAnnotation(Api.class) == null) {
+                index.remove(api);
+            }
+        }
+    }
+    
+    private void write() {
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            final FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ApiIndex.LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                index.write(writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed writing Api index: " + e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.instance;
+
+import javax.annotation.Nullable;
+
+/**
+ * Per-invocation view of a single parameter: its shared, immutable, ParameterInstance 
+ * paired with the argument passed for this invocation. Views are never shared between 
+ * invocations which makes them safe to use concurrently without any locking.
+ *
+ * @author github.
+ * @param <T>
+ */
+public final class ArgumentInstance<T> extends ParameterInstance<T> {
+    
+    private final ParameterInstance<T> parameterInstance;
+    private final T value;
+    
+    private ArgumentInstance(ParameterInstance<T> parameterInstance, @Nullable T value) {
+        super(parameterInstance);
+        this.parameterInstance = parameterInstance;
+        this.value = value;
+    }
+    
+    public ParameterInstance<T> parameterInstance() {
+        return parameterInstance;
+    }
+    
+    @Override
+    public T getValue() {
+        return value;
+    }
+    
+    public static <T> ArgumentInstance<T> newInstance(ParameterInstance<T> parameterInstance, @Nullable T value) {
+        return new ArgumentInstance(parameterInstance, value);
+    }
+}
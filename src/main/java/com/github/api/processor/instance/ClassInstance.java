@@ -19,9 +19,11 @@ package com.github.api.processor.instance;
 
 import com.github.api.processor.annotations.ErrorHandler;
 import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.ExecutorProvider;
 import com.github.api.processor.annotations.FallbackHandler;
 import com.github.api.processor.annotations.RequestHandler;
 import com.github.api.processor.annotations.ResponseHandler;
+import com.github.api.processor.executors.AbstractExecutorProvider;
 import com.github.api.processor.handlers.AbstractErrorHandler;
 import com.github.api.processor.handlers.AbstractExecutionHandler;
 import com.github.api.processor.handlers.AbstractFallbackHandler;
@@ -49,6 +51,7 @@ public class ClassInstance<T> implements ProcessorHandles {
     private final Class<? extends AbstractFallbackHandler> fallbackHandler;
     private final Class<? extends AbstractRequestHandler> requestHandler;
     private final Class<? extends AbstractResponseHandler> responseHandler;
+    private final Class<? extends AbstractExecutorProvider> executorProvider;
 
     /**
      * Create ClassInstance from passed class.
@@ -63,6 +66,7 @@ public class ClassInstance<T> implements ProcessorHandles {
         Class localFallbackHandler = null;
         Class localRequestHandler = null;
         Class localResponseHandler = null;
+        Class localExecutorProvider = null;
         
         this.annotations = buildClassAnnotationMap(clazz);
         
@@ -105,11 +109,19 @@ public class ClassInstance<T> implements ProcessorHandles {
             localResponseHandler = anno.value();
         }
         
+        possibleAnnotationList = this.annotations.get(ExecutorProvider.class.getName());
+        possibleAnnotation = (possibleAnnotationList != null) ? possibleAnnotationList.get(0) : null;
+        if (possibleAnnotation != null) {
+            ExecutorProvider anno = (ExecutorProvider)possibleAnnotation;
+            localExecutorProvider = anno.value();
+        }
+        
         this.executionHandler = localExecutionHandler;
         this.errorHandler = localErrorHandler;
         this.fallbackHandler = localFallbackHandler;
         this.requestHandler = localRequestHandler;
         this.responseHandler = localResponseHandler;
+        this.executorProvider = localExecutorProvider;
     }
     
     private ImmutableMap<String, ImmutableList<Annotation>> buildClassAnnotationMap(Class clazz) {
@@ -118,7 +130,7 @@ public class ClassInstance<T> implements ProcessorHandles {
         Class currentClass = clazz;
         while (currentClass != null) {
             for (Annotation clazzAnnotation : currentClass.getAnnotations()) {
-                String annoName = (clazzAnnotation.annotationType().getName()).intern();
+                String annoName = clazzAnnotation.annotationType().getName();
                 ImmutableList.Builder<Annotation> possibleList = clazzAnnotationMap.get(annoName);
                 if (possibleList == null) {
                     possibleList = ImmutableList.builder();
@@ -172,4 +184,9 @@ public class ClassInstance<T> implements ProcessorHandles {
     public Class<? extends AbstractResponseHandler> responseHandler() {
         return this.responseHandler;
     }
+    
+    @Override
+    public Class<? extends AbstractExecutorProvider> executorProvider() {
+        return this.executorProvider;
+    }
 }
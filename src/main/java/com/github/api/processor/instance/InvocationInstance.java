@@ -22,12 +22,11 @@ import com.github.api.processor.handlers.AbstractExecutionHandler;
 import com.github.api.processor.handlers.AbstractFallbackHandler;
 import com.github.api.processor.handlers.AbstractRequestHandler;
 import com.github.api.processor.handlers.AbstractResponseHandler;
+import com.github.api.processor.policies.MethodCircuitBreaker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
 import java.lang.annotation.Annotation;
-import java.util.concurrent.atomic.AtomicReference;
-import javax.annotation.Nullable;
 
 /**
  *
@@ -36,73 +35,76 @@ import javax.annotation.Nullable;
  */
 public class InvocationInstance<V> {
     
-    private final AtomicReference<V> context = new AtomicReference<>(null);
-    private final Class clazz;
-    private final ImmutableMap<String, ImmutableList<Annotation>> classAnnotations;
-    private final String method;
-    private final ImmutableMap<String, Annotation> methodAnnotations;
-    private final ImmutableList<ParameterInstance<?>> parameterInstanceCache;
+    private final InvocationPlan plan;
     private final Object [] arguments;
-    private final String signature;
-    private final TypeToken typeToken;
     
-    @Nullable
-    private final AbstractExecutionHandler executionHandler;
+    // set once the execution context has been built and read by any stage after 
+    // it, which in async mode can be on a different thread.
+    private volatile V context;
     
-    @Nullable
-    private final AbstractErrorHandler errorHandler;
-        
-    @Nullable
-    private final AbstractFallbackHandler fallbackHandler;
+    // set before dispatch if the method is @Cached and read once its returnValue is known.
+    private volatile Object cacheKey;
     
-    @Nullable
-    private final AbstractRequestHandler requestHandler;
+    // set when the ExecutionHandler is first run if the method has a timeout, and read 
+    // by each attempt, and retry, which can be on a different thread.
+    private volatile long deadline;
     
-    @Nullable
-    private final AbstractResponseHandler responseHandler;
+    // set when admitted by the method's circuit breaker and read once the 
+    // outcome of the ExecutionHandler is known, possibly on a different thread.
+    private volatile MethodCircuitBreaker.Permit circuitBreakerPermit;
         
-    private InvocationInstance(Class clazz, 
-            ImmutableMap<String, ImmutableList<Annotation>> classAnnotations, 
-            String method, 
-            ImmutableMap<String, Annotation> methodAnnotations, 
-            ImmutableList<ParameterInstance<?>> parameterInstanceCache,
-            Object [] arguments,
-            String signature,
-            TypeToken typeToken,
-            AbstractExecutionHandler executionHandler,
-            AbstractErrorHandler errorHandler,
-            AbstractFallbackHandler fallbackHandler,
-            AbstractRequestHandler requestHandler,
-            AbstractResponseHandler responseHandler) {
-        this.clazz = clazz;
-        this.classAnnotations = classAnnotations;
-        this.method = method;
-        this.methodAnnotations = methodAnnotations;
-        this.parameterInstanceCache = parameterInstanceCache;
+    private InvocationInstance(InvocationPlan plan, Object [] arguments) {
+        this.plan = plan;
         this.arguments = arguments;
-        this.signature = signature;
-        this.typeToken = typeToken;
-        this.executionHandler = executionHandler;
-        this.errorHandler = errorHandler;
-        this.fallbackHandler = fallbackHandler;
-        this.requestHandler = requestHandler;
-        this.responseHandler = responseHandler;
     }
     
     public void context(V context) {
-        this.context.set(context);
+        this.context = context;
     }
     
     public V context() {
-        return context.get();
+        return context;
+    }
+    
+    public void cacheKey(Object cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+    
+    public Object cacheKey() {
+        return cacheKey;
+    }
+    
+    public void deadline(long deadline) {
+        this.deadline = deadline;
+    }
+    
+    /**
+     * The System.nanoTime() by which the ExecutionHandler, including every retry, must complete.
+     * 
+     * @return deadline or 0 if the invocation is not bounded.
+     */
+    public long deadline() {
+        return deadline;
+    }
+    
+    public void circuitBreakerPermit(MethodCircuitBreaker.Permit circuitBreakerPermit) {
+        this.circuitBreakerPermit = circuitBreakerPermit;
+    }
+    
+    public MethodCircuitBreaker.Permit circuitBreakerPermit() {
+        return circuitBreakerPermit;
+    }
+    
+    public InvocationPlan plan() {
+        return plan;
     }
     
     public Class clazz() {
-        return clazz;
+        return plan.classInstance().clazz();
     }
     
     public ImmutableMap<String, ImmutableList<Annotation>> classAnnotations() {
-        return classAnnotations;
+        return plan.classInstance().annotations();
     } 
     
     public <T> T firstClassAnnotation(Class<T> clazz) {
@@ -129,11 +131,11 @@ public class InvocationInstance<V> {
     }
     
     public String method() {
-        return method;
+        return plan.methodInstance().method();
     }
     
     public ImmutableMap<String, Annotation> methodAnnotations() {
-        return methodAnnotations;
+        return plan.methodInstance().annotations();
     } 
     
     public <T> T methodAnnotation(Class<T> clazz) {
@@ -157,10 +159,36 @@ public class InvocationInstance<V> {
         return builder.build();
     }
     
+    /**
+     * Get the parameter at the passed index paired with the argument passed 
+     * for this invocation: same as argumentInstance(int).
+     * 
+     * @param index index of parameter.
+     * @return newly created view of parameter and argument.
+     */
     public ParameterInstance parameterInstance(int index) {
-        ParameterInstance parameterInstance = parameterInstanceCache.get(index);
-        parameterInstance.setValue(arguments[index]);
-        return parameterInstance;
+        return argumentInstance(index);
+    }
+    
+    /**
+     * Get the argument passed, for this invocation, at the passed index.
+     * 
+     * @param index index of argument.
+     * @return argument value (possibly null).
+     */
+    public Object argument(int index) {
+        return arguments[index];
+    }
+    
+    /**
+     * Get a view of the parameter at the passed index paired with the 
+     * argument passed for this invocation.
+     * 
+     * @param index index of argument.
+     * @return newly created view of parameter and argument.
+     */
+    public ArgumentInstance argumentInstance(int index) {
+        return ArgumentInstance.newInstance((ParameterInstance) plan.methodInstance().parameterInstanceCache().get(index), arguments[index]);
     }
     
     public int parameterCount() {
@@ -168,72 +196,46 @@ public class InvocationInstance<V> {
     }
     
     public String signature() {
-        return signature;
+        return plan.methodInstance().signature();
     }
     
     public TypeToken typeToken() {
-        return typeToken;
+        return plan.typeToken();
     }
     
     @Override
     public String toString() {
-        return (this.clazz().getName() + "@" + this.method() + "#" + this.signature()).intern();
+        return (this.clazz().getName() + "@" + this.method() + "#" + this.signature());
     }
     
     /**
      * Create new InvocationInstance from passed parameters.
      * 
-     * @param classInstance the classInstance used to query for annotations.
-     * @param methodInstance the methodInstance used to query for annotations.
+     * @param plan the pre-compiled plan of the method being invoked.
      * @param args the parameter arguments for this invocation.
-     * @param executionHandler the executionHandler used for this invocation.
-     * @param errorHandler the errorHandler used for this invocation.
-     * @param fallbackHandler the fallbackHandler used for this invocation.
-     * @param requestHandler the requestHandler used for this invocation.
-     * @param responseHandler the responseHandler used for this invocation.
      * @return newly created InvocationInstance.
      */
-    public static InvocationInstance newInstance(ClassInstance classInstance, 
-            MethodInstance methodInstance, 
-            Object [] args,
-            AbstractExecutionHandler executionHandler,
-            AbstractErrorHandler errorHandler,
-            AbstractFallbackHandler fallbackHandler,
-            AbstractRequestHandler requestHandler,
-            AbstractResponseHandler responseHandler) {
-        
-        return new InvocationInstance(classInstance.clazz(), 
-                classInstance.annotations(), 
-                methodInstance.method(), 
-                methodInstance.annotations(), 
-                methodInstance.parameterInstanceCache(),
-                args,
-                methodInstance.signature(),
-                methodInstance.typeToken(), 
-                executionHandler, 
-                errorHandler, 
-                fallbackHandler, 
-                requestHandler,
-                responseHandler);
+    public static InvocationInstance newInstance(InvocationPlan plan, Object [] args) {
+        return new InvocationInstance(plan, args);
     }
 
     public AbstractExecutionHandler executionHandler() {
-        return this.executionHandler;
+        return plan.executionHandler();
     }
 
     public AbstractErrorHandler errorHandler() {
-        return this.errorHandler;
+        return plan.errorHandler();
     }
 
     public AbstractFallbackHandler fallbackHandler() {
-        return this.fallbackHandler;
+        return plan.fallbackHandler();
     }
 
     public AbstractRequestHandler requestHandler() {
-        return this.requestHandler;
+        return plan.requestHandler();
     }
     
     public AbstractResponseHandler responseHandler() {
-        return this.responseHandler;
+        return plan.responseHandler();
     }  
 }
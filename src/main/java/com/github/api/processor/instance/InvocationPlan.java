@@ -0,0 +1,616 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.instance;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.github.api.processor.cache.ResponseCache;
+import com.github.api.processor.cache.TypeCheck;
+import com.github.api.processor.handlers.AbstractErrorHandler;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractFallbackHandler;
+import com.github.api.processor.handlers.AbstractRequestHandler;
+import com.github.api.processor.handlers.AbstractResponseHandler;
+import com.github.api.processor.metrics.MethodMetrics;
+import com.github.api.processor.policies.ConcurrencyLimiter;
+import com.github.api.processor.policies.HedgePolicy;
+import com.github.api.processor.policies.MethodCircuitBreaker;
+import com.github.api.processor.policies.MicroBatcher;
+import com.github.api.processor.policies.SingleFlight;
+import com.github.api.processor.utils.Constants;
+import com.github.api.processor.utils.Pair;
+import com.github.type.utils.ClassType;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import javax.annotation.Nullable;
+import net.jodah.failsafe.RetryPolicy;
+
+/**
+ * Immutable, pre-resolved description of how a single Api method is invoked. Plans 
+ * are compiled once, when the ApiProcessor is built, and hold everything the runtime 
+ * would otherwise have to re-derive on each call: the resolved handler instances (with 
+ * method, class and global precedence already applied), the generic types passed 
+ * between handlers and the type-checks that must be run on their outputs.
+ * 
+ * @author github.
+ */
+public final class InvocationPlan {
+    
+    private static final int CHECK_SLOTS = Constants.EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK + 1;
+
+    private final Method method;
+    private final ClassInstance classInstance;
+    private final MethodInstance methodInstance;
+    
+    @Nullable
+    private final AbstractRequestHandler requestHandler;
+    
+    private final AbstractExecutionHandler executionHandler;
+    
+    @Nullable
+    private final AbstractErrorHandler errorHandler;
+    
+    @Nullable
+    private final AbstractFallbackHandler fallbackHandler;
+    
+    @Nullable
+    private final AbstractResponseHandler responseHandler;
+    
+    @Nullable
+    private final Class requestType;
+    
+    private final Class executionType;
+    private final Class returnType;
+    private final boolean primitiveReturn;
+    private final boolean async;
+    private final TypeToken resultTypeToken;
+    
+    @Nullable
+    private final Executor executor;
+    
+    @Nullable
+    private final RetryPolicy retryPolicy;
+    
+    @Nullable
+    private final MethodCircuitBreaker circuitBreaker;
+    
+    @Nullable
+    private final ConcurrencyLimiter concurrencyLimiter;
+    
+    private final long timeout;
+    private final long attemptTimeout;
+    
+    @Nullable
+    private final HedgePolicy hedgePolicy;
+    
+    @Nullable
+    private final MicroBatcher microBatcher;
+    
+    @Nullable
+    private final SingleFlight singleFlight;
+    
+    @Nullable
+    private final ResponseCache responseCache;
+    
+    @Nullable
+    private final MethodMetrics metrics;
+    
+    @Nullable
+    private final Class delegateType;
+    
+    private final ImmutableMap<Integer, Pair<ClassType, ClassType>> requiredChecks;
+    private final TypeCheck [] checks;
+    
+    private InvocationPlan(Builder builder) {
+        this.method = checkNotNull(builder.method, "method cannot be null");
+        this.classInstance = checkNotNull(builder.classInstance, "classInstance cannot be null");
+        this.methodInstance = checkNotNull(builder.methodInstance, "methodInstance cannot be null");
+        this.requestHandler = builder.requestHandler;
+        this.executionHandler = builder.executionHandler;
+        this.errorHandler = builder.errorHandler;
+        this.fallbackHandler = builder.fallbackHandler;
+        this.responseHandler = builder.responseHandler;
+        this.requestType = builder.requestType;
+        this.executionType = builder.executionType;
+        this.returnType = checkNotNull(builder.returnType, "returnType cannot be null");
+        this.primitiveReturn = builder.primitiveReturn;
+        this.async = builder.elementTypeToken != null;
+        this.resultTypeToken = async ? builder.elementTypeToken : methodInstance.typeToken();
+        this.executor = builder.executor;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.timeout = builder.timeout;
+        this.attemptTimeout = builder.attemptTimeout;
+        this.hedgePolicy = builder.hedgePolicy;
+        this.microBatcher = builder.microBatcher;
+        this.singleFlight = builder.singleFlight;
+        this.responseCache = builder.responseCache;
+        this.metrics = builder.metrics;
+        this.delegateType = builder.delegateType;
+        this.requiredChecks = ImmutableMap.copyOf(builder.requiredChecks);
+        
+        // checks are looked up on every invocation so index them by slot. Copies 
+        // share the checks, and so the verdicts memoized, of their original.
+        if (builder.checks != null) {
+            this.checks = builder.checks;
+        } else {
+            this.checks = new TypeCheck[CHECK_SLOTS];
+            this.requiredChecks.forEach((slot, pair) -> {
+                this.checks[slot] = new TypeCheck(pair);
+            });
+        }
+    }
+    
+    public Method method() {
+        return method;
+    }
+    
+    public ClassInstance classInstance() {
+        return classInstance;
+    }
+    
+    public MethodInstance methodInstance() {
+        return methodInstance;
+    }
+    
+    public TypeToken typeToken() {
+        return methodInstance.typeToken();
+    }
+    
+    public AbstractRequestHandler requestHandler() {
+        return requestHandler;
+    }
+    
+    public AbstractExecutionHandler executionHandler() {
+        return executionHandler;
+    }
+    
+    public AbstractErrorHandler errorHandler() {
+        return errorHandler;
+    }
+    
+    public AbstractFallbackHandler fallbackHandler() {
+        return fallbackHandler;
+    }
+    
+    public AbstractResponseHandler responseHandler() {
+        return responseHandler;
+    }
+    
+    /**
+     * Generic input type of the RequestHandler, if one is present.
+     * 
+     * @return generic input type or null if no RequestHandler is present.
+     */
+    public Class requestType() {
+        return requestType;
+    }
+    
+    /**
+     * Generic input type (i.e. the context) of the ExecutionHandler.
+     * 
+     * @return generic input type of ExecutionHandler.
+     */
+    public Class executionType() {
+        return executionType;
+    }
+    
+    /**
+     * Comparison-safe return type (i.e. primitives converted to their boxed classes).
+     * 
+     * @return comparison-safe return type.
+     */
+    public Class returnType() {
+        return returnType;
+    }
+    
+    public boolean primitiveReturn() {
+        return primitiveReturn;
+    }
+    
+    /**
+     * Whether this method returns a CompletableFuture/CompletionStage and so 
+     * is executed, and completed, asynchronously.
+     * 
+     * @return true if method is asynchronous.
+     */
+    public boolean async() {
+        return async;
+    }
+    
+    /**
+     * Type of the value handed back to the caller: the element type of the 
+     * future for asynchronous methods, otherwise the declared return type.
+     * 
+     * @return type of the value handed back to the caller.
+     */
+    public TypeToken resultTypeToken() {
+        return resultTypeToken;
+    }
+    
+    /**
+     * Executor, with method/class/global precedence already resolved, that 
+     * asynchronous, timed or hedged, invocations are run on.
+     * 
+     * @return resolved executor or null if method is none of those.
+     */
+    public Executor executor() {
+        return executor;
+    }
+    
+    /**
+     * Retry policy, with method/class/global precedence already resolved, 
+     * applied to the ExecutionHandler. Must not be modified.
+     * 
+     * @return retry policy or null if failures are not retried.
+     */
+    public RetryPolicy retryPolicy() {
+        return retryPolicy;
+    }
+    
+    /**
+     * Circuit breaker guarding the ExecutionHandler of this method.
+     * 
+     * @return circuit breaker or null if not enabled.
+     */
+    public MethodCircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * The concurrency limiter, possibly shared with other methods, bounding 
+     * how many invocations of this method may be in flight at once.
+     * 
+     * @return concurrency limiter or null if not enabled.
+     */
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+    
+    /**
+     * Time the ExecutionHandler of an invocation, including every retry, may run.
+     * 
+     * @return timeout in milliseconds or 0 if invocations are not bounded.
+     */
+    public long timeout() {
+        return timeout;
+    }
+    
+    /**
+     * Time each single attempt of the ExecutionHandler may run.
+     * 
+     * @return timeout in milliseconds or 0 if attempts are not bounded.
+     */
+    public long attemptTimeout() {
+        return attemptTimeout;
+    }
+    
+    /**
+     * Hedge policy deciding when a speculative attempt of the ExecutionHandler is started.
+     * 
+     * @return hedge policy or null if attempts are not hedged.
+     */
+    public HedgePolicy hedgePolicy() {
+        return hedgePolicy;
+    }
+    
+    /**
+     * Single flight coalescing identical concurrent invocations of this method.
+     * 
+     * @return single flight or null if method is not @Coalesce'd.
+     */
+    public SingleFlight singleFlight() {
+        return singleFlight;
+    }
+    
+    /**
+     * Cache of the returnValue's of this method.
+     * 
+     * @return response cache or null if method is not @Cached.
+     */
+    public ResponseCache responseCache() {
+        return responseCache;
+    }
+    
+    /**
+     * Latencies and counters recorded for this method.
+     * 
+     * @return metrics or null if metrics are not enabled.
+     */
+    public MethodMetrics metrics() {
+        return metrics;
+    }
+    
+    /**
+     * Micro-batcher executing the invocations of this method in batches.
+     * 
+     * @return micro-batcher or null if method is not @Batch'ed.
+     */
+    public MicroBatcher microBatcher() {
+        return microBatcher;
+    }
+    
+    /**
+     * Whether attempts of the ExecutionHandler are run off the current thread, 
+     * on the executor or in a batch, so that they can be timed out or hedged.
+     * 
+     * @return true if method has a timeout, hedge policy or micro-batcher.
+     */
+    public boolean offloaded() {
+        return timeout > 0 || attemptTimeout > 0 || hedgePolicy != null || microBatcher != null;
+    }
+    
+    /**
+     * Whether this method is a @Delegate returning an instance of another Api.
+     * 
+     * @return true if method is a delegate.
+     */
+    public boolean delegate() {
+        return delegateType != null;
+    }
+    
+    public Class delegateType() {
+        return delegateType;
+    }
+    
+    public ImmutableMap<Integer, Pair<ClassType, ClassType>> requiredChecks() {
+        return requiredChecks;
+    }
+    
+    /**
+     * Get the type-check registered at the passed slot.
+     * 
+     * @param slot one of the check constants found in {@link Constants}.
+     * @return the type-check or null if no check is required.
+     */
+    public TypeCheck requiredCheck(int slot) {
+        return checks[slot];
+    }
+    
+    @Override
+    public String toString() {
+        return method.toGenericString();
+    }
+    
+    public static Builder builder(Method method) {
+        return new Builder(method);
+    }
+    
+    /**
+     * Create a Builder initialized with everything held by this plan, such that a 
+     * copy differing only in a few parts (e.g. its ExecutionHandler) can be built.
+     * 
+     * @return newly created Builder.
+     */
+    public Builder toBuilder() {
+        final Builder builder = new Builder(method)
+                .classInstance(classInstance)
+                .methodInstance(methodInstance)
+                .requestHandler(requestHandler)
+                .executionHandler(executionHandler)
+                .errorHandler(errorHandler)
+                .fallbackHandler(fallbackHandler)
+                .responseHandler(responseHandler)
+                .requestType(requestType)
+                .executionType(executionType)
+                .returnType(returnType, primitiveReturn)
+                .retryPolicy(retryPolicy)
+                .circuitBreaker(circuitBreaker)
+                .concurrencyLimiter(concurrencyLimiter)
+                .timeout(timeout)
+                .attemptTimeout(attemptTimeout)
+                .hedgePolicy(hedgePolicy)
+                .microBatcher(microBatcher)
+                .singleFlight(singleFlight)
+                .responseCache(responseCache)
+                .metrics(metrics)
+                .delegateType(delegateType)
+                .requiredChecks(requiredChecks);
+        if (async) {
+            builder.async(resultTypeToken);
+        }
+        builder.executor = executor;
+        builder.checks = checks;
+        return builder;
+    }
+    
+    public static class Builder {
+        
+        private final Method method;
+        private ClassInstance classInstance;
+        private MethodInstance methodInstance;
+        private AbstractRequestHandler requestHandler;
+        private AbstractExecutionHandler executionHandler;
+        private AbstractErrorHandler errorHandler;
+        private AbstractFallbackHandler fallbackHandler;
+        private AbstractResponseHandler responseHandler;
+        private Class requestType;
+        private Class executionType;
+        private Class returnType;
+        private boolean primitiveReturn;
+        private TypeToken elementTypeToken;
+        private Executor executor;
+        private RetryPolicy retryPolicy;
+        private MethodCircuitBreaker circuitBreaker;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private long timeout;
+        private long attemptTimeout;
+        private HedgePolicy hedgePolicy;
+        private MicroBatcher microBatcher;
+        private SingleFlight singleFlight;
+        private ResponseCache responseCache;
+        private MethodMetrics metrics;
+        private Class delegateType;
+        private Map<Integer, Pair<ClassType, ClassType>> requiredChecks = ImmutableMap.of();
+        private TypeCheck [] checks;
+        
+        private Builder(Method method) {
+            this.method = method;
+        }
+        
+        public Builder classInstance(ClassInstance classInstance) {
+            this.classInstance = classInstance;
+            return this;
+        }
+        
+        public Builder methodInstance(MethodInstance methodInstance) {
+            this.methodInstance = methodInstance;
+            return this;
+        }
+        
+        public Builder requestHandler(@Nullable AbstractRequestHandler requestHandler) {
+            this.requestHandler = requestHandler;
+            return this;
+        }
+        
+        public Builder executionHandler(AbstractExecutionHandler executionHandler) {
+            this.executionHandler = executionHandler;
+            return this;
+        }
+        
+        public Builder errorHandler(@Nullable AbstractErrorHandler errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+        
+        public Builder fallbackHandler(@Nullable AbstractFallbackHandler fallbackHandler) {
+            this.fallbackHandler = fallbackHandler;
+            return this;
+        }
+        
+        public Builder responseHandler(@Nullable AbstractResponseHandler responseHandler) {
+            this.responseHandler = responseHandler;
+            return this;
+        }
+        
+        public Builder requestType(@Nullable Class requestType) {
+            this.requestType = requestType;
+            return this;
+        }
+        
+        public Builder executionType(Class executionType) {
+            this.executionType = executionType;
+            return this;
+        }
+        
+        public Builder returnType(Class returnType, boolean primitiveReturn) {
+            this.returnType = returnType;
+            this.primitiveReturn = primitiveReturn;
+            return this;
+        }
+        
+        /**
+         * Mark the plan as asynchronous with the passed future element type. An 
+         * {@link #executor(Executor)} must also be set.
+         * 
+         * @param elementTypeToken the element type of the returned future.
+         * @return this Builder.
+         */
+        public Builder async(TypeToken elementTypeToken) {
+            this.elementTypeToken = checkNotNull(elementTypeToken, "elementTypeToken cannot be null");
+            return this;
+        }
+        
+        /**
+         * Set the executor asynchronous invocations, and timed or hedged attempts, are run on.
+         * 
+         * @param executor the executor to run on.
+         * @return this Builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = checkNotNull(executor, "executor cannot be null");
+            return this;
+        }
+        
+        public Builder retryPolicy(@Nullable RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+        
+        public Builder circuitBreaker(@Nullable MethodCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+        
+        public Builder concurrencyLimiter(@Nullable ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+        
+        public Builder timeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+        
+        public Builder attemptTimeout(long attemptTimeout) {
+            this.attemptTimeout = attemptTimeout;
+            return this;
+        }
+        
+        public Builder hedgePolicy(@Nullable HedgePolicy hedgePolicy) {
+            this.hedgePolicy = hedgePolicy;
+            return this;
+        }
+        
+        public Builder microBatcher(@Nullable MicroBatcher microBatcher) {
+            this.microBatcher = microBatcher;
+            return this;
+        }
+        
+        public Builder singleFlight(@Nullable SingleFlight singleFlight) {
+            this.singleFlight = singleFlight;
+            return this;
+        }
+        
+        public Builder responseCache(@Nullable ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+        
+        public Builder metrics(@Nullable MethodMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+        
+        public Builder delegateType(@Nullable Class delegateType) {
+            this.delegateType = delegateType;
+            return this;
+        }
+        
+        public Builder requiredChecks(Map<Integer, Pair<ClassType, ClassType>> requiredChecks) {
+            this.requiredChecks = checkNotNull(requiredChecks, "requiredChecks cannot be null");
+            this.checks = null;
+            return this;
+        }
+        
+        /**
+         * Build an InvocationPlan from passed build parameters.
+         * 
+         * @return newly created InvocationPlan.
+         */
+        public InvocationPlan build() {
+            checkState(elementTypeToken == null || executor != null, "asynchronous plan requires an executor");
+            return new InvocationPlan(this);
+        }
+    }
+}
@@ -19,9 +19,11 @@ package com.github.api.processor.instance;
 
 import com.github.api.processor.annotations.ErrorHandler;
 import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.ExecutorProvider;
 import com.github.api.processor.annotations.FallbackHandler;
 import com.github.api.processor.annotations.RequestHandler;
 import com.github.api.processor.annotations.ResponseHandler;
+import com.github.api.processor.executors.AbstractExecutorProvider;
 import com.github.api.processor.handlers.AbstractErrorHandler;
 import com.github.api.processor.handlers.AbstractExecutionHandler;
 import com.github.api.processor.handlers.AbstractFallbackHandler;
@@ -51,6 +53,7 @@ public class MethodInstance implements ProcessorHandles {
     private final Class<? extends AbstractFallbackHandler> fallbackHandler;
     private final Class<? extends AbstractRequestHandler> requestHandler;
     private final Class<? extends AbstractResponseHandler> responseHandler;
+    private final Class<? extends AbstractExecutorProvider> executorProvider;
     
     /**
      * Create MethodInstance from passed args.
@@ -67,7 +70,7 @@ public class MethodInstance implements ProcessorHandles {
         
         ImmutableMap.Builder<String, Annotation> mapBuilder = ImmutableMap.builder();
         for (Annotation methodAnnotation : annotations) {
-            mapBuilder.put((methodAnnotation.annotationType().getName()).intern(), methodAnnotation);
+            mapBuilder.put(methodAnnotation.annotationType().getName(), methodAnnotation);
         }
         this.annotations = mapBuilder.build();
         
@@ -76,38 +79,45 @@ public class MethodInstance implements ProcessorHandles {
         Class localFallbackHandler = null;
         Class localRequestHandler = null;
         Class localResponseHandler = null;
+        Class localExecutorProvider = null;
         
-        Annotation possibleAnnotation = this.annotations.get((ExecutionHandler.class.getName()).intern());
+        Annotation possibleAnnotation = this.annotations.get(ExecutionHandler.class.getName());
         if (possibleAnnotation != null) {
             ExecutionHandler anno = (ExecutionHandler)possibleAnnotation;
             localExecutionHandler = anno.value();
         }
-        possibleAnnotation = this.annotations.get((ErrorHandler.class.getName()).intern());
+        possibleAnnotation = this.annotations.get(ErrorHandler.class.getName());
         if (possibleAnnotation != null) {
             ErrorHandler anno = (ErrorHandler)possibleAnnotation;
             localErrorHandler = anno.value();
         }
-        possibleAnnotation = this.annotations.get((FallbackHandler.class.getName()).intern());
+        possibleAnnotation = this.annotations.get(FallbackHandler.class.getName());
         if (possibleAnnotation != null) {
             FallbackHandler anno = (FallbackHandler)possibleAnnotation;
             localFallbackHandler = anno.value();
         }
-        possibleAnnotation = this.annotations.get((RequestHandler.class.getName()).intern());
+        possibleAnnotation = this.annotations.get(RequestHandler.class.getName());
         if (possibleAnnotation != null) {
             RequestHandler anno = (RequestHandler)possibleAnnotation;
             localRequestHandler = anno.value();
         }
-        possibleAnnotation = this.annotations.get((ResponseHandler.class.getName()).intern());
+        possibleAnnotation = this.annotations.get(ResponseHandler.class.getName());
         if (possibleAnnotation != null) {
             ResponseHandler anno = (ResponseHandler)possibleAnnotation;
             localResponseHandler = anno.value();
         }
+        possibleAnnotation = this.annotations.get(ExecutorProvider.class.getName());
+        if (possibleAnnotation != null) {
+            ExecutorProvider anno = (ExecutorProvider)possibleAnnotation;
+            localExecutorProvider = anno.value();
+        }
         
         this.executionHandler = localExecutionHandler;
         this.errorHandler = localErrorHandler;
         this.fallbackHandler = localFallbackHandler;
         this.requestHandler = localRequestHandler;
         this.responseHandler = localResponseHandler;
+        this.executorProvider = localExecutorProvider;
         
         ImmutableList.Builder<ParameterInstance<?>> listBuilder = ImmutableList.builder();
         parameters.stream().forEach( entry -> {
@@ -165,4 +175,9 @@ public class MethodInstance implements ProcessorHandles {
     public Class<? extends AbstractResponseHandler> responseHandler() {
         return this.responseHandler;
     }
+    
+    @Override
+    public Class<? extends AbstractExecutorProvider> executorProvider() {
+        return this.executorProvider;
+    }
 }
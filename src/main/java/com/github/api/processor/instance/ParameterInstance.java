@@ -22,6 +22,10 @@ import com.google.common.collect.Lists;
 import java.lang.annotation.Annotation;
 
 /**
+ * Immutable metadata of a single method parameter. Instances are cached, and shared 
+ * by every invocation of their method, and so never hold an argument value: see 
+ * {@link ArgumentInstance} for the per-invocation view of a parameter and its value, 
+ * as returned by InvocationInstance#parameterInstance(int).
  *
  * @author github.
  * @param <T>
@@ -31,9 +35,6 @@ public class ParameterInstance<T> {
     private final Class<T> clazz;
     private final ImmutableMap<String, Annotation> annotations;
     
-    // value is typically set AFTER object instantiation
-    private T value = null;
-    
     /**
      * Create ParameterInstance from passed args.
      * 
@@ -45,12 +46,22 @@ public class ParameterInstance<T> {
         
         ImmutableMap.Builder<String, Annotation> mapBuilder = ImmutableMap.builder();
         Lists.newArrayList(annotations).stream().forEach( entry -> {
-            mapBuilder.put((entry.annotationType().getName()).intern(), entry);
+            mapBuilder.put(entry.annotationType().getName(), entry);
 
         });
         this.annotations = mapBuilder.build();        
     }
     
+    /**
+     * Create ParameterInstance sharing the metadata of the passed ParameterInstance.
+     * 
+     * @param parameterInstance ParameterInstance to share metadata with.
+     */
+    protected ParameterInstance(ParameterInstance<T> parameterInstance) {
+        this.clazz = parameterInstance.clazz;
+        this.annotations = parameterInstance.annotations;
+    }
+    
     public Class<T> clazz() {
         return clazz;    
     }
@@ -60,15 +71,17 @@ public class ParameterInstance<T> {
     }
     
     public <T> T getParameterAnnotation(Class<T> clazz) {
-        Annotation anno = annotations().get((clazz.getName()).intern());
+        Annotation anno = annotations().get(clazz.getName());
         return (anno != null) ? clazz.cast(anno) : null;
     }
     
-    public void setValue(T value) {
-        this.value = value;
-    }
-        
+    /**
+     * Get the argument passed for this parameter. The shared metadata 
+     * holds no argument and so always returns null.
+     * 
+     * @return argument value (possibly null).
+     */
     public T getValue() {
-        return value;
+        return null;
     }
 }
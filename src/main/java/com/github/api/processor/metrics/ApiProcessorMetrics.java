@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the {@link MethodMetrics} of every Api method. Metrics are enabled 
+ * through {@link ApiProcessorConstants#METRICS} and, if 
+ * {@link ApiProcessorConstants#METRICS_JMX} is set, each method's metrics are 
+ * also registered as an MXBean with the platform MBeanServer until {@link #close()}.
+ * 
+ * @author github.
+ */
+@Singleton
+public class ApiProcessorMetrics {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiProcessorMetrics.class);
+    
+    private static final String JMX_DOMAIN = "com.github.api.processor";
+    private static final String JMX_REGISTER_MESSAGE = "Registering MXBean at: {}";
+    private static final String JMX_FAILED_MESSAGE = "Failed registering MXBean for: {}";
+    private static final String JMX_UNREGISTER_MESSAGE = "Unregistering MXBean at: {}";
+    private static final String JMX_UNREGISTER_FAILED_MESSAGE = "Failed unregistering MXBean at: {}";
+    private static final double NANOS_PER_MICRO = 1000.0;
+    
+    private final boolean enabled;
+    private final boolean jmx;
+    private final ConcurrentMap<String, MethodMetrics> methods = Maps.newConcurrentMap();
+    private final Set<ObjectName> registered = Sets.newHashSet();
+    private boolean closed;
+
+    /**
+     * Create ApiProcessorMetrics from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public ApiProcessorMetrics(ApiProcessorProperties properties) {
+        this.enabled = Boolean.valueOf(properties.get(ApiProcessorConstants.METRICS, ApiProcessorConstants.METRICS_DEFAULT));
+        this.jmx = Boolean.valueOf(properties.get(ApiProcessorConstants.METRICS_JMX, ApiProcessorConstants.METRICS_JMX_DEFAULT));
+    }
+    
+    /**
+     * Get, or create if not already done, the metrics of a single method.
+     * 
+     * @param method the method to get metrics for.
+     * @return metrics of method or null if metrics are not enabled.
+     */
+    public MethodMetrics metricsFor(Method method) {
+        checkNotNull(method, "method cannot be null");
+        if (!enabled) {
+            return null;
+        }
+        return methods.computeIfAbsent(nameOf(method), key -> {
+            MethodMetrics metrics = new MethodMetrics(key);
+            if (jmx) {
+                register(metrics);
+            }
+            return metrics;
+        });
+    }
+    
+    /**
+     * Take a snapshot of the metrics of every method.
+     * 
+     * @return newly taken snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        final ImmutableMap.Builder<String, MethodSnapshot> snapshots = ImmutableMap.builder();
+        methods.forEach((name, metrics) -> snapshots.put(name, metrics.snapshot()));
+        return new MetricsSnapshot(snapshots.build());
+    }
+    
+    /**
+     * Unregister every MXBean registered by this registry. Metrics are still recorded, 
+     * and can be snapshot, but no longer registered.
+     */
+    public synchronized void close() {
+        closed = true;
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registered) {
+            try {
+                LOGGER.debug(JMX_UNREGISTER_MESSAGE, objectName);
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.warn(JMX_UNREGISTER_FAILED_MESSAGE, objectName, e);
+            }
+        }
+        registered.clear();
+    }
+    
+    /**
+     * Name a method as '[fully qualified Api name]#[method name]([fully qualified parameter types])', 
+     * such that overloads never share a name (e.g. 'at(java.util.Date)' and 'at(java.sql.Date)').
+     * 
+     * @param method the method to name.
+     * @return name of method.
+     */
+    public static String nameOf(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName() 
+                + Arrays.stream(method.getParameterTypes())
+                        .map(Class::getTypeName)
+                        .collect(Collectors.joining(",", "(", ")"));
+    }
+    
+    private synchronized void register(MethodMetrics metrics) {
+        if (closed) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=ApiMethod" 
+                    + ",processor=" + Integer.toHexString(System.identityHashCode(this)) 
+                    + ",name=" + ObjectName.quote(metrics.name()));
+            LOGGER.debug(JMX_REGISTER_MESSAGE, objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MethodMetricsBean(metrics), objectName);
+            registered.add(objectName);
+        } catch (JMException e) {
+            LOGGER.warn(JMX_FAILED_MESSAGE, metrics.name(), e);
+        }
+    }
+    
+    private static final class MethodMetricsBean implements MethodMetricsMXBean {
+        
+        private final MethodMetrics metrics;
+        
+        private MethodMetricsBean(MethodMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public String getName() {
+            return metrics.name();
+        }
+
+        @Override
+        public Map<String, Double> getLatencies() {
+            final Map<String, Double> latencies = Maps.newLinkedHashMap();
+            metrics.snapshot().latencies().forEach((stage, latency) -> {
+                latencies.put(stage + ".count", (double) latency.count());
+                latencies.put(stage + ".mean", latency.mean() / NANOS_PER_MICRO);
+                latencies.put(stage + ".p50", latency.p50() / NANOS_PER_MICRO);
+                latencies.put(stage + ".p90", latency.p90() / NANOS_PER_MICRO);
+                latencies.put(stage + ".p99", latency.p99() / NANOS_PER_MICRO);
+                latencies.put(stage + ".p999", latency.p999() / NANOS_PER_MICRO);
+                latencies.put(stage + ".max", latency.max() / NANOS_PER_MICRO);
+            });
+            return latencies;
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            final Map<String, Long> counters = Maps.newLinkedHashMap();
+            metrics.snapshot().counters().forEach((counter, count) -> counters.put(counter.name(), count));
+            return counters;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+/**
+ * Events counted per Api method.
+ * 
+ * @author github.
+ */
+public enum Counter {
+    
+    /** Attempts of the ExecutionHandler which were retried. */
+    RETRIES,
+    
+    /** Invocations whose returnValue was provided by the FallbackHandler. */
+    FALLBACKS,
+    
+    /** Invocations failed by a runtime type-check between handlers. */
+    TYPE_CHECK_FAILURES,
+    
+    /** Invocations failed by a null returned where a primitive was expected. */
+    NULL_PRIMITIVE_REJECTIONS
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Immutable summary of a latency distribution. All latencies are in nanoseconds.
+ * 
+ * @author github.
+ */
+public final class LatencySnapshot {
+    
+    private final long count;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    
+    private LatencySnapshot(Histogram histogram) {
+        this.count = histogram.getTotalCount();
+        this.min = (count > 0) ? histogram.getMinValue() : 0;
+        this.max = histogram.getMaxValue();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getValueAtPercentile(50);
+        this.p90 = histogram.getValueAtPercentile(90);
+        this.p99 = histogram.getValueAtPercentile(99);
+        this.p999 = histogram.getValueAtPercentile(99.9);
+    }
+    
+    public static LatencySnapshot of(Histogram histogram) {
+        return new LatencySnapshot(histogram);
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    public long min() {
+        return min;
+    }
+    
+    public long max() {
+        return max;
+    }
+    
+    public double mean() {
+        return mean;
+    }
+    
+    public long p50() {
+        return p50;
+    }
+    
+    public long p90() {
+        return p90;
+    }
+    
+    public long p99() {
+        return p99;
+    }
+    
+    public long p999() {
+        return p999;
+    }
+    
+    @Override
+    public String toString() {
+        return "count=" + count 
+                + ", mean=" + TimeUnit.NANOSECONDS.toMicros((long) mean) + "us" 
+                + ", p50=" + TimeUnit.NANOSECONDS.toMicros(p50) + "us" 
+                + ", p99=" + TimeUnit.NANOSECONDS.toMicros(p99) + "us" 
+                + ", max=" + TimeUnit.NANOSECONDS.toMicros(max) + "us";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency distributions, per {@link Stage}, and {@link Counter}s of a single Api method. 
+ * Latencies are recorded into HdrHistogram Recorders, whose writers never block one 
+ * another nor a reader, and counters into LongAdders, which stripe contended updates 
+ * across cells. Each snapshot folds what was recorded since the previous one into 
+ * running totals.
+ * 
+ * @author github.
+ */
+public final class MethodMetrics {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final Stage [] STAGES = Stage.values();
+    private static final Counter [] COUNTERS = Counter.values();
+    
+    private final String name;
+    private final Recorder [] recorders = new Recorder[STAGES.length];
+    private final LongAdder [] counters = new LongAdder[COUNTERS.length];
+    
+    // guarded by this.
+    private final Histogram [] totals = new Histogram[STAGES.length];
+    private final Histogram [] intervals = new Histogram[STAGES.length];
+    
+    public MethodMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < STAGES.length; i++) {
+            recorders[i] = new Recorder(SIGNIFICANT_DIGITS);
+            totals[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    /**
+     * Record the latency of a single stage.
+     * 
+     * @param stage the stage to record.
+     * @param latency time (in nanoseconds) the stage took.
+     */
+    public void record(Stage stage, long latency) {
+        recorders[stage.ordinal()].recordValue(Math.max(0, latency));
+    }
+    
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+    
+    /**
+     * Take a snapshot of every latency and counter recorded thus far.
+     * 
+     * @return newly taken snapshot.
+     */
+    public synchronized MethodSnapshot snapshot() {
+        final ImmutableMap.Builder<Stage, LatencySnapshot> latencies = ImmutableMap.builder();
+        for (int i = 0; i < STAGES.length; i++) {
+            intervals[i] = recorders[i].getIntervalHistogram(intervals[i]);
+            totals[i].add(intervals[i]);
+            latencies.put(STAGES[i], LatencySnapshot.of(totals[i]));
+        }
+        final ImmutableMap.Builder<Counter, Long> counts = ImmutableMap.builder();
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counts.put(COUNTERS[i], counters[i].sum());
+        }
+        return new MethodSnapshot(name, latencies.build(), counts.build());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable snapshot of the metrics of a single Api method.
+ * 
+ * @author github.
+ */
+public final class MethodSnapshot {
+    
+    private final String name;
+    private final ImmutableMap<Stage, LatencySnapshot> latencies;
+    private final ImmutableMap<Counter, Long> counters;
+    
+    public MethodSnapshot(String name, 
+            ImmutableMap<Stage, LatencySnapshot> latencies, 
+            ImmutableMap<Counter, Long> counters) {
+        this.name = name;
+        this.latencies = latencies;
+        this.counters = counters;
+    }
+    
+    public String name() {
+        return name;
+    }
+    
+    public ImmutableMap<Stage, LatencySnapshot> latencies() {
+        return latencies;
+    }
+    
+    public LatencySnapshot latency(Stage stage) {
+        return latencies.get(stage);
+    }
+    
+    public ImmutableMap<Counter, Long> counters() {
+        return counters;
+    }
+    
+    public long counter(Counter counter) {
+        return counters.get(counter);
+    }
+    
+    @Override
+    public String toString() {
+        return name + " " + latencies + " " + counters;
+    }
+}
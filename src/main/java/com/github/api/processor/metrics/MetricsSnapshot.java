@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable snapshot of the metrics of every Api method, keyed by method name 
+ * (e.g. 'com.example.MyApi#myMethod(int)').
+ * 
+ * @author github.
+ */
+public final class MetricsSnapshot {
+    
+    private final ImmutableMap<String, MethodSnapshot> methods;
+    
+    public MetricsSnapshot(ImmutableMap<String, MethodSnapshot> methods) {
+        this.methods = methods;
+    }
+    
+    public ImmutableMap<String, MethodSnapshot> methods() {
+        return methods;
+    }
+    
+    public MethodSnapshot method(String name) {
+        return methods.get(name);
+    }
+    
+    @Override
+    public String toString() {
+        return methods.values().toString();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.metrics;
+
+/**
+ * Stages of the pipeline whose latency is recorded per Api method.
+ * 
+ * @author github.
+ */
+public enum Stage {
+    
+    /** The whole invocation, from dispatch to returnValue (or exception). */
+    INVOCATION,
+    
+    /** The RequestHandler alone. */
+    REQUEST_HANDLER,
+    
+    /** Building the execution context, including any RequestHandler. */
+    CONTEXT,
+    
+    /** The ExecutionHandler, including any retries, hedges or batching. */
+    EXECUTION,
+    
+    /** The ErrorHandler. */
+    ERROR,
+    
+    /** The FallbackHandler. */
+    FALLBACK,
+    
+    /** The ResponseHandler, or return-type checks if none is present. */
+    RESPONSE
+}
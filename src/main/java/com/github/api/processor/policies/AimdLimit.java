@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive-increase/multiplicative-decrease limit. Each successful invocation, completed 
+ * while at least half the limit was in use, grows the limit by one and each failed 
+ * invocation shrinks it by the backoff ratio.
+ * 
+ * @author github.
+ */
+public final class AimdLimit extends LimitAlgorithm {
+    
+    private static final double BACKOFF_RATIO = 0.9;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger limit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit) {
+        checkArgument(minLimit > 0 && minLimit <= maxLimit, "minLimit must be > 0 and <= maxLimit");
+        checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit must be between minLimit and maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+    
+    @Override
+    public int limit() {
+        return limit.get();
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        limit.updateAndGet(current -> {
+            if (dropped) {
+                return Math.max(minLimit, (int) (current * BACKOFF_RATIO));
+            } else if (inFlight * 2 >= current) {
+                return Math.min(maxLimit, current + 1);
+            } else {
+                return current;
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import com.github.api.processor.exceptions.RetryBudgetExhaustedException;
+import javax.annotation.Nullable;
+import net.jodah.failsafe.ExecutionContext;
+import net.jodah.failsafe.RetryPolicy;
+
+/**
+ * RetryPolicy whose retries must also be granted by the Api's, and the global, 
+ * {@link RetryBudget}. Failsafe evaluates retry conditions after every failed attempt, 
+ * including the last, so tokens are not taken from there but by the attempt itself 
+ * through {@link #tryAcquire(ExecutionContext, Throwable)}, once it is known that a 
+ * retry would otherwise be scheduled.
+ * 
+ * @author github.
+ */
+public class BudgetedRetryPolicy extends RetryPolicy {
+    
+    @Nullable
+    private final RetryBudget apiBudget;
+    
+    @Nullable
+    private final RetryBudget globalBudget;
+
+    /**
+     * Create BudgetedRetryPolicy from passed budgets.
+     * 
+     * @param apiBudget the budget of the Api the policy is compiled for.
+     * @param globalBudget the budget shared by all Apis.
+     */
+    public BudgetedRetryPolicy(@Nullable RetryBudget apiBudget, @Nullable RetryBudget globalBudget) {
+        this.apiBudget = apiBudget;
+        this.globalBudget = globalBudget;
+        abortOn(RetryBudgetExhaustedException.class);
+    }
+    
+    /**
+     * Take a token from each budget if the failed attempt would be retried. The Api's 
+     * budget is asked first, and its token given back if the global budget denies the retry.
+     * 
+     * @param ctx the context of the execution the attempt is part of.
+     * @param failure the failure of the attempt.
+     * @return false if the attempt would be retried but a budget denied it.
+     */
+    public boolean tryAcquire(ExecutionContext ctx, Throwable failure) {
+        if ((getMaxRetries() != -1 && ctx.getExecutions() >= getMaxRetries()) 
+                || canAbortFor(null, failure) 
+                || !canRetryFor(null, failure)) {
+            return true;
+        }
+        if (apiBudget != null && !apiBudget.tryAcquire()) {
+            return false;
+        }
+        if (globalBudget != null && !globalBudget.tryAcquire()) {
+            if (apiBudget != null) {
+                apiBudget.release();
+            }
+            return false;
+        }
+        return true;
+    }
+}
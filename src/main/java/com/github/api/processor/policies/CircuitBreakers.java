@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.annotations.CircuitBreaker;
+import com.github.api.processor.instance.ClassInstance;
+import com.github.api.processor.instance.MethodInstance;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.annotation.Annotation;
+
+/**
+ * Creates the circuit breaker of each Api method. Breakers are enabled through 
+ * {@link ApiProcessorConstants#CIRCUIT_BREAKER} or @CircuitBreaker with settings 
+ * resolved giving precedence to the method, then the class, and lastly to the 
+ * global properties.
+ * 
+ * @author github.
+ */
+@Singleton
+public class CircuitBreakers {
+    
+    private final ApiProcessorProperties properties;
+
+    /**
+     * Create CircuitBreakers from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public CircuitBreakers(ApiProcessorProperties properties) {
+        this.properties = properties;
+    }
+    
+    /**
+     * Create the circuit breaker of a single method.
+     * 
+     * @param methodInstance the method to create a circuit breaker for.
+     * @param classInstance the class the method is declared on.
+     * @return newly created circuit breaker or null if not enabled.
+     */
+    public MethodCircuitBreaker circuitBreakerFrom(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        final CircuitBreaker methodBreaker = (CircuitBreaker) methodInstance.annotations().get(CircuitBreaker.class.getName());
+        final ImmutableList<Annotation> classBreakers = classInstance.annotations().get(CircuitBreaker.class.getName());
+        final CircuitBreaker classBreaker = (classBreakers != null) ? (CircuitBreaker) classBreakers.get(0) : null;
+        
+        final boolean enabled;
+        if (methodBreaker != null) {
+            enabled = methodBreaker.enabled();
+        } else if (classBreaker != null) {
+            enabled = classBreaker.enabled();
+        } else {
+            enabled = Boolean.valueOf(properties.get(ApiProcessorConstants.CIRCUIT_BREAKER, 
+                    ApiProcessorConstants.CIRCUIT_BREAKER_DEFAULT));
+        }
+        if (!enabled) {
+            return null;
+        }
+        
+        final double failureRate = setting((methodBreaker != null) ? methodBreaker.failureRate() : CircuitBreaker.INHERIT, 
+                (classBreaker != null) ? classBreaker.failureRate() : CircuitBreaker.INHERIT, 
+                ApiProcessorConstants.CIRCUIT_BREAKER_FAILURE_RATE, ApiProcessorConstants.CIRCUIT_BREAKER_FAILURE_RATE_DEFAULT);
+        final int window = (int) setting((methodBreaker != null) ? methodBreaker.window() : CircuitBreaker.INHERIT, 
+                (classBreaker != null) ? classBreaker.window() : CircuitBreaker.INHERIT, 
+                ApiProcessorConstants.CIRCUIT_BREAKER_WINDOW, ApiProcessorConstants.CIRCUIT_BREAKER_WINDOW_DEFAULT);
+        final int minCalls = (int) setting((methodBreaker != null) ? methodBreaker.minCalls() : CircuitBreaker.INHERIT, 
+                (classBreaker != null) ? classBreaker.minCalls() : CircuitBreaker.INHERIT, 
+                ApiProcessorConstants.CIRCUIT_BREAKER_MIN_CALLS, ApiProcessorConstants.CIRCUIT_BREAKER_MIN_CALLS_DEFAULT);
+        final long openDuration = (long) setting((methodBreaker != null) ? methodBreaker.openDuration() : CircuitBreaker.INHERIT, 
+                (classBreaker != null) ? classBreaker.openDuration() : CircuitBreaker.INHERIT, 
+                ApiProcessorConstants.CIRCUIT_BREAKER_OPEN_DURATION, ApiProcessorConstants.CIRCUIT_BREAKER_OPEN_DURATION_DEFAULT);
+        final int halfOpenCalls = (int) setting((methodBreaker != null) ? methodBreaker.halfOpenCalls() : CircuitBreaker.INHERIT, 
+                (classBreaker != null) ? classBreaker.halfOpenCalls() : CircuitBreaker.INHERIT, 
+                ApiProcessorConstants.CIRCUIT_BREAKER_HALF_OPEN_CALLS, ApiProcessorConstants.CIRCUIT_BREAKER_HALF_OPEN_CALLS_DEFAULT);
+        
+        return new MethodCircuitBreaker(failureRate, window, Math.min(minCalls, window), openDuration, halfOpenCalls);
+    }
+    
+    private double setting(double methodValue, double classValue, String property, String defaultValue) {
+        if (methodValue != CircuitBreaker.INHERIT) {
+            return methodValue;
+        } else if (classValue != CircuitBreaker.INHERIT) {
+            return classValue;
+        } else {
+            return Double.valueOf(properties.get(property, defaultValue));
+        }
+    }
+}
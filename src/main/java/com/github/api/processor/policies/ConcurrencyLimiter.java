@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of invocations in flight, against an Api or ExecutionHandler, 
+ * to the limit of its {@link LimitAlgorithm}. Invocations over the limit are 
+ * rejected rather than queued.
+ * 
+ * @author github.
+ */
+public final class ConcurrencyLimiter {
+    
+    private final LimitAlgorithm algorithm;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ConcurrencyLimiter(LimitAlgorithm algorithm) {
+        this.algorithm = checkNotNull(algorithm, "algorithm cannot be null");
+    }
+    
+    public LimitAlgorithm algorithm() {
+        return algorithm;
+    }
+    
+    public int inFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Whether an invocation may proceed. Every permitted invocation must be 
+     * followed by a call to either {@link #release(long, boolean)} or {@link #cancel()}.
+     * 
+     * @return true if invocation may proceed, false if it must be rejected.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= algorithm.limit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Release a permit and feed the outcome of its invocation to the algorithm.
+     * 
+     * @param rtt time (in nanoseconds) the invocation took to execute.
+     * @param dropped true if the invocation failed.
+     */
+    public void release(long rtt, boolean dropped) {
+        final int current = inFlight.getAndDecrement();
+        algorithm.onSample(rtt, current, dropped);
+    }
+    
+    /**
+     * Release a permit whose invocation never executed.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+}
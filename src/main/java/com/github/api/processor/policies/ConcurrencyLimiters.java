@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.annotations.ConcurrencyLimit;
+import com.github.api.processor.annotations.ConcurrencyLimit.Algorithm;
+import com.github.api.processor.annotations.ConcurrencyLimit.Scope;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.instance.ClassInstance;
+import com.github.api.processor.instance.MethodInstance;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates, or shares, the concurrency limiter of each Api method. Limiters are enabled 
+ * through {@link ApiProcessorConstants#CONCURRENCY_LIMIT} or @ConcurrencyLimit with 
+ * settings resolved giving precedence to the method, then the class, and lastly to the 
+ * global properties. A single limiter is shared by every method of an Api, or every 
+ * method executed by the same ExecutionHandler, depending on its scope. As a limiter 
+ * shared by an Api must not depend on which of its methods is compiled first its 
+ * settings are only ever taken from the class, and the global properties, with a 
+ * method only able to opt out of it.
+ * 
+ * @author github.
+ */
+@Singleton
+public class ConcurrencyLimiters {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiters.class);
+    
+    private static final String LIMITER_CREATE_MESSAGE = "Creating new {} concurrency limiter for: {}";
+    private static final String API_SCOPE_METHOD_SETTINGS = "method %s of %s can only opt out of its API scoped concurrency limit, "
+            + "which is configured on the class";
+    
+    private final ApiProcessorProperties properties;
+    private final ConcurrentMap<Class, ConcurrencyLimiter> apiLimiters = Maps.newConcurrentMap();
+    private final ConcurrentMap<Class, ConcurrencyLimiter> handlerLimiters = Maps.newConcurrentMap();
+
+    /**
+     * Create ConcurrencyLimiters from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public ConcurrencyLimiters(ApiProcessorProperties properties) {
+        this.properties = properties;
+    }
+    
+    /**
+     * Get, or create if not already done, the concurrency limiter of a single method.
+     * 
+     * @param methodInstance the method to get a concurrency limiter for.
+     * @param classInstance the class the method is declared on.
+     * @param executionHandler the ExecutionHandler the method is executed by.
+     * @return shared concurrency limiter or null if not enabled.
+     */
+    public ConcurrencyLimiter concurrencyLimiterFrom(MethodInstance methodInstance, 
+            ClassInstance<?> classInstance, 
+            AbstractExecutionHandler executionHandler) {
+        final ConcurrencyLimit methodLimit = (ConcurrencyLimit) methodInstance.annotations().get(ConcurrencyLimit.class.getName());
+        final ImmutableList<Annotation> classLimits = classInstance.annotations().get(ConcurrencyLimit.class.getName());
+        final ConcurrencyLimit classLimit = (classLimits != null) ? (ConcurrencyLimit) classLimits.get(0) : null;
+        
+        final Algorithm algorithm = setting((methodLimit != null) ? methodLimit.algorithm() : Algorithm.INHERIT, 
+                (classLimit != null) ? classLimit.algorithm() : Algorithm.INHERIT, 
+                ApiProcessorConstants.CONCURRENCY_LIMIT, ApiProcessorConstants.CONCURRENCY_LIMIT_DEFAULT);
+        if (algorithm == Algorithm.NONE) {
+            return null;
+        }
+        
+        final Scope scope = setting((methodLimit != null) ? methodLimit.scope() : Scope.INHERIT, 
+                (classLimit != null) ? classLimit.scope() : Scope.INHERIT, 
+                ApiProcessorConstants.CONCURRENCY_LIMIT_SCOPE, ApiProcessorConstants.CONCURRENCY_LIMIT_SCOPE_DEFAULT);
+        if (scope == Scope.EXECUTION_HANDLER) {
+            return handlerLimiters.computeIfAbsent(executionHandler.getClass(), 
+                    clazz -> newConcurrencyLimiter(clazz, algorithm, methodLimit, classLimit));
+        }
+        
+        checkArgument(methodLimit == null || (methodLimit.algorithm() == Algorithm.INHERIT 
+                && methodLimit.limit() == ConcurrencyLimit.INHERIT 
+                && methodLimit.minLimit() == ConcurrencyLimit.INHERIT 
+                && methodLimit.maxLimit() == ConcurrencyLimit.INHERIT), 
+                API_SCOPE_METHOD_SETTINGS, methodInstance.method(), classInstance.clazz().getName());
+        return apiLimiters.computeIfAbsent(classInstance.clazz(), 
+                clazz -> newConcurrencyLimiter(clazz, algorithm, null, classLimit));
+    }
+    
+    private ConcurrencyLimiter newConcurrencyLimiter(Class clazz, 
+            Algorithm algorithm, 
+            @Nullable ConcurrencyLimit methodLimit, 
+            @Nullable ConcurrencyLimit classLimit) {
+        Object [] loggerParams = {algorithm, clazz.getName()};
+        LOGGER.debug(LIMITER_CREATE_MESSAGE, loggerParams);
+
+        final int limit = setting((methodLimit != null) ? methodLimit.limit() : ConcurrencyLimit.INHERIT, 
+                (classLimit != null) ? classLimit.limit() : ConcurrencyLimit.INHERIT, 
+                ApiProcessorConstants.CONCURRENCY_LIMIT_INITIAL, ApiProcessorConstants.CONCURRENCY_LIMIT_INITIAL_DEFAULT);
+        if (algorithm == Algorithm.STATIC) {
+            return new ConcurrencyLimiter(new StaticLimit(limit));
+        }
+
+        final int minLimit = setting((methodLimit != null) ? methodLimit.minLimit() : ConcurrencyLimit.INHERIT, 
+                (classLimit != null) ? classLimit.minLimit() : ConcurrencyLimit.INHERIT, 
+                ApiProcessorConstants.CONCURRENCY_LIMIT_MIN, ApiProcessorConstants.CONCURRENCY_LIMIT_MIN_DEFAULT);
+        final int maxLimit = setting((methodLimit != null) ? methodLimit.maxLimit() : ConcurrencyLimit.INHERIT, 
+                (classLimit != null) ? classLimit.maxLimit() : ConcurrencyLimit.INHERIT, 
+                ApiProcessorConstants.CONCURRENCY_LIMIT_MAX, ApiProcessorConstants.CONCURRENCY_LIMIT_MAX_DEFAULT);
+        return new ConcurrencyLimiter((algorithm == Algorithm.AIMD) 
+                ? new AimdLimit(limit, minLimit, maxLimit) 
+                : new GradientLimit(limit, minLimit, maxLimit));
+    }
+    
+    private int setting(int methodValue, int classValue, String property, String defaultValue) {
+        if (methodValue != ConcurrencyLimit.INHERIT) {
+            return methodValue;
+        } else if (classValue != ConcurrencyLimit.INHERIT) {
+            return classValue;
+        } else {
+            return Integer.valueOf(properties.get(property, defaultValue));
+        }
+    }
+    
+    private <E extends Enum<E>> E setting(E methodValue, E classValue, String property, String defaultValue) {
+        if (!"INHERIT".equals(methodValue.name())) {
+            return methodValue;
+        } else if (!"INHERIT".equals(classValue.name())) {
+            return classValue;
+        } else {
+            return Enum.valueOf(methodValue.getDeclaringClass(), properties.get(property, defaultValue).toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.function.Predicate;
+
+/**
+ * Decides whether a failure may be retried based on its exception class. A failure is 
+ * retryable if it is not an instance of any abortOn class and, when retryOn classes 
+ * are given, is an instance of at least one of them. Verdicts are resolved once, and 
+ * cached, per exception type.
+ * 
+ * @author github.
+ */
+public final class ExceptionClassifier implements Predicate<Throwable> {
+    
+    private final ImmutableList<Class<? extends Throwable>> retryOn;
+    private final ImmutableList<Class<? extends Throwable>> abortOn;
+    
+    private final ClassValue<Boolean> verdicts = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<? extends Throwable> abort : abortOn) {
+                if (abort.isAssignableFrom(type)) {
+                    return Boolean.FALSE;
+                }
+            }
+            if (retryOn.isEmpty()) {
+                return Boolean.TRUE;
+            }
+            for (Class<? extends Throwable> retry : retryOn) {
+                if (retry.isAssignableFrom(type)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        }
+    };
+
+    /**
+     * Create ExceptionClassifier from passed exception classes.
+     * 
+     * @param retryOn classes which are retryable, or empty if all are.
+     * @param abortOn classes which are never retryable.
+     */
+    public ExceptionClassifier(ImmutableList<Class<? extends Throwable>> retryOn, 
+            ImmutableList<Class<? extends Throwable>> abortOn) {
+        this.retryOn = checkNotNull(retryOn, "retryOn cannot be null");
+        this.abortOn = checkNotNull(abortOn, "abortOn cannot be null");
+    }
+    
+    /**
+     * Whether any failure, regardless of its class, is retryable.
+     * 
+     * @return true if every failure is retryable.
+     */
+    public boolean retriesAll() {
+        return retryOn.isEmpty() && abortOn.isEmpty();
+    }
+    
+    @Override
+    public boolean test(Throwable failure) {
+        return failure != null && verdicts.get(failure.getClass());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gradient (i.e. Vegas-style) limit. A long-term average of the latency is compared 
+ * against a short-term one, such that a single outlier barely moves it: while they 
+ * agree, within a tolerance, the limit grows by a small queue allowance, and as 
+ * latency rises above the long-term average the limit shrinks in proportion. Failed 
+ * invocations are not sampled as they tend to fail fast and would otherwise drag the 
+ * latency down. State is swapped atomically, and never locked, as every completed 
+ * invocation samples it.
+ * 
+ * @author github.
+ */
+public final class GradientLimit extends LimitAlgorithm {
+    
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicReference<State> state;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        checkArgument(minLimit > 0 && minLimit <= maxLimit, "minLimit must be > 0 and <= maxLimit");
+        checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit must be between minLimit and maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.state = new AtomicReference<>(new State(initialLimit, 0, 0));
+    }
+    
+    @Override
+    public int limit() {
+        return (int) state.get().estimatedLimit;
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        if (dropped || rtt <= 0) {
+            return;
+        }
+        State current;
+        State next;
+        do {
+            current = state.get();
+            next = current.next(rtt, inFlight);
+        } while (!state.compareAndSet(current, next));
+    }
+    
+    /**
+     * Immutable snapshot of the estimated limit and the smoothed latencies it was estimated from.
+     */
+    private final class State {
+        
+        private final double estimatedLimit;
+        private final double longRtt;
+        private final double shortRtt;
+        
+        private State(double estimatedLimit, double longRtt, double shortRtt) {
+            this.estimatedLimit = estimatedLimit;
+            this.longRtt = longRtt;
+            this.shortRtt = shortRtt;
+        }
+        
+        private State next(long rtt, int inFlight) {
+            final double nextLongRtt = (longRtt == 0) ? rtt : longRtt * (1 - LONG_RTT_WEIGHT) + rtt * LONG_RTT_WEIGHT;
+            final double nextShortRtt = (shortRtt == 0) ? rtt : shortRtt * (1 - SHORT_RTT_WEIGHT) + rtt * SHORT_RTT_WEIGHT;
+            
+            // Don't grow the limit while the invocations in flight are nowhere near it.
+            if (inFlight * 2 < estimatedLimit) {
+                return new State(estimatedLimit, nextLongRtt, nextShortRtt);
+            }
+            
+            final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * nextLongRtt / nextShortRtt));
+            final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            return new State(Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING)), 
+                    nextLongRtt, 
+                    nextShortRtt);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides when an attempt of a single Api method is hedged. The latency of recent 
+ * successful attempts is kept in a sliding window and, once the window is full, the 
+ * configured percentile of it is periodically recomputed and used as the hedge delay.
+ * 
+ * @author github.
+ */
+public final class HedgePolicy {
+    
+    private final double percentile;
+    private final int window;
+    private final int recomputeInterval;
+    private final AtomicLongArray latencies;
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long delay = -1;
+
+    /**
+     * Create HedgePolicy from passed parameters.
+     * 
+     * @param percentile latency percentile (between 0 and 1) after which to hedge.
+     * @param window number of most recent latencies the percentile is computed over.
+     */
+    public HedgePolicy(double percentile, int window) {
+        checkArgument(percentile > 0 && percentile < 1, "percentile must be > 0 and < 1");
+        checkArgument(window > 0, "window must be greater than 0");
+        this.percentile = percentile;
+        this.window = window;
+        this.recomputeInterval = Math.max(1, window / 10);
+        this.latencies = new AtomicLongArray(window);
+    }
+    
+    /**
+     * Create a HedgePolicy with the same settings, but none of the observed latencies, as this one.
+     * 
+     * @return newly created hedge policy.
+     */
+    public HedgePolicy copy() {
+        return new HedgePolicy(percentile, window);
+    }
+    
+    /**
+     * Time to wait on an attempt before starting a speculative one.
+     * 
+     * @return hedge delay in nanoseconds, or -1 if not enough latencies have been observed.
+     */
+    public long delay() {
+        return delay;
+    }
+    
+    /**
+     * Record the latency of a successful attempt.
+     * 
+     * @param latency time (in nanoseconds) the attempt took.
+     */
+    public void record(long latency) {
+        final long sample = samples.getAndIncrement();
+        latencies.set((int) (sample % window), latency);
+        if (sample + 1 >= window && (sample + 1) % recomputeInterval == 0) {
+            final long [] sorted = new long[window];
+            for (int i = 0; i < window; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            delay = sorted[Math.max(0, (int) Math.ceil(percentile * window) - 1)];
+        }
+    }
+}
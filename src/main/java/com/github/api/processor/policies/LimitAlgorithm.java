@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+/**
+ * Algorithm deciding how many invocations may be in flight at once. Implementations 
+ * adjust their limit from the latency, and outcome, of every completed invocation.
+ * 
+ * @author github.
+ */
+public abstract class LimitAlgorithm {
+    
+    /**
+     * Current concurrency limit.
+     * 
+     * @return maximum number of invocations allowed in flight.
+     */
+    public abstract int limit();
+    
+    /**
+     * Adjust the limit from a single completed invocation.
+     * 
+     * @param rtt time (in nanoseconds) the invocation took to execute.
+     * @param inFlight number of invocations in flight, including this one, when it completed.
+     * @param dropped true if the invocation failed.
+     */
+    public abstract void onSample(long rtt, int inFlight, boolean dropped);
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free circuit breaker guarding a single Api method. While CLOSED the outcome of 
+ * each invocation is recorded in a sliding window of the most recent invocations and 
+ * the breaker OPENs once the failure rate reaches its threshold. While OPEN every 
+ * invocation is rejected until the open duration has passed, after which the breaker 
+ * is HALF_OPEN and lets a fixed number of trial invocations through: if all of them 
+ * succeed the breaker CLOSEs, with an empty window, otherwise it OPENs again.
+ * 
+ * <p>Every transition is a CAS of an immutable phase so that concurrent invocations 
+ * never block one another. An outcome only counts towards the phase its invocation was 
+ * admitted under, such that a slow invocation admitted while CLOSED can neither close, 
+ * nor reopen, a HALF_OPEN breaker nor use up the successes of its trial invocations.
+ * 
+ * @author github.
+ */
+public final class MethodCircuitBreaker {
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    
+    private final double failureRate;
+    private final int window;
+    private final int minCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final AtomicReference<Phase> phase;
+
+    /**
+     * Create MethodCircuitBreaker from passed parameters.
+     * 
+     * @param failureRate failure rate (between 0 and 1) at which the breaker opens.
+     * @param window number of most recent invocations the failure rate is computed over.
+     * @param minCalls minimum number of invocations before the failure rate is considered.
+     * @param openDuration time (in milliseconds) the breaker stays open.
+     * @param halfOpenCalls number of trial invocations needed to close the breaker.
+     */
+    public MethodCircuitBreaker(double failureRate, int window, int minCalls, long openDuration, int halfOpenCalls) {
+        checkArgument(failureRate > 0 && failureRate <= 1, "failureRate must be > 0 and <= 1");
+        checkArgument(window > 0, "window must be greater than 0");
+        checkArgument(minCalls > 0 && minCalls <= window, "minCalls must be > 0 and <= window");
+        checkArgument(openDuration > 0, "openDuration must be greater than 0");
+        checkArgument(halfOpenCalls > 0, "halfOpenCalls must be greater than 0");
+        this.failureRate = failureRate;
+        this.window = window;
+        this.minCalls = minCalls;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        this.halfOpenCalls = halfOpenCalls;
+        this.phase = new AtomicReference<>(closed());
+    }
+    
+    public State state() {
+        return phase.get().state;
+    }
+    
+    /**
+     * Whether an invocation may proceed. Every permitted invocation must be followed, 
+     * whichever way it completes, by a call to either {@link #onSuccess(Permit)} or 
+     * {@link #onFailure(Permit)} passing the returned permit.
+     * 
+     * @return permit of the phase the invocation was admitted under, or null if it must be short-circuited.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            final Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (System.nanoTime() - current.openedAt < openNanos) {
+                        return null;
+                    }
+                    phase.compareAndSet(current, halfOpen());
+                    break;
+                default:
+                    return (current.permits.getAndDecrement() > 0) ? current : null;
+            }
+        }
+    }
+    
+    /**
+     * Record the success of an invocation admitted with the passed permit.
+     * 
+     * @param permit the permit the invocation was admitted with.
+     */
+    public void onSuccess(Permit permit) {
+        final Phase current = phase.get();
+        if (permit != current) {
+            return;
+        }
+        if (current.state == State.CLOSED) {
+            record(current, SUCCESS);
+        } else if (current.state == State.HALF_OPEN && current.successes.incrementAndGet() >= halfOpenCalls) {
+            phase.compareAndSet(current, closed());
+        }
+    }
+    
+    /**
+     * Record the failure of an invocation admitted with the passed permit.
+     * 
+     * @param permit the permit the invocation was admitted with.
+     */
+    public void onFailure(Permit permit) {
+        final Phase current = phase.get();
+        if (permit != current) {
+            return;
+        }
+        if (current.state == State.CLOSED) {
+            if (record(current, FAILURE)) {
+                phase.compareAndSet(current, open());
+            }
+        } else if (current.state == State.HALF_OPEN) {
+            phase.compareAndSet(current, open());
+        }
+    }
+    
+    /**
+     * Record outcome in the sliding window of a CLOSED phase.
+     * 
+     * @return true if the failure rate has reached its threshold.
+     */
+    private boolean record(Phase current, int outcome) {
+        final int slot = (int) (current.cursor.getAndIncrement() % window);
+        final int previous = current.outcomes.getAndSet(slot, outcome);
+        final int calls = (previous == EMPTY) ? current.calls.incrementAndGet() : current.calls.get();
+        final int failures;
+        if (previous == outcome) {
+            failures = current.failures.get();
+        } else if (outcome == FAILURE) {
+            failures = current.failures.incrementAndGet();
+        } else {
+            failures = (previous == FAILURE) ? current.failures.decrementAndGet() : current.failures.get();
+        }
+        return calls >= minCalls && failures >= failureRate * calls;
+    }
+    
+    private Phase closed() {
+        return new Phase(State.CLOSED, 0, new AtomicIntegerArray(window), 0);
+    }
+    
+    private Phase open() {
+        return new Phase(State.OPEN, System.nanoTime(), null, 0);
+    }
+    
+    private Phase halfOpen() {
+        return new Phase(State.HALF_OPEN, 0, null, halfOpenCalls);
+    }
+    
+    /**
+     * Opaque handle on the phase an invocation was admitted under.
+     */
+    public abstract static class Permit {
+        
+        private Permit() {
+        }
+    }
+    
+    private static final class Phase extends Permit {
+        
+        private final State state;
+        private final long openedAt;
+        
+        // only used while CLOSED.
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        
+        // only used while HALF_OPEN.
+        private final AtomicInteger permits;
+        private final AtomicInteger successes = new AtomicInteger();
+        
+        private Phase(State state, long openedAt, AtomicIntegerArray outcomes, int permits) {
+            this.state = state;
+            this.openedAt = openedAt;
+            this.outcomes = outcomes;
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.handlers.AbstractBatchExecutionHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.wrappers.BatchWrapper;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects invocations of a single @Batch method into batches executed by its 
+ * AbstractBatchExecutionHandler. A batch is dispatched once it is full or its window 
+ * has passed. The window adapts to load: it is as long as it is expected to take to 
+ * fill the batch, given the mean time between recent invocations, capped at the 
+ * maximum delay. When invocations are too sparse to share a batch they are 
+ * dispatched immediately.
+ * 
+ * @author github.
+ */
+public final class MicroBatcher {
+    
+    private static final double GAP_WEIGHT = 0.2;
+    private static final String OUTPUT_MISSING = "AbstractBatchExecutionHandler returned no output for invocation ";
+    
+    private final AbstractBatchExecutionHandler batchExecutionHandler;
+    private final int maxSize;
+    private final long maxDelay;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    
+    // guarded by this.
+    private List<Pending> pending = new ArrayList<>();
+    private long generation;
+    private long lastArrival;
+    private double meanGap;
+
+    /**
+     * Create MicroBatcher from passed parameters.
+     * 
+     * @param batchExecutionHandler the handler batches are executed by.
+     * @param maxSize maximum number of invocations in a batch.
+     * @param maxDelay maximum time (in milliseconds) an invocation waits for its batch to fill.
+     * @param executor the executor batches are executed on.
+     * @param scheduler the scheduler batch windows are timed on.
+     */
+    public MicroBatcher(AbstractBatchExecutionHandler batchExecutionHandler, int maxSize, long maxDelay, 
+            Executor executor, ScheduledExecutorService scheduler) {
+        checkArgument(maxSize > 0, "maxSize must be greater than 0");
+        checkArgument(maxDelay >= 0, "maxDelay must be greater than or equal to 0");
+        this.batchExecutionHandler = checkNotNull(batchExecutionHandler, "batchExecutionHandler cannot be null");
+        this.maxSize = maxSize;
+        this.maxDelay = TimeUnit.MILLISECONDS.toNanos(maxDelay);
+        this.executor = checkNotNull(executor, "executor cannot be null");
+        this.scheduler = checkNotNull(scheduler, "scheduler cannot be null");
+        this.meanGap = this.maxDelay;
+    }
+    
+    /**
+     * Add an invocation, whose execution context has been built, to the current batch.
+     * 
+     * @param invocationInstance the invocation to execute.
+     * @return future completed with the invocation's output of the batch.
+     */
+    public CompletableFuture<Object> submit(InvocationInstance invocationInstance) {
+        final CompletableFuture<Object> output = new CompletableFuture<>();
+        final List<Pending> batch;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (lastArrival != 0) {
+                meanGap = meanGap * (1 - GAP_WEIGHT) + (now - lastArrival) * GAP_WEIGHT;
+            }
+            lastArrival = now;
+            
+            pending.add(new Pending(invocationInstance, output));
+            final long window = (long) Math.min(maxDelay, meanGap * (maxSize - pending.size()));
+            if (pending.size() >= maxSize || meanGap >= maxDelay || window <= 0) {
+                batch = drain();
+            } else {
+                if (pending.size() == 1) {
+                    final long windowOf = generation;
+                    scheduler.schedule(() -> flush(windowOf), window, TimeUnit.NANOSECONDS);
+                }
+                batch = null;
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return output;
+    }
+    
+    private void flush(long windowOf) {
+        final List<Pending> batch;
+        synchronized (this) {
+            batch = (windowOf == generation && !pending.isEmpty()) ? drain() : null;
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+    
+    private List<Pending> drain() {
+        final List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        generation++;
+        return batch;
+    }
+    
+    private void dispatch(final List<Pending> batch) {
+        try {
+            executor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(entry -> entry.output.completeExceptionally(e));
+        }
+    }
+    
+    private void execute(final List<Pending> batch) {
+        final ImmutableList.Builder<InvocationInstance> invocations = ImmutableList.builder();
+        batch.forEach(entry -> invocations.add(entry.invocationInstance));
+        final BatchWrapper wrapper = new BatchWrapper(invocations.build());
+        
+        final List outputs;
+        try {
+            outputs = (List) batchExecutionHandler.apply(wrapper);
+        } catch (Throwable e) {
+            
+            // fail every caller, even on an Error, as none would otherwise ever complete.
+            batch.forEach(entry -> entry.output.completeExceptionally(e));
+            Throwables.propagateIfInstanceOf(e, Error.class);
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            final CompletableFuture<Object> output = batch.get(i).output;
+            final Throwable failure = wrapper.failure(i);
+            if (failure != null) {
+                output.completeExceptionally(failure);
+            } else if (outputs == null || outputs.size() <= i) {
+                output.completeExceptionally(new IllegalStateException(OUTPUT_MISSING + i));
+            } else {
+                output.complete(outputs.get(i));
+            }
+        }
+    }
+    
+    private static final class Pending {
+        
+        private final InvocationInstance invocationInstance;
+        private final CompletableFuture<Object> output;
+        
+        private Pending(InvocationInstance invocationInstance, CompletableFuture<Object> output) {
+            this.invocationInstance = invocationInstance;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.annotations.Batch;
+import com.github.api.processor.cache.ApiProcessorCache;
+import com.github.api.processor.instance.MethodInstance;
+import com.github.api.processor.utils.Constants;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Creates the micro-batcher of each @Batch method with settings resolved giving 
+ * precedence to the annotation and then to the global properties.
+ * 
+ * @author github.
+ */
+@Singleton
+public class MicroBatchers {
+    
+    private final ApiProcessorProperties properties;
+    private final ApiProcessorCache processorCache;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Create MicroBatchers from passed parameters.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     * @param processorCache the cache to create batch execution handlers from.
+     * @param scheduler the scheduler batch windows are timed on.
+     */
+    @Inject
+    public MicroBatchers(ApiProcessorProperties properties, 
+            ApiProcessorCache processorCache, 
+            @Named(Constants.RETRY_SCHEDULER) ScheduledExecutorService scheduler) {
+        this.properties = properties;
+        this.processorCache = processorCache;
+        this.scheduler = scheduler;
+    }
+    
+    /**
+     * Create the micro-batcher of a single method.
+     * 
+     * @param methodInstance the method to create a micro-batcher for.
+     * @param executor the executor batches are executed on.
+     * @return newly created micro-batcher or null if method is not @Batch'ed.
+     */
+    public MicroBatcher microBatcherFrom(MethodInstance methodInstance, Executor executor) {
+        final Batch batch = (Batch) methodInstance.annotations().get(Batch.class.getName());
+        if (batch == null) {
+            return null;
+        }
+        
+        final int maxSize = (batch.maxSize() != Batch.INHERIT) 
+                ? batch.maxSize() 
+                : Integer.valueOf(properties.get(ApiProcessorConstants.BATCH_MAX_SIZE, ApiProcessorConstants.BATCH_MAX_SIZE_DEFAULT));
+        final long maxDelay = (batch.maxDelay() != Batch.INHERIT) 
+                ? batch.maxDelay() 
+                : Long.valueOf(properties.get(ApiProcessorConstants.BATCH_MAX_DELAY, ApiProcessorConstants.BATCH_MAX_DELAY_DEFAULT));
+        return new MicroBatcher(processorCache.typeFrom(batch.value()), maxSize, maxDelay, executor, scheduler);
+    }
+}
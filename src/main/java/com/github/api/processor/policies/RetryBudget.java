@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket limiting how many retries may be made. Tokens are refilled 
+ * at a fixed rate up to a maximum burst, so that when a backend browns out retries 
+ * are capped at that rate rather than multiplying outbound load. Implemented as a 
+ * generic cell rate algorithm, i.e. a single theoretical-arrival-time updated by CAS.
+ * 
+ * @author github.
+ */
+public final class RetryBudget {
+    
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Create RetryBudget from passed parameters.
+     * 
+     * @param permitsPerSecond rate at which retry tokens are refilled.
+     * @param burst maximum number of retry tokens that can be held at once.
+     */
+    public RetryBudget(double permitsPerSecond, long burst) {
+        checkArgument(permitsPerSecond > 0, "permitsPerSecond must be greater than 0");
+        checkArgument(burst > 0, "burst must be greater than 0");
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Take a single retry token if one is available.
+     * 
+     * @return true if token was taken and a retry can be made.
+     */
+    public boolean tryAcquire() {
+        final long now = System.nanoTime();
+        while (true) {
+            final long arrival = theoreticalArrival.get();
+            final long nextArrival = ((arrival - now > 0) ? arrival : now) + intervalNanos;
+            if (nextArrival - now > capacityNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, nextArrival)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Give back a token taken by {@link #tryAcquire()} for a retry which was not made.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
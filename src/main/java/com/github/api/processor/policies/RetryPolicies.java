@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.annotations.Idempotent;
+import com.github.api.processor.annotations.Retry;
+import com.github.api.processor.instance.ClassInstance;
+import com.github.api.processor.instance.MethodInstance;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.annotation.Annotation;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import net.jodah.failsafe.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the RetryPolicy of each Api method. Only idempotent methods are retried: those 
+ * annotated with @Idempotent, listed in {@link ApiProcessorConstants#IDEMPOTENT_METHODS} or 
+ * explicitly annotated with @Retry. Settings are resolved giving precedence to @Retry set 
+ * on the method, then the class, and lastly to the global properties. If the Api's, or the 
+ * global, {@link RetryBudget} is configured a {@link BudgetedRetryPolicy} is compiled, 
+ * such that every retry must also be granted by them.
+ * 
+ * @author github.
+ */
+@Singleton
+public class RetryPolicies {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicies.class);
+    
+    private static final String NOT_IDEMPOTENT_MESSAGE = "Not retrying non-idempotent method: {}";
+    private static final String RETRY_BUDGET_MESSAGE = "Creating new retry budget {} with rate={} and burst={}";
+    private static final String GLOBAL_BUDGET_NAME = "global";
+    
+    private final ApiProcessorProperties properties;
+    private final ImmutableSet<String> idempotentMethods;
+    private final ImmutableList<Class<? extends Throwable>> retryOn;
+    private final ImmutableList<Class<? extends Throwable>> abortOn;
+    
+    @Nullable
+    private final RetryBudget globalBudget;
+    
+    private final ClassValue<Optional<RetryBudget>> apiBudgets = new ClassValue<Optional<RetryBudget>>() {
+        @Override
+        protected Optional<RetryBudget> computeValue(Class<?> type) {
+            return Optional.ofNullable(retryBudgetFrom(type.getName(), "." + type.getName()));
+        }
+    };
+
+    /**
+     * Create RetryPolicies from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     */
+    @Inject
+    public RetryPolicies(ApiProcessorProperties properties) {
+        this.properties = properties;
+        this.idempotentMethods = ImmutableSet.copyOf(splitProperty(ApiProcessorConstants.IDEMPOTENT_METHODS));
+        this.retryOn = exceptionsFrom(splitProperty(ApiProcessorConstants.RETRY_ON));
+        this.abortOn = exceptionsFrom(splitProperty(ApiProcessorConstants.ABORT_ON));
+        this.globalBudget = retryBudgetFrom(GLOBAL_BUDGET_NAME, "");
+    }
+    
+    /**
+     * Compile the retry policy of a single method.
+     * 
+     * @param methodInstance the method to compile a retry policy for.
+     * @param classInstance the class the method is declared on.
+     * @return newly compiled retry policy or null if failures are not retried.
+     */
+    public RetryPolicy retryPolicyFrom(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        final Retry methodRetry = (Retry) methodInstance.annotations().get(Retry.class.getName());
+        final ImmutableList<Annotation> classRetries = classInstance.annotations().get(Retry.class.getName());
+        final Retry classRetry = (classRetries != null) ? (Retry) classRetries.get(0) : null;
+        
+        final int count = (int) retrySetting((methodRetry != null) ? methodRetry.count() : Retry.INHERIT, 
+                (classRetry != null) ? classRetry.count() : Retry.INHERIT, 
+                ApiProcessorConstants.RETRY_COUNT, ApiProcessorConstants.RETRY_COUNT_DEFAULT);
+        if (count <= 0) {
+            return null;
+        }
+        
+        if (methodRetry == null && !idempotent(methodInstance, classInstance)) {
+            LOGGER.debug(NOT_IDEMPOTENT_MESSAGE, classInstance.clazz().getName() + "#" + methodInstance.method());
+            return null;
+        }
+        
+        final long delay = (long) retrySetting((methodRetry != null) ? methodRetry.delay() : Retry.INHERIT, 
+                (classRetry != null) ? classRetry.delay() : Retry.INHERIT, 
+                ApiProcessorConstants.RETRY_DELAY_START, ApiProcessorConstants.RETRY_DELAY_START_DEFAULT);
+        final long maxDelay = (long) retrySetting((methodRetry != null) ? methodRetry.maxDelay() : Retry.INHERIT, 
+                (classRetry != null) ? classRetry.maxDelay() : Retry.INHERIT, 
+                ApiProcessorConstants.RETRY_DELAY_MAX, ApiProcessorConstants.RETRY_DELAY_MAX_DEFAULT);
+        final double multiplier = retrySetting((methodRetry != null) ? methodRetry.multiplier() : Retry.INHERIT, 
+                (classRetry != null) ? classRetry.multiplier() : Retry.INHERIT, 
+                ApiProcessorConstants.RETRY_DELAY_MULTIPLIER, ApiProcessorConstants.RETRY_DELAY_MULTIPLIER_DEFAULT);
+        final double jitter = retrySetting((methodRetry != null) ? methodRetry.jitter() : Retry.INHERIT, 
+                (classRetry != null) ? classRetry.jitter() : Retry.INHERIT, 
+                ApiProcessorConstants.RETRY_JITTER, ApiProcessorConstants.RETRY_JITTER_DEFAULT);
+        
+        final RetryBudget apiBudget = apiBudgets.get(classInstance.clazz()).orElse(null);
+        RetryPolicy retryPolicy = (apiBudget != null || globalBudget != null) 
+                ? new BudgetedRetryPolicy(apiBudget, globalBudget).withMaxRetries(count) 
+                : new RetryPolicy().withMaxRetries(count);
+        if (delay > 0) {
+            if (maxDelay > delay) {
+                retryPolicy.withBackoff(delay, maxDelay, TimeUnit.MILLISECONDS, multiplier);
+            } else {
+                retryPolicy.withDelay(delay, TimeUnit.MILLISECONDS);
+            }
+            if (jitter > 0) {
+                retryPolicy.withJitter(jitter);
+            }
+        }
+        
+        // Failsafe retries any failure unless a condition is set, 
+        // so only set one if there is something to decide.
+        final ExceptionClassifier classifier = new ExceptionClassifier(
+                exceptionsFrom((methodRetry != null) ? methodRetry.retryOn() : null, 
+                        (classRetry != null) ? classRetry.retryOn() : null, retryOn),
+                exceptionsFrom((methodRetry != null) ? methodRetry.abortOn() : null, 
+                        (classRetry != null) ? classRetry.abortOn() : null, abortOn));
+        if (!classifier.retriesAll()) {
+            retryPolicy.retryOn(classifier::test);
+        }
+        return retryPolicy;
+    }
+    
+    /**
+     * Whether a method is safe to re-run.
+     * 
+     * @param methodInstance the method to check.
+     * @param classInstance the class the method is declared on.
+     * @return true if method is idempotent.
+     */
+    public boolean idempotent(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        return methodInstance.annotations().get(Idempotent.class.getName()) != null 
+                || idempotentMethods.contains(methodInstance.method()) 
+                || idempotentMethods.contains(classInstance.clazz().getName() + "#" + methodInstance.method());
+    }
+    
+    private double retrySetting(double methodValue, double classValue, String property, String defaultValue) {
+        if (methodValue != Retry.INHERIT) {
+            return methodValue;
+        } else if (classValue != Retry.INHERIT) {
+            return classValue;
+        } else {
+            return Double.valueOf(properties.get(property, defaultValue));
+        }
+    }
+    
+    private RetryBudget retryBudgetFrom(String name, String suffix) {
+        String rate = properties.get(ApiProcessorConstants.RETRY_BUDGET_RATE + suffix);
+        if (rate == null || Double.valueOf(rate) <= 0) {
+            return null;
+        }
+        String burst = properties.get(ApiProcessorConstants.RETRY_BUDGET_BURST + suffix, 
+                properties.get(ApiProcessorConstants.RETRY_BUDGET_BURST, ApiProcessorConstants.RETRY_BUDGET_BURST_DEFAULT));
+        Object [] loggerParams = {name, rate, burst};
+        LOGGER.debug(RETRY_BUDGET_MESSAGE, loggerParams);
+        return new RetryBudget(Double.valueOf(rate), Long.valueOf(burst));
+    }
+    
+    private ImmutableList<Class<? extends Throwable>> exceptionsFrom(@Nullable Class<? extends Throwable>[] methodExceptions, 
+            @Nullable Class<? extends Throwable>[] classExceptions, 
+            ImmutableList<Class<? extends Throwable>> globalExceptions) {
+        if (methodExceptions != null && methodExceptions.length > 0) {
+            return ImmutableList.copyOf(methodExceptions);
+        } else if (classExceptions != null && classExceptions.length > 0) {
+            return ImmutableList.copyOf(classExceptions);
+        } else {
+            return globalExceptions;
+        }
+    }
+    
+    private ImmutableList<Class<? extends Throwable>> exceptionsFrom(Iterable<String> classNames) {
+        ImmutableList.Builder<Class<? extends Throwable>> listBuilder = ImmutableList.builder();
+        for (String className : classNames) {
+            try {
+                listBuilder.add(Class.forName(className).asSubclass(Throwable.class));
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw Throwables.propagate(e);
+            }
+        }
+        return listBuilder.build();
+    }
+    
+    private Iterable<String> splitProperty(String property) {
+        return Splitter.on(',').trimResults().omitEmptyStrings().split(properties.get(property, ""));
+    }
+}
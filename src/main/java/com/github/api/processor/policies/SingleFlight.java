@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.cache.ArgumentsKey;
+import com.github.api.processor.handlers.AbstractKeyExtractor;
+import com.github.api.processor.instance.InvocationInstance;
+import com.google.common.collect.Maps;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Coalesces identical concurrent invocations of a single Api method. The first invocation 
+ * of a key leads the flight and every other invocation of that key, arriving before the 
+ * leader completes, follows it and receives the same outcome.
+ * 
+ * @author github.
+ */
+public final class SingleFlight {
+    
+    private static final String KEY_IS_NULL = "keyExtractor returned a null key";
+    
+    @Nullable
+    private final AbstractKeyExtractor keyExtractor;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> flights = Maps.newConcurrentMap();
+
+    /**
+     * Create SingleFlight from passed key extractor.
+     * 
+     * @param keyExtractor the key extractor or null to coalesce on argument equality.
+     */
+    public SingleFlight(@Nullable AbstractKeyExtractor keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+    
+    /**
+     * Get the key an invocation is coalesced on.
+     * 
+     * @param invocationInstance the invocation being processed.
+     * @param args the arguments of the invocation.
+     * @return key of invocation.
+     */
+    public Object keyFrom(InvocationInstance invocationInstance, @Nullable Object [] args) {
+        return (keyExtractor != null) 
+                ? checkNotNull(keyExtractor.apply(invocationInstance), KEY_IS_NULL) 
+                : ArgumentsKey.of(args);
+    }
+    
+    /**
+     * Join the flight of a key, leading it by running the passed flight if none is in progress.
+     * 
+     * @param key the key of the invocation.
+     * @param flight the invocation to run if leading.
+     * @return future completed with the outcome of the flight. Each caller gets its 
+     *     own future so that none can complete, or cancel, the flight of another.
+     */
+    public CompletableFuture<Object> join(Object key, Supplier<CompletableFuture<Object>> flight) {
+        CompletableFuture<Object> current = flights.get(key);
+        if (current == null) {
+            final CompletableFuture<Object> leader = new CompletableFuture<>();
+            current = flights.putIfAbsent(key, leader);
+            if (current == null) {
+                current = leader;
+                try {
+                    flight.get().whenComplete((response, exception) -> {
+                        flights.remove(key, leader);
+                        if (exception == null) {
+                            leader.complete(response);
+                        } else {
+                            leader.completeExceptionally(exception);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    flights.remove(key, leader);
+                    leader.completeExceptionally(e);
+                }
+            }
+        }
+        return current.thenApply(Function.identity());
+    }
+}
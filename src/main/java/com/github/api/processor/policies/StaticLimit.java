@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed concurrency limit which never adjusts (i.e. a plain bulkhead).
+ * 
+ * @author github.
+ */
+public final class StaticLimit extends LimitAlgorithm {
+    
+    private final int limit;
+
+    public StaticLimit(int limit) {
+        checkArgument(limit > 0, "limit must be greater than 0");
+        this.limit = limit;
+    }
+    
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+        // never adjusts.
+    }
+}
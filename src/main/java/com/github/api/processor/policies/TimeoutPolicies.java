@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.ApiProcessorProperties;
+import com.github.api.processor.annotations.Hedge;
+import com.github.api.processor.annotations.Timeout;
+import com.github.api.processor.instance.ClassInstance;
+import com.github.api.processor.instance.MethodInstance;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.lang.annotation.Annotation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the timeouts, and creates the hedge policy, of each Api method with settings 
+ * resolved giving precedence to the method, then the class, and lastly to the global 
+ * properties. As a hedged attempt re-runs the ExecutionHandler only methods which 
+ * {@link RetryPolicies#idempotent(MethodInstance, ClassInstance)} are hedged.
+ * 
+ * @author github.
+ */
+@Singleton
+public class TimeoutPolicies {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeoutPolicies.class);
+    
+    private static final String NOT_IDEMPOTENT_MESSAGE = "Not hedging non-idempotent method: {}";
+    
+    private final ApiProcessorProperties properties;
+    private final RetryPolicies retryPolicies;
+
+    /**
+     * Create TimeoutPolicies from passed properties.
+     * 
+     * @param properties the properties to query for ApiProcessor constants.
+     * @param retryPolicies the RetryPolicies deciding which methods are idempotent.
+     */
+    @Inject
+    public TimeoutPolicies(ApiProcessorProperties properties, RetryPolicies retryPolicies) {
+        this.properties = properties;
+        this.retryPolicies = retryPolicies;
+    }
+    
+    /**
+     * Resolve the timeout of a single method's invocations.
+     * 
+     * @param methodInstance the method to resolve a timeout for.
+     * @param classInstance the class the method is declared on.
+     * @return timeout in milliseconds or 0 if invocations are not bounded.
+     */
+    public long timeoutFrom(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        final Timeout methodTimeout = (Timeout) methodInstance.annotations().get(Timeout.class.getName());
+        final Timeout classTimeout = classTimeoutFrom(classInstance);
+        return timeoutSetting((methodTimeout != null) ? methodTimeout.value() : Timeout.INHERIT, 
+                (classTimeout != null) ? classTimeout.value() : Timeout.INHERIT, 
+                ApiProcessorConstants.TIMEOUT, ApiProcessorConstants.TIMEOUT_DEFAULT);
+    }
+    
+    /**
+     * Resolve the timeout of each single attempt of a method.
+     * 
+     * @param methodInstance the method to resolve an attempt timeout for.
+     * @param classInstance the class the method is declared on.
+     * @return timeout in milliseconds or 0 if attempts are not bounded.
+     */
+    public long attemptTimeoutFrom(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        final Timeout methodTimeout = (Timeout) methodInstance.annotations().get(Timeout.class.getName());
+        final Timeout classTimeout = classTimeoutFrom(classInstance);
+        return timeoutSetting((methodTimeout != null) ? methodTimeout.attempt() : Timeout.INHERIT, 
+                (classTimeout != null) ? classTimeout.attempt() : Timeout.INHERIT, 
+                ApiProcessorConstants.ATTEMPT_TIMEOUT, ApiProcessorConstants.ATTEMPT_TIMEOUT_DEFAULT);
+    }
+    
+    /**
+     * Create the hedge policy of a single method.
+     * 
+     * @param methodInstance the method to create a hedge policy for.
+     * @param classInstance the class the method is declared on.
+     * @return newly created hedge policy or null if attempts are not hedged.
+     */
+    public HedgePolicy hedgePolicyFrom(MethodInstance methodInstance, ClassInstance<?> classInstance) {
+        final Hedge methodHedge = (Hedge) methodInstance.annotations().get(Hedge.class.getName());
+        final ImmutableList<Annotation> classHedges = classInstance.annotations().get(Hedge.class.getName());
+        final Hedge classHedge = (classHedges != null) ? (Hedge) classHedges.get(0) : null;
+        
+        final boolean enabled;
+        if (methodHedge != null) {
+            enabled = methodHedge.enabled();
+        } else if (classHedge != null) {
+            enabled = classHedge.enabled();
+        } else {
+            enabled = Boolean.valueOf(properties.get(ApiProcessorConstants.HEDGE, ApiProcessorConstants.HEDGE_DEFAULT));
+        }
+        if (!enabled) {
+            return null;
+        }
+        
+        if (!retryPolicies.idempotent(methodInstance, classInstance)) {
+            LOGGER.debug(NOT_IDEMPOTENT_MESSAGE, classInstance.clazz().getName() + "#" + methodInstance.method());
+            return null;
+        }
+        
+        final double percentile = setting((methodHedge != null) ? methodHedge.percentile() : Hedge.INHERIT, 
+                (classHedge != null) ? classHedge.percentile() : Hedge.INHERIT, 
+                ApiProcessorConstants.HEDGE_PERCENTILE, ApiProcessorConstants.HEDGE_PERCENTILE_DEFAULT);
+        final int window = (int) setting((methodHedge != null) ? methodHedge.window() : Hedge.INHERIT, 
+                (classHedge != null) ? classHedge.window() : Hedge.INHERIT, 
+                ApiProcessorConstants.HEDGE_WINDOW, ApiProcessorConstants.HEDGE_WINDOW_DEFAULT);
+        return new HedgePolicy(percentile, window);
+    }
+    
+    private Timeout classTimeoutFrom(ClassInstance<?> classInstance) {
+        final ImmutableList<Annotation> classTimeouts = classInstance.annotations().get(Timeout.class.getName());
+        return (classTimeouts != null) ? (Timeout) classTimeouts.get(0) : null;
+    }
+    
+    private long timeoutSetting(long methodValue, long classValue, String property, String defaultValue) {
+        if (methodValue != Timeout.INHERIT) {
+            return Math.max(0, methodValue);
+        } else if (classValue != Timeout.INHERIT) {
+            return Math.max(0, classValue);
+        } else {
+            return Math.max(0, Long.valueOf(properties.get(property, defaultValue)));
+        }
+    }
+    
+    private double setting(double methodValue, double classValue, String property, String defaultValue) {
+        if (methodValue != Hedge.INHERIT) {
+            return methodValue;
+        } else if (classValue != Hedge.INHERIT) {
+            return classValue;
+        } else {
+            return Double.valueOf(properties.get(property, defaultValue));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.api.processor.proxy;
+
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+
+/**
+ * Base class of every class generated by the {@link ProxyGenerator}. Generated classes 
+ * are shared by every handler of their interface, so each instance holds its own handler 
+ * and MethodDispatchers, and handles equals, hashCode and toString the same way 
+ * Guava's AbstractInvocationHandler does for a java.lang.reflect.Proxy.
+ * 
+ * @author github.
+ */
+public abstract class GeneratedProxy {
+    
+    private final AbstractRuntimeInvocationHandler invocationHandler;
+    private final MethodDispatcher[] dispatchers;
+    
+    /**
+     * Create GeneratedProxy from passed parameters.
+     * 
+     * @param invocationHandler the handler every generated method will dispatch to.
+     * @param dispatchers the dispatcher of each generated method, in generated order.
+     */
+    protected GeneratedProxy(AbstractRuntimeInvocationHandler invocationHandler, MethodDispatcher[] dispatchers) {
+        this.invocationHandler = invocationHandler;
+        this.dispatchers = dispatchers;
+    }
+    
+    /**
+     * Get the dispatcher of the generated method at the passed index.
+     * 
+     * @param index index of the generated method.
+     * @return dispatcher of the generated method.
+     */
+    protected final MethodDispatcher proxyDispatcher(int index) {
+        return dispatchers[index];
+    }
+    
+    /**
+     * Equal to other instances of the same generated class that dispatch to an equal handler.
+     * 
+     * @param other the object to compare against.
+     * @return true if equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return getClass().isInstance(other) && invocationHandler.equals(((GeneratedProxy) other).invocationHandler);
+    }
+    
+    @Override
+    public int hashCode() {
+        return invocationHandler.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return invocationHandler.toString();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.proxy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.instance.InvocationPlan;
+import java.lang.reflect.Method;
+
+/**
+ * Binds a single Api method, by way of its compiled InvocationPlan, to the invocation 
+ * handler which processes it. Each method of a generated proxy holds its own 
+ * MethodDispatcher, so invocations never have to look up which Method was called.
+ * 
+ * @author github.
+ */
+public final class MethodDispatcher {
+    
+    private final AbstractRuntimeInvocationHandler invocationHandler;
+    private final InvocationPlan plan;
+    
+    /**
+     * Create MethodDispatcher from passed parameters.
+     * 
+     * @param invocationHandler the handler which will process invocations.
+     * @param method the method this dispatcher is bound to.
+     */
+    public MethodDispatcher(AbstractRuntimeInvocationHandler invocationHandler, Method method) {
+        this.invocationHandler = checkNotNull(invocationHandler, "invocationHandler cannot be null");
+        this.plan = invocationHandler.planFor(checkNotNull(method, "method cannot be null"));
+    }
+    
+    public InvocationPlan plan() {
+        return plan;
+    }
+    
+    /**
+     * Dispatch an invocation of the bound method.
+     * 
+     * @param source the proxy instance the method was invoked on.
+     * @param args the arguments passed to the method.
+     * @return the result of the invocation.
+     * @throws Throwable if invocation fails.
+     */
+    public Object dispatch(Object source, Object[] args) throws Throwable {
+        return invocationHandler.dispatch(source, plan, args);
+    }
+}
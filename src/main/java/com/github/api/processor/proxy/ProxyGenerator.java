@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.proxy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.google.common.base.Throwables;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * Generates a concrete class per Api interface in place of a java.lang.reflect.Proxy. 
+ * Every method of the generated class calls straight into its own MethodDispatcher, 
+ * which keeps each call site monomorphic and skips the reflective Proxy and 
+ * AbstractInvocationHandler entry points.
+ * 
+ * <p>
+ * A class is generated once per interface, and shared by every handler of it, while 
+ * the handler and its MethodDispatchers are held by each instance: a class left 
+ * behind in its ClassLoader thus never holds on to the handler of an ApiProcessor.
+ * </p>
+ * 
+ * @author github.
+ */
+public final class ProxyGenerator {
+    
+    private static final String GENERATED_SUFFIX = "$$ApiProcessorProxy";
+    
+    private static final Method DISPATCH_METHOD;
+    private static final Method DISPATCHER_METHOD;
+
+    static {
+        try {
+            DISPATCH_METHOD = MethodDispatcher.class.getMethod("dispatch", Object.class, Object[].class);
+            DISPATCHER_METHOD = GeneratedProxy.class.getDeclaredMethod("proxyDispatcher", int.class);
+        } catch (NoSuchMethodException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+    
+    private static final ClassValue<GeneratedClass> GENERATED_CLASSES = new ClassValue<GeneratedClass>() {
+        @Override
+        protected GeneratedClass computeValue(Class<?> type) {
+            return generate(type);
+        }
+    };
+    
+    /**
+     * Create a new instance of the class generated for the passed interface.
+     * 
+     * @param <T> the Type of this interface.
+     * @param proxyInterface interface the generated class will implement.
+     * @param invocationHandler the handler every generated method will dispatch to.
+     * @return newly created instance of the generated class.
+     */
+    public static <T> T newProxy(Class<T> proxyInterface, AbstractRuntimeInvocationHandler invocationHandler) {
+        checkNotNull(proxyInterface, "proxyInterface cannot be null");
+        checkArgument(proxyInterface.isInterface(), "proxyInterface is not an interface");
+        checkNotNull(invocationHandler, "invocationHandler cannot be null");
+        
+        final GeneratedClass generatedClass = GENERATED_CLASSES.get(proxyInterface);
+        final MethodDispatcher[] dispatchers = new MethodDispatcher[generatedClass.methods.size()];
+        for (int i = 0; i < dispatchers.length; i++) {
+            dispatchers[i] = new MethodDispatcher(invocationHandler, generatedClass.methods.get(i));
+        }
+        try {
+            return proxyInterface.cast(generatedClass.constructor.newInstance(invocationHandler, dispatchers));
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+    
+    private static GeneratedClass generate(Class<?> proxyInterface) {
+        DynamicType.Builder<GeneratedProxy> builder = new ByteBuddy()
+                .subclass(GeneratedProxy.class, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_OPENING)
+                .implement(proxyInterface)
+                .name(proxyInterface.getName() + GENERATED_SUFFIX);
+        
+        // equals, hashCode and toString are handled by GeneratedProxy itself.
+        final List<Method> methods = new ArrayList<>();
+        for (Method method : proxyInterface.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            
+            builder = builder.method(ElementMatchers.is(method))
+                    .intercept(MethodCall.invoke(DISPATCH_METHOD)
+                            .onMethodCall(MethodCall.invoke(DISPATCHER_METHOD).with(methods.size()))
+                            .withThis()
+                            .withArgumentArray()
+                            .withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+            methods.add(method);
+        }
+        
+        final Class<?> generated = builder.make()
+                .load(proxyInterface.getClassLoader(), loadingStrategy(proxyInterface, methods))
+                .getLoaded();
+        try {
+            return new GeneratedClass(generated.getConstructor(AbstractRuntimeInvocationHandler.class, MethodDispatcher[].class), methods);
+        } catch (NoSuchMethodException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+    
+    /**
+     * Generated classes are defined in a child ClassLoader of the interface's own, when 
+     * every type they refer to is public, such that they can be unloaded along with it. 
+     * Otherwise they are injected into the interface's own ClassLoader, when possible, 
+     * so that non-public interfaces can be implemented as well.
+     * 
+     * @param proxyInterface the interface being implemented.
+     * @param methods the methods being implemented.
+     * @return strategy to load generated classes with.
+     */
+    private static ClassLoadingStrategy<ClassLoader> loadingStrategy(Class<?> proxyInterface, List<Method> methods) {
+        boolean accessible = isPublic(proxyInterface);
+        for (Method method : methods) {
+            accessible &= isPublic(method.getReturnType());
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                accessible &= isPublic(parameterType);
+            }
+        }
+        return (accessible || !ClassInjector.UsingReflection.isAvailable())
+                ? ClassLoadingStrategy.Default.WRAPPER 
+                : ClassLoadingStrategy.Default.INJECTION;
+    }
+    
+    private static boolean isPublic(Class<?> type) {
+        Class<?> current = type;
+        while (current.isArray()) {
+            current = current.getComponentType();
+        }
+        for (; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    private ProxyGenerator() {
+        throw new UnsupportedOperationException("intentionally unimplemented");
+    }
+    
+    /**
+     * The class generated for an interface along with the methods it 
+     * implements, in the order their MethodDispatchers are expected.
+     */
+    private static final class GeneratedClass {
+        
+        private final Constructor<?> constructor;
+        private final List<Method> methods;
+        
+        private GeneratedClass(Constructor<?> constructor, List<Method> methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.tracing;
+
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.github.api.processor.metrics.Stage;
+import javax.annotation.Nullable;
+
+/**
+ * Receives a callback for each completed stage (span) of an invocation and for the notable 
+ * events in between. Every callback is a no-op by default, and spans are only timed and 
+ * reported for the stages {@link #isEnabled(Stage)} returns true for, so that an idle tracer 
+ * costs the hot path a single check per stage and allocates nothing. A stage which throws 
+ * is not reported on its own but through the failure of the enclosing INVOCATION span. 
+ * Callbacks are made on whichever thread completed the stage and must not block. Can be set 
+ * through the ApiProcessor.Builder and defaults to {@link Slf4jTracer}.
+ * 
+ * @author github.
+ */
+public abstract class AbstractTracer {
+    
+    /**
+     * Whether spans of the passed stage should be timed and reported. Queried on every 
+     * invocation and so should be cheap.
+     * 
+     * @param stage the stage about to run.
+     * @return true if spans of stage should be reported.
+     */
+    public boolean isEnabled(Stage stage) {
+        return false;
+    }
+    
+    /**
+     * Called once a stage of an invocation has completed.
+     * 
+     * @param stage the completed stage.
+     * @param invocationInstance the invocation the stage belongs to.
+     * @param latency time (in nanoseconds) the stage took.
+     * @param failure the exception the stage failed with, or null if it succeeded.
+     */
+    public void onSpan(Stage stage, InvocationInstance invocationInstance, long latency, @Nullable Throwable failure) {
+    }
+    
+    /**
+     * Called before a failed attempt of the ExecutionHandler is retried.
+     * 
+     * @param invocationInstance the invocation being retried.
+     * @param attempt number of attempts made thus far.
+     * @param failure the exception the last attempt failed with.
+     */
+    public void onRetry(InvocationInstance invocationInstance, int attempt, Throwable failure) {
+    }
+    
+    /**
+     * Called when a slow attempt of the ExecutionHandler is hedged with a speculative one.
+     * 
+     * @param invocationInstance the invocation being hedged.
+     */
+    public void onHedge(InvocationInstance invocationInstance) {
+    }
+    
+    /**
+     * Called when a @Delegate method hands back an instance of its Api.
+     * 
+     * @param plan the plan of the delegate method.
+     */
+    public void onDelegate(InvocationPlan plan) {
+    }
+}
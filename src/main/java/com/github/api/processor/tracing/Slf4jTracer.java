@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.tracing;
+
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.github.api.processor.metrics.Stage;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default tracer which logs spans at TRACE, and retries, hedges and delegates at DEBUG. 
+ * Nothing is formatted, nor timed, unless the respective level is enabled.
+ * 
+ * @author github.
+ */
+public class Slf4jTracer extends AbstractTracer {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(Slf4jTracer.class);
+    
+    private static final String SPAN_MESSAGE = "{} of {} took {}ns";
+    private static final String SPAN_FAILED_MESSAGE = "{} of {} failed after {}ns";
+    private static final String RETRY_MESSAGE = "Retrying {} after attempt {} failed";
+    private static final String HEDGE_MESSAGE = "Hedging slow invocation attempt on {}";
+    private static final String DELEGATE_MESSAGE = "Delegate method returning instance of {}";
+
+    @Override
+    public boolean isEnabled(Stage stage) {
+        return LOGGER.isTraceEnabled();
+    }
+
+    @Override
+    public void onSpan(Stage stage, InvocationInstance invocationInstance, long latency, @Nullable Throwable failure) {
+        if (failure == null) {
+            LOGGER.trace(SPAN_MESSAGE, stage, invocationInstance, latency);
+        } else {
+            LOGGER.trace(SPAN_FAILED_MESSAGE, stage, invocationInstance, latency, failure);
+        }
+    }
+
+    @Override
+    public void onRetry(InvocationInstance invocationInstance, int attempt, Throwable failure) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(RETRY_MESSAGE, invocationInstance, attempt, failure);
+        }
+    }
+
+    @Override
+    public void onHedge(InvocationInstance invocationInstance) {
+        LOGGER.debug(HEDGE_MESSAGE, invocationInstance);
+    }
+
+    @Override
+    public void onDelegate(InvocationPlan plan) {
+        LOGGER.debug(DELEGATE_MESSAGE, plan.delegateType());
+    }
+}
@@ -22,14 +22,25 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Throwables;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Singleton;
 import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
 
 /**
  *
@@ -41,6 +52,11 @@ public class ApiProcessorUtils {
     private static final String CLASS_ANNO_NULL = "class annotataion cannot be null";
     private static final String CLASS_ANNO_REQUIRED = "class must be an annotation";
     private static final String POTENTIAL_PRIMITIVE_NULL = "potentialPrimitive class cannot be null";
+    private static final String SCAN_LOAD_FAILED = "could not load every class annotated with %s found on classpath";
+    private static final String SCAN_THREAD_NAME = "api-processor-scan-%d";
+    
+    // set by GraalVM, to either "buildtime" or "runtime", while building or running a native-image.
+    private static final String NATIVE_IMAGE_CODE = "org.graalvm.nativeimage.imagecode";
     
     /**
      * Find all classes on the path annotated with given annotation.
@@ -49,16 +65,123 @@ public class ApiProcessorUtils {
      * @return set of annotated classes.
      */
     public Set<Class> findClassesAnnotatedWith(Class annotation) {
+        return findClassesAnnotatedWith(annotation, Collections.emptySet(), Runtime.getRuntime().availableProcessors(), null);
+    } 
+    
+    /**
+     * Find all classes, within the passed whitelists, annotated with given annotation. 
+     * Classpath elements are scanned in parallel and, if a cache directory is passed, 
+     * the result is persisted such that a later scan of an unchanged classpath is skipped.
+     * 
+     * @param annotation the annotation to scan for.
+     * @param scanSpec package prefixes and "jar:" prefixed jar names to whitelist, 
+     *        where an empty spec scans the whole classpath.
+     * @param threads number of threads to scan with.
+     * @param cacheDirectory directory to persist results to, or null to not persist.
+     * @return set of annotated classes.
+     */
+    public Set<Class> findClassesAnnotatedWith(Class annotation, Collection<String> scanSpec, int threads, @Nullable Path cacheDirectory) {
+        return findClassesAnnotatedWith(annotation, scanSpec, threads, cacheDirectory, Collections.emptySet());
+    }
+    
+    /**
+     * Like findClassesAnnotatedWith(Class, Collection, int, Path) but never scanning 
+     * the passed classpath elements, e.g. those already covered by an ApiIndex.
+     * 
+     * @param annotation the annotation to scan for.
+     * @param scanSpec package prefixes and "jar:" prefixed jar names to whitelist, 
+     *        where an empty spec scans the whole classpath.
+     * @param threads number of threads to scan with.
+     * @param cacheDirectory directory to persist results to, or null to not persist.
+     * @param skipElements canonical files of the jars and directories to not scan.
+     * @return set of annotated classes.
+     */
+    public Set<Class> findClassesAnnotatedWith(Class annotation, Collection<String> scanSpec, int threads, @Nullable Path cacheDirectory, Collection<File> skipElements) {
         checkNotNull(annotation, CLASS_ANNO_NULL);
         checkArgument(annotation.isAnnotation(), CLASS_ANNO_REQUIRED);
-        Set<Class> builtApis = Sets.newHashSet();
-        new FastClasspathScanner()
-                .matchClassesWithAnnotation(annotation, c -> {
-                    builtApis.add(c);
-                }).scan();
-        return builtApis;
-    } 
+        checkNotNull(scanSpec, "scanSpec cannot be null");
+        checkNotNull(skipElements, "skipElements cannot be null");
+        checkArgument(threads > 0, "threads must be greater than 0");
+        
+        final ClassLoader loader = ApiProcessorUtils.class.getClassLoader();
+        final String [] spec = scanSpec.toArray(new String[scanSpec.size()]);
+        FastClasspathScanner scanner = new FastClasspathScanner(spec);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, 
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat(SCAN_THREAD_NAME).build());
+        try {
+            List<File> elements = null;
+            if (!skipElements.isEmpty()) {
+                elements = Lists.newArrayList();
+                for (File element : scanner.getUniqueClasspathElements(executor, threads)) {
+                    if (!skipElements.contains(canonicalFile(element))) {
+                        elements.add(element);
+                    }
+                }
+                if (elements.isEmpty()) {
+                    return Sets.newHashSet();
+                }
+                scanner = new FastClasspathScanner(spec).overrideClasspath(elements);
+            }
+            
+            ClasspathScanCache cache = null;
+            if (cacheDirectory != null) {
+                cache = ClasspathScanCache.of(cacheDirectory, annotation, scanSpec, 
+                        (elements != null) ? elements : scanner.getUniqueClasspathElements(executor, threads));
+                final List<String> cachedClassNames = cache.read();
+                if (cachedClassNames != null) {
+                    final Set<Class> cachedClasses = loadClasses(cachedClassNames, loader);
+                    if (cachedClasses != null) {
+                        return cachedClasses;
+                    }
+                    cache.invalidate();
+                }
+            }
+            
+            final List<String> classNames = scanner.scan(executor, threads).getNamesOfClassesWithAnnotation(annotation);
+            final Set<Class> classes = loadClasses(classNames, loader);
+            if (classes == null) {
+                throw new IllegalStateException(String.format(SCAN_LOAD_FAILED, annotation.getName()));
+            }
+            if (cache != null) {
+                cache.write(classNames);
+            }
+            return classes;
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private static File canonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+    
+    // null if any class could not be loaded.
+    private static Set<Class> loadClasses(List<String> classNames, ClassLoader loader) {
+        final Set<Class> classes = Sets.newHashSet();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        }
+        return classes;
+    }
         
+    /**
+     * Whether to run in a manner a GraalVM native-image supports.
+     * 
+     * @param configured value of the native-image property.
+     * @return true if configured to, or running within, a native-image.
+     */
+    public static boolean nativeImage(@Nullable String configured) {
+        return Boolean.parseBoolean(configured) || System.getProperty(NATIVE_IMAGE_CODE) != null;
+    }
+    
     public Class[] getGenericTypesAsClasses(Class clazz) {
         TypeToken.TypeSet genericType = TypeToken.of(clazz).getTypes();
         Iterator<TypeToken> iter = genericType.iterator();
@@ -71,7 +194,7 @@ public class ApiProcessorUtils {
                 Class[] typeClasses = new Class[classStrings.length];
                 for (int i = 0; i < typeClasses.length; i++) {
                     try {
-                        typeClasses[i] = Class.forName(classStrings[i]);
+                        typeClasses[i] = Class.forName(classStrings[i], true, clazz.getClassLoader());
                     } catch (ClassNotFoundException ex) {
                         throw Throwables.propagate(ex);
                     }
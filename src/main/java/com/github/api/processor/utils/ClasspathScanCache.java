@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persisted results of a classpath scan. Each result is stored in its own file, 
+ * named by a hash of what was scanned for and of the path, size and modification 
+ * time of every classpath element, such that any change to the deployment simply 
+ * misses the cache.
+ * 
+ * @author github.
+ */
+final class ClasspathScanCache {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathScanCache.class);
+    
+    private static final String SUFFIX = ".scan";
+    
+    private static final String CACHE_HIT_MESSAGE = "Using cached classpath scan at: {}";
+    private static final String CACHE_READ_MESSAGE = "Failed reading cached classpath scan at: {}";
+    private static final String CACHE_WRITE_MESSAGE = "Failed writing cached classpath scan to: {}";
+    
+    private final Path file;
+    
+    private ClasspathScanCache(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Get the cache for a single scan of the passed classpath elements.
+     * 
+     * @param directory directory holding cached scans.
+     * @param annotation the annotation being scanned for.
+     * @param scanSpec the package and jar whitelists of the scan.
+     * @param classpathElements the unique classpath elements to be scanned.
+     * @return cache of this scan.
+     */
+    static ClasspathScanCache of(Path directory, Class annotation, Collection<String> scanSpec, List<File> classpathElements) {
+        checkNotNull(directory, "directory cannot be null");
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putString(annotation.getName(), StandardCharsets.UTF_8)
+                .putString(String.join(",", scanSpec), StandardCharsets.UTF_8);
+        for (File element : classpathElements) {
+            hasher.putString(element.getAbsolutePath(), StandardCharsets.UTF_8);
+            if (element.isDirectory()) {
+                
+                // a directory's own modification time does not change with that of nested files.
+                try (Stream<Path> files = Files.walk(element.toPath())) {
+                    files.forEach(path -> {
+                        final File nested = path.toFile();
+                        hasher.putString(path.toString(), StandardCharsets.UTF_8)
+                                .putLong(nested.length())
+                                .putLong(nested.lastModified());
+                    });
+                } catch (IOException | RuntimeException e) {
+                    hasher.putLong(System.nanoTime());
+                }
+            } else {
+                hasher.putLong(element.length()).putLong(element.lastModified());
+            }
+        }
+        return new ClasspathScanCache(directory.resolve(hasher.hash().toString() + SUFFIX));
+    }
+    
+    /**
+     * Read the names of the classes found by a previous scan.
+     * 
+     * @return names of found classes or null if no previous scan was cached.
+     */
+    List<String> read() {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            final List<String> classNames = lines.map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .collect(Collectors.toList());
+            LOGGER.debug(CACHE_HIT_MESSAGE, file);
+            return classNames;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(CACHE_READ_MESSAGE, file, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Write the names of the classes found by this scan. Failures are logged 
+     * as the cache is only an optimization.
+     * 
+     * @param classNames names of found classes.
+     */
+    void write(Collection<String> classNames) {
+        try {
+            Files.createDirectories(file.getParent());
+            final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), null);
+            Files.write(temp, classNames, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(CACHE_WRITE_MESSAGE, file, e);
+        }
+    }
+    
+    /**
+     * Remove this scan from the cache, for example because a cached class can 
+     * no longer be loaded.
+     */
+    void invalidate() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn(CACHE_WRITE_MESSAGE, file, e);
+        }
+    }
+    
+    Path file() {
+        return file;
+    }
+}
@@ -32,6 +32,8 @@ public class Constants {
     public static final int EXECUTION_HANDLER_TO_RESPONSE_HANDLER_CHECK = 3;
     public static final int RESPONSE_HANDLER_TO_RETURN_VALUE_CHECK = 4;
     public static final int EXECUTION_HANDLER_TO_RETURN_VALUE_CHECK = 5;
+    
+    public static final String RETRY_SCHEDULER = "api-processor.retry-scheduler";
 
     private Constants() {
         throw new UnsupportedOperationException("Purposely not implemented");
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.warmup;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.api.processor.cache.ApiProcessorCache;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.github.api.processor.metrics.ApiProcessorMetrics;
+import com.github.api.processor.metrics.MethodMetrics;
+import com.github.api.processor.utils.ApiProcessorUtils;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import net.jodah.failsafe.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives every method of a set of Api's through the runtime invocation handler a 
+ * number of times, ahead of any real traffic, such that the JIT compiles the dispatch 
+ * and handler paths. Each method is invoked through a copy of its plan whose 
+ * ExecutionHandler is replaced by a side-effect free stub, returning a synthesized 
+ * value, and which shares none of the state (response caches, circuit breakers, 
+ * concurrency limits, batches, single flights, retry budgets, hedge latencies or 
+ * metrics) real invocations use.
+ *
+ * @author github.
+ */
+public class JitWarmUp {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(JitWarmUp.class);
+    
+    private static final String WARM_UP_STARTED_MESSAGE = "JIT warm-up of {} invocation(s) per method started";
+    private static final String WARM_UP_FINISHED_MESSAGE = "JIT warm-up of {} method(s) finished in {}ms with {} failed invocation(s)";
+    private static final String INVOCATION_FAILED_MESSAGE = "JIT warm-up invocation of {} failed due to: {}";
+    
+    private final AbstractRuntimeInvocationHandler invocationHandler;
+    private final ApiProcessorCache processorCache;
+    private final ApiProcessorUtils processorUtils;
+    private final int invocations;
+    private final AbstractWarmUpArguments arguments;
+    
+    public JitWarmUp(AbstractRuntimeInvocationHandler invocationHandler, 
+            ApiProcessorCache processorCache, 
+            ApiProcessorUtils processorUtils, 
+            int invocations, 
+            @Nullable AbstractWarmUpArguments arguments) {
+        this.invocationHandler = checkNotNull(invocationHandler, "invocationHandler cannot be null");
+        this.processorCache = checkNotNull(processorCache, "processorCache cannot be null");
+        this.processorUtils = checkNotNull(processorUtils, "processorUtils cannot be null");
+        checkArgument(invocations > 0, "invocations must be greater than 0");
+        this.invocations = invocations;
+        this.arguments = arguments;
+    }
+    
+    /**
+     * Warm up every method of the passed Api's, as well as those of any Api's reachable 
+     * through their @Delegate methods. Failed invocations are logged and otherwise ignored.
+     * 
+     * @param apis the Api's to warm up.
+     */
+    public void run(Set<Class> apis) {
+        LOGGER.info(WARM_UP_STARTED_MESSAGE, invocations);
+        final long startedAt = System.nanoTime();
+        int methods = 0;
+        int failures = 0;
+        
+        final Set<Class> warmed = Sets.newHashSet();
+        final Deque<Class> pending = new ArrayDeque<>(apis);
+        while (!pending.isEmpty()) {
+            final Class api = pending.pop();
+            if (warmed.add(api)) {
+                final Object source = processorCache.proxyFrom(api, invocationHandler);
+                for (Method method : api.getMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers())) {
+                        final InvocationPlan plan = invocationHandler.planFor(method);
+                        if (plan.delegate()) {
+                            pending.push(plan.delegateType());
+                        }
+                        failures += warmUp(source, plan.delegate() ? plan : stubbed(plan));
+                        methods++;
+                    }
+                }
+            }
+        }
+        LOGGER.info(WARM_UP_FINISHED_MESSAGE, methods, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), failures);
+    }
+    
+    /**
+     * Invoke a single method through the passed plan.
+     * 
+     * @return number of failed invocations.
+     */
+    private int warmUp(Object source, InvocationPlan plan) {
+        int failures = 0;
+        for (int i = 0; i < invocations; i++) {
+            try {
+                final Object returnValue = invocationHandler.dispatch(source, plan, argumentsFor(plan.method()));
+                if (plan.async() && returnValue != null) {
+                    ((CompletionStage) returnValue).toCompletableFuture().join();
+                }
+            } catch (Throwable e) {
+                Throwables.propagateIfInstanceOf(e, Error.class);
+                if (failures++ == 0) {
+                    LOGGER.debug(INVOCATION_FAILED_MESSAGE, plan, e.toString());
+                }
+            }
+        }
+        return failures;
+    }
+    
+    private Object [] argumentsFor(Method method) {
+        final Object [] supplied = (arguments != null) ? arguments.apply(method) : null;
+        if (supplied != null) {
+            checkArgument(supplied.length == method.getParameterCount(), 
+                    "warm-up arguments of %s must number %s", method, method.getParameterCount());
+            return supplied;
+        }
+        return SyntheticValues.argumentsOf(method.getParameterTypes());
+    }
+    
+    /**
+     * Copy the passed plan replacing its ExecutionHandler with a stub and removing 
+     * any state shared with real invocations.
+     */
+    private InvocationPlan stubbed(InvocationPlan plan) {
+        return plan.toBuilder()
+                .executionHandler(new StubExecutionHandler(SyntheticValues.valueOf(outputTypeOf(plan))))
+                .retryPolicy(plan.retryPolicy() != null ? new RetryPolicy(plan.retryPolicy()) : null)
+                .hedgePolicy(plan.hedgePolicy() != null ? plan.hedgePolicy().copy() : null)
+                .circuitBreaker(null)
+                .concurrencyLimiter(null)
+                .microBatcher(null)
+                .singleFlight(null)
+                .responseCache(null)
+                .metrics(plan.metrics() != null ? new MethodMetrics(ApiProcessorMetrics.nameOf(plan.method())) : null)
+                .build();
+    }
+    
+    /**
+     * Get the most specific type the real ExecutionHandler of the passed plan outputs.
+     */
+    private Class outputTypeOf(InvocationPlan plan) {
+        if (plan.microBatcher() != null) {
+            return plan.returnType();
+        }
+        final Class [] genericTypes = processorUtils.getGenericTypesAsClasses(plan.executionHandler().getClass());
+        final Class outputType = (genericTypes.length > 1) ? genericTypes[1] : Object.class;
+        return (plan.responseHandler() == null && outputType.isAssignableFrom(plan.returnType())) 
+                ? plan.returnType() 
+                : outputType;
+    }
+    
+    private static final class StubExecutionHandler extends AbstractExecutionHandler<Object, Object> {
+        
+        private final Object output;
+        
+        StubExecutionHandler(@Nullable Object output) {
+            this.output = output;
+        }
+        
+        @Override
+        public Object apply(InvocationInstance<Object> invocationInstance) {
+            return output;
+        }
+    }
+}
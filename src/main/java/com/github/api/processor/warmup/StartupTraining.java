@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.warmup;
+
+import com.github.api.processor.ApiProcessor;
+import com.github.api.processor.ApiProcessorConstants;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Training entry point which builds an ApiProcessor, from the build-time Api index or 
+ * the Api's passed as arguments, and drives every method once through the JIT warm-up 
+ * before exiting. Run it on the application's classpath to record the classes loaded 
+ * at startup into an AppCDS archive:
+ * 
+ *     java -XX:DumpLoadedClassList=api.classlist -cp app.jar com.github.api.processor.warmup.StartupTraining
+ *     java -Xshare:dump -XX:SharedClassListFile=api.classlist -XX:SharedArchiveFile=api.jsa -cp app.jar
+ *     java -XX:SharedArchiveFile=api.jsa -cp app.jar com.example.Main
+ * 
+ * or, under the native-image agent, to capture the reflective configuration of the 
+ * libraries ApiProcessor itself depends on (e.g. Guice):
+ * 
+ *     java -agentlib:native-image-agent=config-merge-dir=src/main/resources/META-INF/native-image/app -cp app.jar com.github.api.processor.warmup.StartupTraining
+ * 
+ * Usage: StartupTraining [--invocations N] [api-class-name ...]
+ *
+ * @author github.
+ */
+public final class StartupTraining {
+    
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTraining.class);
+    
+    private static final String INVOCATIONS_ARGUMENT = "--invocations";
+    private static final int DEFAULT_INVOCATIONS = 1;
+    private static final long READY_TIMEOUT_MINUTES = 10;
+    
+    private static final String TRAINING_FINISHED_MESSAGE = "Startup training finished in {}ms";
+    
+    private StartupTraining() {
+        throw new UnsupportedOperationException("intentionally unimplemented");
+    }
+    
+    public static void main(String[] args) throws Exception {
+        final long startedAt = System.nanoTime();
+        int invocations = DEFAULT_INVOCATIONS;
+        boolean apisPassed = false;
+        final ApiProcessor.Builder builder = ApiProcessor.builder();
+        for (int i = 0; i < args.length; i++) {
+            if (INVOCATIONS_ARGUMENT.equals(args[i]) && i + 1 < args.length) {
+                invocations = Integer.parseInt(args[++i]);
+            } else {
+                builder.api(Class.forName(args[i]));
+                apisPassed = true;
+            }
+        }
+        if (!apisPassed) {
+            builder.scanClasspath();
+        }
+        
+        final ApiProcessor apiProcessor = builder
+                .properties(ApiProcessorConstants.JIT_WARM_UP, String.valueOf(invocations))
+                .build();
+        apiProcessor.ready().get(READY_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        LOGGER.info(TRAINING_FINISHED_MESSAGE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.warmup;
+
+import com.google.common.base.Defaults;
+import com.google.common.primitives.Primitives;
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Synthesizes side-effect free stand-in values, for use as warm-up arguments and 
+ * outputs, of a requested type: zero for primitives and their wrappers, empty strings, 
+ * arrays and collections, the first constant of enums, and null for anything else.
+ *
+ * @author github.
+ */
+public final class SyntheticValues {
+    
+    // immutable such that values can be shared by every warm-up invocation.
+    private static final Object [] CANDIDATES = {
+        "", 
+        Collections.emptyList(), 
+        Collections.emptySortedSet(), 
+        Collections.emptySortedMap(), 
+        Optional.empty()
+    };
+    
+    private SyntheticValues() {
+        throw new UnsupportedOperationException("intentionally unimplemented");
+    }
+    
+    /**
+     * Synthesize a value of the passed type.
+     * 
+     * @param type the type to synthesize a value of.
+     * @return synthesized value or null if none could be synthesized.
+     */
+    public static Object valueOf(Class type) {
+        if (type == null || Object.class.equals(type) || void.class.equals(type) || Void.class.equals(type)) {
+            return null;
+        } else if (type.isPrimitive() || Primitives.isWrapperType(type)) {
+            return Defaults.defaultValue(Primitives.unwrap(type));
+        } else if (type.isArray()) {
+            return Array.newInstance(type.getComponentType(), 0);
+        } else if (type.isEnum()) {
+            final Object [] constants = type.getEnumConstants();
+            return constants.length > 0 ? constants[0] : null;
+        }
+        for (Object candidate : CANDIDATES) {
+            if (type.isInstance(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Synthesize an argument for each parameter of the passed types.
+     * 
+     * @param types the parameter types to synthesize arguments for.
+     * @return synthesized arguments.
+     */
+    public static Object [] argumentsOf(Class [] types) {
+        final Object [] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = valueOf(types[i]);
+        }
+        return arguments;
+    }
+}
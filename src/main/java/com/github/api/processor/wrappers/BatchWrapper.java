@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.wrappers;
+
+import com.github.api.processor.instance.InvocationInstance;
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A batch of invocations passed to an AbstractBatchExecutionHandler. Individual 
+ * invocations can be failed, without failing the rest of the batch, through 
+ * {@link #fail(int, Throwable)}.
+ *
+ * @author github.
+ * @param <T>
+ */
+public class BatchWrapper<T> {
+    
+    private final ImmutableList<InvocationInstance<T>> invocations;
+    private final AtomicReferenceArray<Throwable> failures;
+    
+    public BatchWrapper(ImmutableList<InvocationInstance<T>> invocations) {
+        this.invocations = invocations;
+        this.failures = new AtomicReferenceArray<>(invocations.size());
+    }
+    
+    public ImmutableList<InvocationInstance<T>> invocations() {
+        return invocations;
+    }
+    
+    public int size() {
+        return invocations.size();
+    }
+    
+    /**
+     * Fail a single invocation of this batch. Its output, if any, is ignored.
+     * 
+     * @param index the index of the invocation.
+     * @param exception the exception to pass on to the invocation's ErrorHandler.
+     */
+    public void fail(int index, Throwable exception) {
+        failures.set(index, exception);
+    }
+    
+    public Throwable failure(int index) {
+        return failures.get(index);
+    }
+    
+    public static <T> BatchWrapper<T> newInstance(ImmutableList<InvocationInstance<T>> invocations) {
+        return new BatchWrapper<>(invocations);
+    }
+}
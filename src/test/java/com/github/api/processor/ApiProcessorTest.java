@@ -17,33 +17,92 @@
 
 package com.github.api.processor;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 import com.github.api.processor.annotations.Api;
 import com.github.api.processor.annotations.Args;
+import com.github.api.processor.annotations.Batch;
+import com.github.api.processor.annotations.Cached;
+import com.github.api.processor.annotations.Coalesce;
 import com.github.api.processor.annotations.ArgsValue;
 import com.github.api.processor.annotations.Delegate;
 import com.github.api.processor.annotations.ErrorHandler;
 import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.ExecutorProvider;
 import com.github.api.processor.annotations.FallbackHandler;
+import com.github.api.processor.annotations.Hedge;
+import com.github.api.processor.annotations.Idempotent;
 import com.github.api.processor.annotations.RequestHandler;
 import com.github.api.processor.annotations.ResponseHandler;
+import com.github.api.processor.annotations.Retry;
+import com.github.api.processor.annotations.Timeout;
+import com.github.api.processor.cache.ApiProcessorCache;
+import com.github.api.processor.cache.ResponseCache;
+import com.github.api.processor.exceptions.ApiWarmUpException;
+import com.github.api.processor.executors.AbstractExecutorProvider;
+import com.github.api.processor.handlers.AbstractBatchExecutionHandler;
 import com.github.api.processor.handlers.AbstractErrorHandler;
 import com.github.api.processor.handlers.AbstractExecutionHandler;
 import com.github.api.processor.handlers.AbstractFallbackHandler;
 import com.github.api.processor.handlers.AbstractRequestHandler;
 import com.github.api.processor.handlers.AbstractResponseHandler;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.index.ApiIndex;
 import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.instance.InvocationPlan;
+import com.github.api.processor.metrics.ApiProcessorMetrics;
+import com.github.api.processor.metrics.Counter;
+import com.github.api.processor.metrics.MethodSnapshot;
+import com.github.api.processor.metrics.Stage;
+import com.github.api.processor.proxy.ProxyGenerator;
+import com.github.api.processor.wrappers.BatchWrapper;
 import com.github.api.processor.wrappers.ErrorWrapper;
 import com.github.api.processor.wrappers.FallbackWrapper;
 import com.github.api.processor.wrappers.ResponseWrapper;
+import com.github.pipeline.processor.exceptions.CheckTimeTypeMismatchException;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.Reflection;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.testng.annotations.Test;
 import org.testng.collections.Maps;
 
 public class ApiProcessorTest {
     
+    private static final AtomicInteger INTERRUPTED = new AtomicInteger();
+    
     private class SpecialBean {
         private Map<String, String> properties = Maps.newHashMap();
         
@@ -94,6 +153,106 @@ public class ApiProcessorTest {
         }
     }
         
+    class SlowExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                INTERRUPTED.incrementAndGet();
+                Thread.currentThread().interrupt();
+            }
+            return 123;
+        }
+    }
+        
+    static class CountingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        static final AtomicInteger EXECUTIONS = new AtomicInteger();
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            return EXECUTIONS.incrementAndGet();
+        }
+    }
+        
+    static class FailingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        static final Set<Thread> THREADS = Sets.newConcurrentHashSet();
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            THREADS.add(Thread.currentThread());
+            throw new IllegalStateException("attempt failed");
+        }
+    }
+        
+    static class EchoExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            Integer argument = (Integer) object.argument(0);
+            Thread.yield();
+            return argument.equals(object.argumentInstance(0).getValue()) 
+                    && argument.equals(object.parameterInstance(0).getValue()) ? argument : -1;
+        }
+    }
+        
+    static class BlockingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        static final ConcurrentMap<Object, AtomicInteger> EXECUTIONS = new ConcurrentHashMap<>();
+        static volatile CountDownLatch release = new CountDownLatch(0);
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            int executions = EXECUTIONS.computeIfAbsent(object.argument(0), key -> new AtomicInteger()).incrementAndGet();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return executions;
+        }
+    }
+        
+    static class SizeBatchExecutionHandler extends AbstractBatchExecutionHandler<Integer, Integer> {
+        @Override
+        public List<Integer> apply(BatchWrapper<Integer> object) {
+            return Collections.nCopies(object.size(), object.size());
+        }
+    }
+        
+    static class ErrorBatchExecutionHandler extends AbstractBatchExecutionHandler<Integer, Integer> {
+        @Override
+        public List<Integer> apply(BatchWrapper<Integer> object) {
+            throw new AssertionError("batch failed");
+        }
+    }
+        
+    @Singleton
+    static class InjectedExecutorProvider extends AbstractExecutorProvider implements AutoCloseable {
+        
+        private final AtomicInteger executed = new AtomicInteger();
+        private final ExecutorService executor;
+        
+        @Inject
+        InjectedExecutorProvider(ApiProcessorProperties properties) {
+            this.executor = Executors.newSingleThreadExecutor();
+        }
+        
+        @Override
+        public Executor get() {
+            return command -> {
+                executed.incrementAndGet();
+                executor.execute(command);
+            };
+        }
+        
+        @Override
+        public void close() {
+            executor.shutdown();
+        }
+    }
+        
     class LocalResponseHandler extends AbstractResponseHandler<Integer, Object> {
         @Override
         public Object apply(ResponseWrapper<Integer, Object> object) {
@@ -158,6 +317,58 @@ public class ApiProcessorTest {
         @ErrorHandler(LocalErrorHandler.class)
         @FallbackHandler(LocalFallbackHandler.class)
         int helloWorld(@Nullable @ArgsValue("message") String message, String monkey, int number);
+        
+        @ExecutionHandler(LocalExecutionHandler.class)
+        @ErrorHandler(LocalErrorHandler.class)
+        @FallbackHandler(LocalFallbackHandler.class)
+        @Retry(count = 2, delay = 10)
+        CompletableFuture<Integer> helloWorldAsync(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(SlowExecutionHandler.class)
+        @FallbackHandler(LocalFallbackHandler.class)
+        @Timeout(50)
+        int helloWorldSlow(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(SlowExecutionHandler.class)
+        @FallbackHandler(LocalFallbackHandler.class)
+        @Retry(count = 1, delay = 0)
+        @Timeout(value = 2000, attempt = 50)
+        int helloWorldSlowAttempts(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(LocalExecutionHandler.class)
+        @ErrorHandler(LocalErrorHandler.class)
+        @FallbackHandler(LocalFallbackHandler.class)
+        @Retry(count = 5, delay = 1000)
+        @Timeout(200)
+        int helloWorldRetriedSlowly(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(CountingExecutionHandler.class)
+        @Cached
+        int helloWorldCached(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(CountingExecutionHandler.class)
+        @Idempotent
+        @Hedge(window = 10)
+        int helloWorldHedged(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(CountingExecutionHandler.class)
+        @Batch(value = SizeBatchExecutionHandler.class, maxSize = 10, maxDelay = 1000)
+        CompletableFuture<Integer> helloWorldBatched(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(CountingExecutionHandler.class)
+        @Batch(value = ErrorBatchExecutionHandler.class, maxSize = 10, maxDelay = 1000)
+        CompletableFuture<Integer> helloWorldBatchedError(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(EchoExecutionHandler.class)
+        int helloWorldEcho(int number);
+        
+        @ExecutionHandler(FailingExecutionHandler.class)
+        @Retry(count = 2, delay = 10)
+        int helloWorldRetried(@Nullable @ArgsValue("message") String message);
+        
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        @Coalesce
+        int helloWorldCoalesced(@Nullable @ArgsValue("message") String message);
 
     }
     
@@ -168,6 +379,41 @@ public class ApiProcessorTest {
         HelloWorld helloWorld();
     }
     
+    // not an @Api, such that no implementation is generated at compile-time.
+    public static interface ProxiedApi {
+        
+        @ExecutionHandler(EchoExecutionHandler.class)
+        int echo(int number);
+    }
+    
+    // not an @Api, such that it is only seen by testExecutorProvider.
+    @ExecutorProvider(InjectedExecutorProvider.class)
+    static interface ExecutorProviderApi {
+        
+        @ExecutionHandler(CountingExecutionHandler.class)
+        CompletableFuture<Integer> count();
+    }
+    
+    // only ever named, by testMetricsNames.
+    static interface OverloadedApi {
+        
+        void at(java.util.Date date);
+        
+        void at(java.sql.Date date);
+        
+        void at(String[] dates);
+    }
+    
+    // not an @Api, such that it is only seen by testWarmUp.
+    static interface MismatchedApi {
+        
+        @ExecutionHandler(LocalExecutionHandler.class)
+        String first();
+        
+        @ExecutionHandler(LocalExecutionHandler.class)
+        List<String> second();
+    }
+    
     @Test
     public void testSomeLibraryMethod() {
         
@@ -191,6 +437,480 @@ public class ApiProcessorTest {
         //System.out.println("output=" + helloWorld.helloWorld("bear", null, 123));
         //System.out.println("output=" + helloWorld.helloWorld("tiger", null, 123));
     }
+    
+    @Test
+    public void testGeneratedProxies() {
+        HelloWorldApi helloWorldApi = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .generateProxies()
+                .build()
+                .get(HelloWorldApi.class);
+        assertThat(Proxy.isProxyClass(helloWorldApi.getClass())).isFalse();
+        
+        HelloWorld helloWorld = helloWorldApi.helloWorld();
+        assertThat(Proxy.isProxyClass(helloWorld.getClass())).isFalse();
+        assertThat(helloWorld.helloWorld("bear", null, 123)).isEqualTo(998877);
+    }
+    
+    @Test
+    public void testGeneratedProxyObjectMethods() {
+        ProxiedApi reflected = ApiProcessor.builder()
+                .api(ProxiedApi.class)
+                .build()
+                .get(ProxiedApi.class);
+        AbstractRuntimeInvocationHandler invocationHandler = (AbstractRuntimeInvocationHandler) Proxy.getInvocationHandler(reflected);
+        ProxiedApi generated = ProxyGenerator.newProxy(ProxiedApi.class, invocationHandler);
+        ProxiedApi other = ApiProcessor.builder()
+                .api(ProxiedApi.class)
+                .generateProxies()
+                .build()
+                .get(ProxiedApi.class);
+        
+        // one class is generated per interface, whichever handler it dispatches to.
+        assertThat(Proxy.isProxyClass(generated.getClass())).isFalse();
+        assertThat(other.getClass()).isEqualTo(generated.getClass());
+        assertThat(generated.echo(123)).isEqualTo(123);
+        assertThat(other.echo(456)).isEqualTo(456);
+        
+        // equals, hashCode and toString behave as they do for a java.lang.reflect.Proxy.
+        assertThat(generated.hashCode()).isEqualTo(reflected.hashCode());
+        assertThat(generated.toString()).isEqualTo(reflected.toString());
+        assertThat(generated).isEqualTo(ProxyGenerator.newProxy(ProxiedApi.class, invocationHandler));
+        assertThat(reflected).isEqualTo(Reflection.newProxy(ProxiedApi.class, invocationHandler));
+        assertThat(generated).isNotEqualTo(other);
+        assertThat(generated.equals(null)).isFalse();
+    }
+    
+    @Test
+    public void testExecutorProvider() throws Exception {
+        ApiProcessor apiProcessor = ApiProcessor.builder()
+                .api(ExecutorProviderApi.class)
+                .build();
+        apiProcessor.get(ExecutorProviderApi.class).count().get(10, TimeUnit.SECONDS);
+        
+        // created through the injector, once per ApiProcessor, and closed along with it.
+        InjectedExecutorProvider executorProvider = apiProcessor.get(InjectedExecutorProvider.class);
+        assertThat(executorProvider.executed.get()).isEqualTo(1);
+        apiProcessor.close();
+        assertThat(executorProvider.executor.isShutdown()).isTrue();
+    }
+    
+    @Test
+    public void testAsyncInvocation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            HelloWorld helloWorld = ApiProcessor.builder()
+                    .api(HelloWorldApi.class)
+                    .asyncExecutor(executor)
+                    .build()
+                    .get(HelloWorldApi.class)
+                    .helloWorld();
+            
+            CompletableFuture<Integer> future = helloWorld.helloWorldAsync("bear");
+            assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(998877);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testResponseCache() {
+        ApiProcessor apiProcessor = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build();
+        HelloWorld helloWorld = apiProcessor.get(HelloWorldApi.class).helloWorld();
+        
+        int first = helloWorld.helloWorldCached("bear");
+        assertThat(helloWorld.helloWorldCached("bear")).isEqualTo(first);
+        assertThat(helloWorld.helloWorldCached("tiger")).isNotEqualTo(first);
+        
+        ResponseCache responseCache = apiProcessor.get(ApiProcessorCache.class).responseCaches().values().iterator().next();
+        assertThat(responseCache.stats().hitCount()).isEqualTo(1);
+        assertThat(responseCache.stats().missCount()).isEqualTo(2);
+    }
+    
+    @Test
+    public void testMicroBatching() throws Exception {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        
+        List<CompletableFuture<Integer>> futures = ImmutableList.of(helloWorld.helloWorldBatched("a"), 
+                helloWorld.helloWorldBatched("b"), helloWorld.helloWorldBatched("c"), 
+                helloWorld.helloWorldBatched("d"), helloWorld.helloWorldBatched("e"));
+        int largestBatch = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            largestBatch = Math.max(largestBatch, future.get(10, TimeUnit.SECONDS));
+        }
+        assertThat(largestBatch).isGreaterThan(1);
+    }
+    
+    @Test
+    public void testBatchError() throws Exception {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        
+        List<CompletableFuture<Integer>> futures = ImmutableList.of(helloWorld.helloWorldBatchedError("a"), 
+                helloWorld.helloWorldBatchedError("b"), helloWorld.helloWorldBatchedError("c"));
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertThat(Throwables.getCausalChain(e).stream().anyMatch(AssertionError.class::isInstance)).isTrue();
+            }
+        }
+    }
+    
+    @Test
+    public void testApiIndex() {
+        ApiIndex apiIndex = ApiIndex.load(ApiProcessorTest.class.getClassLoader());
+        assertThat(apiIndex.apis(ApiProcessorTest.class.getClassLoader())).contains(HelloWorld.class, HelloWorldApi.class);
+    }
+    
+    @Test
+    public void testApiIndexScanSpec() throws Exception {
+        ClassLoader loader = ApiProcessorTest.class.getClassLoader();
+        ApiIndex apiIndex = ApiIndex.load(loader);
+        File testClasses = new File(ApiProcessorTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        assertThat(apiIndex.locations()).contains(testClasses.getCanonicalFile());
+        assertThat(apiIndex.apis(loader, ImmutableList.of("com.github.api.processor.policies"))).doesNotContain(HelloWorld.class, HelloWorldApi.class);
+        assertThat(apiIndex.apis(loader, ImmutableList.of("com.github.api.processor.policiesx"))).isEmpty();
+        // a directory is never excluded by a jar whitelist.
+        assertThat(apiIndex.apis(loader, ImmutableList.of("jar:none.jar"))).contains(HelloWorld.class, HelloWorldApi.class);
+        
+        Class retriedApi = Class.forName("com.github.api.processor.policies.RetryPoliciesTest$RetriedApi");
+        ApiProcessor apiProcessor = ApiProcessor.builder()
+                .scanPackages(retriedApi.getPackage().getName())
+                .build();
+        assertThat(apiProcessor.get(retriedApi)).isNotNull();
+        try {
+            apiProcessor.get(HelloWorldApi.class);
+            fail("expected ConfigurationException");
+        } catch (ConfigurationException e) {
+            // HelloWorldApi is indexed but not within the whitelisted package.
+        }
+    }
+    
+    @Test
+    public void testScanCache() throws Exception {
+        Path scanCache = Files.createTempDirectory("api-processor-scan");
+        for (int i = 0; i < 2; i++) {
+            HelloWorldApi helloWorldApi = ApiProcessor.builder()
+                    .scanPackages(ApiProcessorTest.class.getPackage().getName())
+                    .properties(ApiProcessorConstants.API_INDEX, "false")
+                    .properties(ApiProcessorConstants.SCAN_CACHE, scanCache.toString())
+                    .build()
+                    .get(HelloWorldApi.class);
+            assertThat(helloWorldApi.helloWorld()).isNotNull();
+            try (Stream<Path> cached = Files.list(scanCache)) {
+                assertThat(cached.count()).isEqualTo(1);
+            }
+        }
+    }
+    
+    @Test
+    public void testWarmUp() {
+        assertThat(ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .warmUp()
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld()
+                .helloWorldCached("bear")).isNotNull();
+        
+        try {
+            ApiProcessor.builder().api(MismatchedApi.class).warmUp().build();
+            fail("expected ApiWarmUpException");
+        } catch (ApiWarmUpException e) {
+            assertThat(e.failures()).hasSize(2);
+            assertThat(e.getSuppressed()).hasSize(2);
+        }
+    }
+    
+    @Test
+    public void testJitWarmUp() throws Exception {
+        int executions = CountingExecutionHandler.EXECUTIONS.get();
+        ApiProcessor apiProcessor = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .jitWarmUp(100)
+                .properties(ApiProcessorConstants.METRICS, "true")
+                .build();
+        apiProcessor.ready().get(30, TimeUnit.SECONDS);
+        assertThat(apiProcessor.isReady()).isTrue();
+        
+        // warm-up must neither execute the real handler nor be seen by caches or metrics.
+        assertThat(CountingExecutionHandler.EXECUTIONS.get()).isEqualTo(executions);
+        MethodSnapshot snapshot = apiProcessor.metrics()
+                .method(ApiProcessorMetrics.nameOf(HelloWorld.class.getMethod("helloWorldCached", String.class)));
+        assertThat(snapshot.latency(Stage.INVOCATION).count()).isEqualTo(0);
+        assertThat(apiProcessor.get(HelloWorldApi.class).helloWorld().helloWorldCached("bear")).isEqualTo(executions + 1);
+        
+        // nor are the stub's latencies seen by the hedge policy.
+        InvocationPlan hedgedPlan = apiProcessor.get(AbstractRuntimeInvocationHandler.class)
+                .planFor(HelloWorld.class.getMethod("helloWorldHedged", String.class));
+        assertThat(hedgedPlan.hedgePolicy().delay()).isEqualTo(-1);
+    }
+    
+    @Test
+    public void testMetricsNames() throws Exception {
+        assertThat(ApiProcessorMetrics.nameOf(OverloadedApi.class.getMethod("at", java.util.Date.class)))
+                .isEqualTo(OverloadedApi.class.getName() + "#at(java.util.Date)");
+        assertThat(ApiProcessorMetrics.nameOf(OverloadedApi.class.getMethod("at", java.sql.Date.class)))
+                .isEqualTo(OverloadedApi.class.getName() + "#at(java.sql.Date)");
+        assertThat(ApiProcessorMetrics.nameOf(OverloadedApi.class.getMethod("at", String[].class)))
+                .isEqualTo(OverloadedApi.class.getName() + "#at(java.lang.String[])");
+    }
+    
+    @Test
+    public void testPlanSnapshot() throws Exception {
+        Path planSnapshot = Files.createTempDirectory("api-processor-plans").resolve("plans.snapshot");
+        ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .properties(ApiProcessorConstants.PLAN_SNAPSHOT, planSnapshot.toString())
+                .build();
+        List<String> snapshot = Files.readAllLines(planSnapshot);
+        String cachedMethod = ApiProcessorMetrics.nameOf(HelloWorld.class.getMethod("helloWorldCached", String.class));
+        assertThat(snapshot.stream().anyMatch(line -> line.startsWith(cachedMethod))).isTrue();
+        
+        // on restart valid entries are reused while stale entries are compiled in full, and snapshot again.
+        Files.write(planSnapshot, snapshot.stream()
+                .map(line -> line.startsWith(cachedMethod) ? line.replaceFirst("\t[0-9a-f]{64}\t", "\tstale\t") : line)
+                .collect(Collectors.toList()));
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .properties(ApiProcessorConstants.PLAN_SNAPSHOT, planSnapshot.toString())
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        assertThat(Files.readAllLines(planSnapshot)).isEqualTo(snapshot);
+        assertThat(helloWorld.helloWorld("bear", null, 123)).isEqualTo(998877);
+    }
+    
+    @Test
+    public void testPlanSnapshotTypeChange() throws Exception {
+        Path planSnapshot = Files.createTempDirectory("api-processor-plans").resolve("plans.snapshot");
+        Map<String, String> sources = Maps.newHashMap();
+        sources.put("snapshot.Foo", "package snapshot; public class Foo {}");
+        sources.put("snapshot.Bar", "package snapshot; public class Bar extends Foo {}");
+        sources.put("snapshot.BarExecutionHandler", "package snapshot; "
+                + "public class BarExecutionHandler extends com.github.api.processor.handlers.AbstractExecutionHandler<Object, Bar> { "
+                + "    public Bar apply(com.github.api.processor.instance.InvocationInstance<Object> instance) { return new Bar(); } "
+                + "}");
+        sources.put("snapshot.FooApi", "package snapshot; "
+                + "@com.github.api.processor.annotations.Api public interface FooApi { "
+                + "    @com.github.api.processor.annotations.ExecutionHandler(BarExecutionHandler.class) Foo foo(); "
+                + "}");
+        Path before = Files.createTempDirectory("api-processor-classes");
+        assertThat(TestCompiler.errors(TestCompiler.compile(before, Collections.emptySet(), sources))).isEmpty();
+        
+        // Bar no longer extends the return type, while the Api and handler classes are unchanged.
+        sources.put("snapshot.Bar", "package snapshot; public class Bar {}");
+        Path after = Files.createTempDirectory("api-processor-classes");
+        assertThat(TestCompiler.errors(TestCompiler.compile(after, Collections.emptySet(), sources))).isEmpty();
+        
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {before.toUri().toURL()}, ApiProcessorTest.class.getClassLoader())) {
+            ApiProcessor.builder()
+                    .api(loader.loadClass("snapshot.FooApi"))
+                    .properties(ApiProcessorConstants.PLAN_SNAPSHOT, planSnapshot.toString())
+                    .build();
+        }
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {after.toUri().toURL()}, ApiProcessorTest.class.getClassLoader())) {
+            ApiProcessor.builder()
+                    .api(loader.loadClass("snapshot.FooApi"))
+                    .properties(ApiProcessorConstants.PLAN_SNAPSHOT, planSnapshot.toString())
+                    .build();
+            fail("expected CheckTimeTypeMismatchException");
+        } catch (CheckTimeTypeMismatchException e) {
+            assertThat(e.getMessage()).contains("BarExecutionHandler");
+        }
+    }
+    
+    @Test
+    public void testNativeImage() {
+        HelloWorldApi helloWorldApi = ApiProcessor.builder()
+                .scanClasspath()
+                .generateProxies()
+                .properties(ApiProcessorConstants.NATIVE_IMAGE, "true")
+                .build()
+                .get(HelloWorldApi.class);
+        
+        // Apis come from the index, and no classes are generated at runtime.
+        assertThat(Proxy.isProxyClass(helloWorldApi.getClass())).isTrue();
+        assertThat(helloWorldApi.helloWorld().helloWorld("bear", null, 123)).isEqualTo(998877);
+    }
+    
+    @Test
+    public void testRetryOffCallerThread() {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        try {
+            helloWorld.helloWorldRetried("bear");
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).isEqualTo("attempt failed");
+        }
+        
+        // every attempt ran on the executor while the caller waited.
+        assertThat(FailingExecutionHandler.THREADS).isNotEmpty().doesNotContain(Thread.currentThread());
+    }
+    
+    @Test
+    public void testCoalesce() throws Exception {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        
+        // compile the plan up front, such that no caller waits on anything but the flight.
+        assertThat(helloWorld.helloWorldCoalesced("warm")).isEqualTo(1);
+        
+        BlockingExecutionHandler.release = new CountDownLatch(1);
+        Map<String, List<Integer>> results = new ConcurrentHashMap<>();
+        List<Thread> callers = Stream.of("bear", "fish")
+                .flatMap(message -> IntStream.range(0, 8).mapToObj(i -> new Thread(() -> 
+                        results.computeIfAbsent(message, key -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(helloWorld.helloWorldCoalesced(message)))))
+                .collect(Collectors.toList());
+        callers.forEach(Thread::start);
+        
+        // every caller is either executing the flight of its message, or waiting on it.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING 
+                || caller.getState() == Thread.State.TIMED_WAITING)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        BlockingExecutionHandler.release.countDown();
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        
+        // equal arguments reach the ExecutionHandler once, different arguments are not merged.
+        assertThat(BlockingExecutionHandler.EXECUTIONS.get("bear").get()).isEqualTo(1);
+        assertThat(BlockingExecutionHandler.EXECUTIONS.get("fish").get()).isEqualTo(1);
+        assertThat(results.get("bear")).hasSize(8).containsOnly(1);
+        assertThat(results.get("fish")).hasSize(8).containsOnly(1);
+    }
+    
+    @Test
+    public void testConcurrentArguments() throws Exception {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Boolean>> results = IntStream.range(0, 8)
+                    .mapToObj(thread -> CompletableFuture.supplyAsync(() -> {
+                        for (int i = 0; i < 1000; i++) {
+                            int number = thread * 1000 + i;
+                            if (helloWorld.helloWorldEcho(number) != number) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }, executor))
+                    .collect(Collectors.toList());
+            for (CompletableFuture<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testMetrics() throws Exception {
+        ApiProcessor apiProcessor = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .properties(ApiProcessorConstants.METRICS, "true")
+                .build();
+        HelloWorld helloWorld = apiProcessor.get(HelloWorldApi.class).helloWorld();
+        helloWorld.helloWorldCached("bear");
+        helloWorld.helloWorldCached("bear");
+        
+        MethodSnapshot snapshot = apiProcessor.metrics()
+                .method(ApiProcessorMetrics.nameOf(HelloWorld.class.getMethod("helloWorldCached", String.class)));
+        assertThat(snapshot.latency(Stage.INVOCATION).count()).isEqualTo(2);
+        assertThat(snapshot.latency(Stage.EXECUTION).count()).isEqualTo(1);
+        assertThat(snapshot.counter(Counter.FALLBACKS)).isEqualTo(0);
+        
+        // metrics are opt-in.
+        ApiProcessor unmetered = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build();
+        unmetered.get(HelloWorldApi.class).helloWorld().helloWorldCached("bear");
+        assertThat(unmetered.metrics().methods()).isEmpty();
+    }
+    
+    @Test
+    public void testMetricsJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("com.github.api.processor:type=ApiMethod,*");
+        int registered = server.queryNames(query, null).size();
+        for (int i = 0; i < 3; i++) {
+            try (ApiProcessor apiProcessor = ApiProcessor.builder()
+                    .api(HelloWorldApi.class)
+                    .properties(ApiProcessorConstants.METRICS, "true")
+                    .properties(ApiProcessorConstants.METRICS_JMX, "true")
+                    .build()) {
+                assertThat(server.queryNames(query, null).size()).isGreaterThan(registered);
+                assertThat(apiProcessor.get(HelloWorldApi.class).helloWorld().helloWorldCached("bear")).isNotNull();
+            }
+            
+            // every MXBean of a closed ApiProcessor is unregistered.
+            assertThat(server.queryNames(query, null)).hasSize(registered);
+        }
+    }
+    
+    @Test
+    public void testInvocationTimeout() {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        
+        int interrupted = INTERRUPTED.get();
+        long start = System.nanoTime();
+        assertThat(helloWorld.helloWorldSlow("bear")).isEqualTo(998877);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+        
+        // the timed out attempt is cancelled rather than left running on the executor.
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (INTERRUPTED.get() == interrupted && System.nanoTime() < waitUntil) {
+            Thread.yield();
+        }
+        assertThat(INTERRUPTED.get()).isGreaterThan(interrupted);
+    }
+    
+    @Test
+    public void testInvocationDeadline() {
+        HelloWorld helloWorld = ApiProcessor.builder()
+                .api(HelloWorldApi.class)
+                .build()
+                .get(HelloWorldApi.class)
+                .helloWorld();
+        
+        // the deadline bounds every retry and the delays between them.
+        long start = System.nanoTime();
+        assertThat(helloWorld.helloWorldRetriedSlowly("bear")).isEqualTo(998877);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        
+        // while each attempt is bounded, and retried, on its own.
+        start = System.nanoTime();
+        assertThat(helloWorld.helloWorldSlowAttempts("bear")).isEqualTo(998877);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+    }
 }
-
-
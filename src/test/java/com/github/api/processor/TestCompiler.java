@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles sources, held in memory, against the test classpath for tests of what 
+ * happens at compile-time, or when classes change between runs.
+ * 
+ * @author github.
+ */
+public final class TestCompiler {
+    
+    private TestCompiler() {
+    }
+    
+    /**
+     * Compile the passed sources.
+     * 
+     * @param outputDirectory the directory to write class files, and generated sources, to.
+     * @param processors the annotation processors to run, where none disables annotation processing.
+     * @param sources source code keyed by binary name of its top-level class.
+     * @return diagnostics reported while compiling.
+     * @throws IOException if compiler could not be setup.
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> compile(Path outputDirectory, 
+            Collection<? extends Processor> processors, 
+            Map<String, String> sources) throws IOException {
+        return compile(outputDirectory, processors, Collections.emptyList(), sources);
+    }
+    
+    /**
+     * Compile the passed sources with additional compiler options (e.g. "-Akey=value").
+     * 
+     * @param outputDirectory the directory to write class files, and generated sources, to.
+     * @param processors the annotation processors to run, where none disables annotation processing.
+     * @param options additional options passed to the compiler.
+     * @param sources source code keyed by binary name of its top-level class.
+     * @return diagnostics reported while compiling.
+     * @throws IOException if compiler could not be setup.
+     */
+    public static List<Diagnostic<? extends JavaFileObject>> compile(Path outputDirectory, 
+            Collection<? extends Processor> processors, 
+            List<String> options, 
+            Map<String, String> sources) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, null)) {
+            final List<String> compilerOptions = new ArrayList<>(Arrays.asList("-d", outputDirectory.toString(), 
+                    "-s", outputDirectory.toString(), 
+                    "-classpath", System.getProperty("java.class.path")));
+            if (processors.isEmpty()) {
+                compilerOptions.add("-proc:none");
+            }
+            compilerOptions.addAll(options);
+            final List<JavaFileObject> units = sources.entrySet().stream()
+                    .map(entry -> new Source(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, units);
+            if (!processors.isEmpty()) {
+                task.setProcessors(processors);
+            }
+            task.call();
+        }
+        return diagnostics.getDiagnostics();
+    }
+    
+    /**
+     * Get the messages of every error reported while compiling.
+     * 
+     * @param diagnostics the diagnostics reported while compiling.
+     * @return messages of errors, empty if compiled.
+     */
+    public static List<String> errors(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return diagnostics.stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+    
+    private static final class Source extends SimpleJavaFileObject {
+        
+        private final String code;
+        
+        Source(String binaryName, String code) {
+            super(URI.create("string:///" + binaryName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+        
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}
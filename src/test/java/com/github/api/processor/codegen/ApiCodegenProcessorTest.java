@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.codegen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import com.github.api.processor.ApiProcessor;
+import com.github.api.processor.TestCompiler;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.instance.InvocationPlan;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.testng.annotations.Test;
+
+public class ApiCodegenProcessorTest {
+    
+    private static final List<String> GENERATE = ImmutableList.of("-A" + ApiCodegenProcessor.GENERATE_OPTION + "=true");
+    
+    private static final String HANDLERS = "package codegen; "
+            + "import com.github.api.processor.handlers.AbstractExecutionHandler; "
+            + "import com.github.api.processor.instance.InvocationInstance; "
+            + "public class Handlers { "
+            + "    public static class IntegerExecutionHandler extends AbstractExecutionHandler<Object, Integer> { "
+            + "        public Integer apply(InvocationInstance<Object> instance) { return 1; } "
+            + "    } "
+            + "    public static class StringExecutionHandler extends AbstractExecutionHandler<Object, String> { "
+            + "        public String apply(InvocationInstance<Object> instance) { return \"1\"; } "
+            + "    } "
+            + "}";
+    
+    // fails every invocation, as is, with the passed failure.
+    static class FailingInvocationHandler extends AbstractRuntimeInvocationHandler {
+        
+        private final Throwable failure;
+        
+        FailingInvocationHandler(Throwable failure) {
+            this.failure = failure;
+        }
+        
+        @Override
+        public void prepare(Set<Class> apis) {
+        }
+        
+        @Override
+        public void warmUp(Set<Class> apis, Executor executor) {
+        }
+        
+        @Override
+        public InvocationPlan planFor(Method method) {
+            return null;
+        }
+        
+        @Override
+        public Object dispatch(Object source, InvocationPlan plan, Object[] args) throws Throwable {
+            throw failure;
+        }
+        
+        @Override
+        protected Object handleInvocation(Object proxy, Method method, Object[] args) throws Throwable {
+            throw failure;
+        }
+    }
+    
+    private static Path compile(Map<String, String> sources, List<Diagnostic<? extends JavaFileObject>> diagnostics) throws IOException {
+        Path output = Files.createTempDirectory("api-processor-codegen");
+        diagnostics.addAll(TestCompiler.compile(output, ImmutableList.of(new ApiCodegenProcessor()), GENERATE, sources));
+        return output;
+    }
+    
+    private static Path generatedSourceOf(Path output, String apiName) {
+        return output.resolve(GeneratedApis.generatedNameOf(apiName).replace('.', '/') + ".java");
+    }
+    
+    @Test
+    public void testMismatchedHandler() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        Path output = compile(ImmutableMap.of("codegen.Handlers", HANDLERS, 
+                "codegen.MismatchedApi", "package codegen; "
+                        + "@com.github.api.processor.annotations.Api public interface MismatchedApi { "
+                        + "    @com.github.api.processor.annotations.ExecutionHandler(Handlers.IntegerExecutionHandler.class) String greet(); "
+                        + "}"), diagnostics);
+        
+        List<String> errors = TestCompiler.errors(diagnostics);
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0)).contains("IntegerExecutionHandler").contains("outputs do not match expected returnType");
+        assertThat(Files.exists(generatedSourceOf(output, "codegen.MismatchedApi"))).isFalse();
+    }
+    
+    @Test
+    public void testGenericApiSkipped() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        Path output = compile(ImmutableMap.of("codegen.Handlers", HANDLERS, 
+                "codegen.GenericApi", "package codegen; "
+                        + "@com.github.api.processor.annotations.Api public interface GenericApi<T> { "
+                        + "    @com.github.api.processor.annotations.ExecutionHandler(Handlers.IntegerExecutionHandler.class) T get(); "
+                        + "}"), diagnostics);
+        
+        assertThat(TestCompiler.errors(diagnostics)).isEmpty();
+        assertThat(diagnostics.stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.NOTE)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList())).contains("Not generating implementation of generic @Api");
+        assertThat(Files.exists(generatedSourceOf(output, "codegen.GenericApi"))).isFalse();
+    }
+    
+    @Test
+    public void testEmptyApi() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        Path output = compile(ImmutableMap.of("codegen.EmptyApi", "package codegen; "
+                + "@com.github.api.processor.annotations.Api public interface EmptyApi { }"), diagnostics);
+        
+        assertThat(TestCompiler.errors(diagnostics)).isEmpty();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toUri().toURL()}, ApiCodegenProcessorTest.class.getClassLoader())) {
+            Class emptyApi = loader.loadClass("codegen.EmptyApi");
+            Object instance = ApiProcessor.builder().api(emptyApi).build().get(emptyApi);
+            assertThat(instance.getClass().getName()).isEqualTo(GeneratedApis.generatedNameOf("codegen.EmptyApi"));
+        }
+    }
+    
+    @Test
+    public void testCheckedExceptionRethrown() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        Path output = compile(ImmutableMap.of("codegen.Handlers", HANDLERS, 
+                "codegen.ThrowingApi", "package codegen; "
+                        + "@com.github.api.processor.annotations.Api public interface ThrowingApi { "
+                        + "    @com.github.api.processor.annotations.ExecutionHandler(Handlers.StringExecutionHandler.class) "
+                        + "    String read() throws java.io.IOException; "
+                        + "}"), diagnostics);
+        
+        assertThat(TestCompiler.errors(diagnostics)).isEmpty();
+        String generated = new String(Files.readAllBytes(generatedSourceOf(output, "codegen.ThrowingApi")), StandardCharsets.UTF_8);
+        assertThat(generated).contains("catch (java.io.IOException e)");
+        
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toUri().toURL()}, ApiCodegenProcessorTest.class.getClassLoader())) {
+            Class throwingApi = loader.loadClass("codegen.ThrowingApi");
+            Method read = throwingApi.getMethod("read");
+            
+            // declared checked exceptions, and unchecked ones, are rethrown as is.
+            for (Throwable failure : ImmutableList.of(new IOException("checked"), new IllegalStateException("unchecked"))) {
+                try {
+                    read.invoke(GeneratedApis.newInstance(throwingApi, new FailingInvocationHandler(failure)));
+                    fail("expected " + failure);
+                } catch (InvocationTargetException e) {
+                    assertThat(e.getCause()).isSameAs(failure);
+                }
+            }
+            
+            // any other is wrapped, as a java.lang.reflect.Proxy would.
+            Exception undeclared = new Exception("undeclared");
+            try {
+                read.invoke(GeneratedApis.newInstance(throwingApi, new FailingInvocationHandler(undeclared)));
+                fail("expected UndeclaredThrowableException");
+            } catch (InvocationTargetException e) {
+                assertThat(e.getCause()).isInstanceOf(UndeclaredThrowableException.class);
+                assertThat(e.getCause().getCause()).isSameAs(undeclared);
+            }
+        }
+    }
+}
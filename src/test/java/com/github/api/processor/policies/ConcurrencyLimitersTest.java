@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import com.github.api.processor.ApiProcessor;
+import com.github.api.processor.annotations.Api;
+import com.github.api.processor.annotations.ConcurrencyLimit;
+import com.github.api.processor.annotations.ConcurrencyLimit.Algorithm;
+import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.exceptions.ConcurrencyLimitExceededException;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractRuntimeInvocationHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.google.common.base.Throwables;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public class ConcurrencyLimitersTest {
+    
+    static class BlockingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        static volatile CountDownLatch entered = new CountDownLatch(0);
+        static volatile CountDownLatch released = new CountDownLatch(0);
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            entered.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        }
+    }
+    
+    @Api
+    @ConcurrencyLimit(algorithm = Algorithm.STATIC, limit = 1)
+    static interface LimitedApi {
+        
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        int blocked();
+        
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        int other();
+        
+        @ConcurrencyLimit(algorithm = Algorithm.NONE)
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        int unlimited();
+    }
+    
+    // not an @Api, such that it is only seen by testApiScopeRejectsMethodSettings.
+    @ConcurrencyLimit(algorithm = Algorithm.STATIC, limit = 2)
+    static interface MisconfiguredApi {
+        
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        int inherited();
+        
+        @ConcurrencyLimit(limit = 5)
+        @ExecutionHandler(BlockingExecutionHandler.class)
+        int misconfigured();
+    }
+    
+    @Test
+    public void testApiScope() throws Exception {
+        AbstractRuntimeInvocationHandler invocationHandler = ApiProcessor.builder()
+                .api(LimitedApi.class)
+                .build()
+                .get(AbstractRuntimeInvocationHandler.class);
+        ConcurrencyLimiter limiter = invocationHandler.planFor(LimitedApi.class.getMethod("blocked")).concurrencyLimiter();
+        assertThat(limiter.algorithm().limit()).isEqualTo(1);
+        assertThat(invocationHandler.planFor(LimitedApi.class.getMethod("other")).concurrencyLimiter()).isSameAs(limiter);
+        assertThat(invocationHandler.planFor(LimitedApi.class.getMethod("unlimited")).concurrencyLimiter()).isNull();
+    }
+    
+    @Test
+    public void testApiScopeRejectsMethodSettings() {
+        try {
+            ApiProcessor.builder().api(MisconfiguredApi.class).build();
+            fail("expected IllegalArgumentException");
+        } catch (RuntimeException e) {
+            assertThat(Throwables.getRootCause(e)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(Throwables.getRootCause(e).getMessage()).contains("misconfigured");
+        }
+    }
+    
+    @Test
+    public void testRejection() throws Exception {
+        LimitedApi limitedApi = ApiProcessor.builder()
+                .api(LimitedApi.class)
+                .build()
+                .get(LimitedApi.class);
+        BlockingExecutionHandler.entered = new CountDownLatch(1);
+        BlockingExecutionHandler.released = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> blocked = executor.submit(limitedApi::blocked);
+            assertThat(BlockingExecutionHandler.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            
+            // the limit of 1 is shared by every method of the Api, other than those opted out.
+            try {
+                limitedApi.other();
+                fail("expected ConcurrencyLimitExceededException");
+            } catch (ConcurrencyLimitExceededException e) {
+                // rejected rather than queued.
+            }
+            BlockingExecutionHandler.released.countDown();
+            assertThat(limitedApi.unlimited()).isEqualTo(1);
+            assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(limitedApi.other()).isEqualTo(1);
+        } finally {
+            BlockingExecutionHandler.released.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testConcurrencyLimiter() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new StaticLimit(2));
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        
+        limiter.release(1000, false);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+        
+        limiter.cancel();
+        limiter.cancel();
+        assertThat(limiter.inFlight()).isEqualTo(0);
+    }
+    
+    @Test
+    public void testAimdLimit() {
+        AimdLimit limit = new AimdLimit(10, 5, 12);
+        
+        // only grows while at least half the limit is in use.
+        limit.onSample(1000, 4, false);
+        assertThat(limit.limit()).isEqualTo(10);
+        limit.onSample(1000, 5, false);
+        assertThat(limit.limit()).isEqualTo(11);
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(1000, 10, false);
+        }
+        assertThat(limit.limit()).isEqualTo(12);
+        
+        // each failure backs off, down to the minimum.
+        limit.onSample(1000, 10, true);
+        assertThat(limit.limit()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(1000, 10, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+    
+    @Test
+    public void testGradientLimit() {
+        GradientLimit limit = new GradientLimit(10, 5, 40);
+        
+        // neither failures nor samples far below the limit move it.
+        limit.onSample(1000, 10, true);
+        limit.onSample(1000, 2, false);
+        assertThat(limit.limit()).isEqualTo(10);
+        
+        // steady latency grows the limit by its queue allowance, up to the maximum.
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(1000, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isEqualTo(40);
+        
+        // a single outlier doesn't move it, while latency staying well above 
+        // the long-term average shrinks it.
+        int grown = limit.limit();
+        limit.onSample(10000, grown, false);
+        assertThat(limit.limit()).isEqualTo(grown);
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(10000, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isLessThan(grown / 2);
+        
+        // never below the minimum, however long latency stays high.
+        GradientLimit floored = new GradientLimit(10, 8, 40);
+        for (int i = 0; i < 100; i++) {
+            floored.onSample(1000, floored.limit(), false);
+        }
+        for (int i = 0; i < 50; i++) {
+            floored.onSample(100000, floored.limit(), false);
+            assertThat(floored.limit()).isGreaterThanOrEqualTo(8);
+        }
+    }
+}
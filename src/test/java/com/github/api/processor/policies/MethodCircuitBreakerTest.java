@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.api.processor.policies.MethodCircuitBreaker.Permit;
+import com.github.api.processor.policies.MethodCircuitBreaker.State;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public class MethodCircuitBreakerTest {
+    
+    private static final long OPEN_DURATION = 50;
+    
+    private MethodCircuitBreaker opened(int halfOpenCalls) {
+        MethodCircuitBreaker circuitBreaker = new MethodCircuitBreaker(0.5, 4, 4, OPEN_DURATION, halfOpenCalls);
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        }
+        return circuitBreaker;
+    }
+    
+    private void awaitHalfOpen() throws InterruptedException {
+        Thread.sleep(OPEN_DURATION * 2);
+    }
+    
+    @Test
+    public void testClosedToOpen() {
+        MethodCircuitBreaker circuitBreaker = new MethodCircuitBreaker(0.5, 4, 4, OPEN_DURATION, 2);
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        }
+        assertThat(circuitBreaker.state()).isEqualTo(State.CLOSED);
+        
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        assertThat(circuitBreaker.state()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isNull();
+    }
+    
+    @Test
+    public void testHalfOpenToClosed() throws Exception {
+        MethodCircuitBreaker circuitBreaker = opened(2);
+        awaitHalfOpen();
+        
+        Permit first = circuitBreaker.tryAcquire();
+        Permit second = circuitBreaker.tryAcquire();
+        assertThat(circuitBreaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(circuitBreaker.tryAcquire()).isNull();
+        
+        circuitBreaker.onSuccess(first);
+        assertThat(circuitBreaker.state()).isEqualTo(State.HALF_OPEN);
+        circuitBreaker.onSuccess(second);
+        assertThat(circuitBreaker.state()).isEqualTo(State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isNotNull();
+    }
+    
+    @Test
+    public void testHalfOpenToOpen() throws Exception {
+        MethodCircuitBreaker circuitBreaker = opened(2);
+        awaitHalfOpen();
+        
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        assertThat(circuitBreaker.state()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isNull();
+    }
+    
+    @Test
+    public void testStaleOutcomesIgnored() throws Exception {
+        MethodCircuitBreaker circuitBreaker = new MethodCircuitBreaker(0.5, 4, 4, OPEN_DURATION, 2);
+        Permit slowSuccess = circuitBreaker.tryAcquire();
+        Permit slowFailure = circuitBreaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure(circuitBreaker.tryAcquire());
+        }
+        awaitHalfOpen();
+        Permit trial = circuitBreaker.tryAcquire();
+        assertThat(circuitBreaker.state()).isEqualTo(State.HALF_OPEN);
+        
+        // invocations admitted while CLOSED neither close nor reopen the breaker.
+        circuitBreaker.onFailure(slowFailure);
+        assertThat(circuitBreaker.state()).isEqualTo(State.HALF_OPEN);
+        circuitBreaker.onSuccess(trial);
+        circuitBreaker.onSuccess(slowSuccess);
+        assertThat(circuitBreaker.state()).isEqualTo(State.HALF_OPEN);
+        
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquire());
+        assertThat(circuitBreaker.state()).isEqualTo(State.CLOSED);
+    }
+    
+    @Test
+    public void testConcurrentHalfOpen() throws Exception {
+        final int threads = 8;
+        final int halfOpenCalls = 3;
+        MethodCircuitBreaker circuitBreaker = opened(halfOpenCalls);
+        awaitHalfOpen();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Permit>> permits = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                permits.add(executor.submit((Callable<Permit>) () -> {
+                    start.await();
+                    return circuitBreaker.tryAcquire();
+                }));
+            }
+            start.countDown();
+            
+            // exactly the configured number of trial invocations is let through.
+            List<Permit> admitted = new ArrayList<>();
+            for (Future<Permit> permit : permits) {
+                Permit admittedPermit = permit.get(10, TimeUnit.SECONDS);
+                if (admittedPermit != null) {
+                    admitted.add(admittedPermit);
+                }
+            }
+            assertThat(admitted).hasSize(halfOpenCalls);
+            
+            List<Future<?>> outcomes = new ArrayList<>();
+            for (Permit permit : admitted) {
+                outcomes.add(executor.submit(() -> circuitBreaker.onSuccess(permit)));
+            }
+            for (Future<?> outcome : outcomes) {
+                outcome.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(circuitBreaker.state()).isEqualTo(State.CLOSED);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
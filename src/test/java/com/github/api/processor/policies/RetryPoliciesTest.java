@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.api.processor.policies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.api.processor.ApiProcessor;
+import com.github.api.processor.ApiProcessorConstants;
+import com.github.api.processor.annotations.Api;
+import com.github.api.processor.annotations.ExecutionHandler;
+import com.github.api.processor.annotations.FallbackHandler;
+import com.github.api.processor.annotations.Idempotent;
+import com.github.api.processor.annotations.Retry;
+import com.github.api.processor.handlers.AbstractExecutionHandler;
+import com.github.api.processor.handlers.AbstractFallbackHandler;
+import com.github.api.processor.instance.InvocationInstance;
+import com.github.api.processor.wrappers.FallbackWrapper;
+import com.google.common.collect.ImmutableList;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+public class RetryPoliciesTest {
+    
+    static class FailingExecutionHandler extends AbstractExecutionHandler<Integer, Integer> {
+        
+        static final AtomicInteger EXECUTIONS = new AtomicInteger();
+        
+        @Override
+        public Integer apply(InvocationInstance<Integer> object) {
+            EXECUTIONS.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }
+    }
+    
+    static class FailedFallbackHandler extends AbstractFallbackHandler<Integer> {
+        @Override
+        public Integer apply(FallbackWrapper object) {
+            return -1;
+        }
+    }
+    
+    @Api
+    static interface RetriedApi {
+        
+        @ExecutionHandler(FailingExecutionHandler.class)
+        @FallbackHandler(FailedFallbackHandler.class)
+        int notIdempotent();
+        
+        @Idempotent
+        @ExecutionHandler(FailingExecutionHandler.class)
+        @FallbackHandler(FailedFallbackHandler.class)
+        int idempotent();
+        
+        @Retry(count = 1, delay = 0)
+        @ExecutionHandler(FailingExecutionHandler.class)
+        @FallbackHandler(FailedFallbackHandler.class)
+        int retriedOnce();
+        
+        @Retry(count = 2, delay = 0, abortOn = IllegalStateException.class)
+        @ExecutionHandler(FailingExecutionHandler.class)
+        @FallbackHandler(FailedFallbackHandler.class)
+        int aborted();
+    }
+    
+    @Test
+    public void testIdempotentOnly() {
+        RetriedApi retriedApi = ApiProcessor.builder()
+                .api(RetriedApi.class)
+                .properties(ApiProcessorConstants.RETRY_COUNT, "2")
+                .properties(ApiProcessorConstants.RETRY_DELAY_START, "0")
+                .build()
+                .get(RetriedApi.class);
+        
+        int executions = FailingExecutionHandler.EXECUTIONS.get();
+        assertThat(retriedApi.notIdempotent()).isEqualTo(-1);
+        assertThat(FailingExecutionHandler.EXECUTIONS.get() - executions).isEqualTo(1);
+        
+        executions = FailingExecutionHandler.EXECUTIONS.get();
+        assertThat(retriedApi.idempotent()).isEqualTo(-1);
+        assertThat(FailingExecutionHandler.EXECUTIONS.get() - executions).isEqualTo(3);
+    }
+    
+    @Test
+    public void testRetryBudget() {
+        RetriedApi retriedApi = ApiProcessor.builder()
+                .api(RetriedApi.class)
+                .properties(ApiProcessorConstants.RETRY_BUDGET_RATE, "0.001")
+                .properties(ApiProcessorConstants.RETRY_BUDGET_BURST, "2")
+                .build()
+                .get(RetriedApi.class);
+        
+        // exhausting retries must not take a token, so both tokens go to a retry.
+        for (int i = 0; i < 2; i++) {
+            int executions = FailingExecutionHandler.EXECUTIONS.get();
+            assertThat(retriedApi.retriedOnce()).isEqualTo(-1);
+            assertThat(FailingExecutionHandler.EXECUTIONS.get() - executions).isEqualTo(2);
+        }
+        
+        // once the budget is empty failures are no longer retried.
+        int executions = FailingExecutionHandler.EXECUTIONS.get();
+        assertThat(retriedApi.retriedOnce()).isEqualTo(-1);
+        assertThat(FailingExecutionHandler.EXECUTIONS.get() - executions).isEqualTo(1);
+    }
+    
+    @Test
+    public void testExceptionClassifier() {
+        ExceptionClassifier classifier = new ExceptionClassifier(ImmutableList.of(IOException.class), 
+                ImmutableList.of(FileNotFoundException.class));
+        assertThat(classifier.test(new IOException())).isTrue();
+        assertThat(classifier.test(new FileNotFoundException())).isFalse();
+        assertThat(classifier.test(new IllegalStateException())).isFalse();
+        assertThat(classifier.test(null)).isFalse();
+        assertThat(classifier.retriesAll()).isFalse();
+        
+        RetriedApi retriedApi = ApiProcessor.builder()
+                .api(RetriedApi.class)
+                .build()
+                .get(RetriedApi.class);
+        int executions = FailingExecutionHandler.EXECUTIONS.get();
+        assertThat(retriedApi.aborted()).isEqualTo(-1);
+        assertThat(FailingExecutionHandler.EXECUTIONS.get() - executions).isEqualTo(1);
+    }
+}